@@ -1,5 +1,11 @@
 package com.shout.config;
 
+import com.shout.util.cache.CacheInvalidationBus;
+import com.shout.util.cache.CacheValueSerializers;
+import com.shout.util.cache.TwoLevelCacheManager;
+import com.shout.util.cache.TwoLevelCacheProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
@@ -7,22 +13,64 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
 
-import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
 
+/**
+ * Cache Configuration - Caffeine L1 per node, Redis L2 shared
+ * Per-cache sizes and TTLs come from app.cache.*; L1 invalidations are broadcast over Redis pub/sub.
+ * L2 values use the serializer from app.cache.serialization (Smile + LZ4 by default).
+ */
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties(TwoLevelCacheProperties.class)
 public class CacheConfiguration {
 
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
-        RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
-            // Cache TTL: 1 hour for analytics data
-            .entryTtl(Duration.ofHours(1))
-            .disableCachingNullValues();
-
-        return RedisCacheManager.builder(connectionFactory)
-            .cacheDefaults(config)
+    public CacheInvalidationBus cacheInvalidationBus(StringRedisTemplate redisTemplate,
+                                                     TwoLevelCacheProperties properties) {
+        return new CacheInvalidationBus(redisTemplate, properties.getInvalidationChannel());
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                            CacheInvalidationBus invalidationBus,
+                                                                            TwoLevelCacheProperties properties) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(invalidationBus, new ChannelTopic(properties.getInvalidationChannel()));
+        return container;
+    }
+
+    @Bean
+    public CacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                     TwoLevelCacheProperties properties,
+                                     CacheInvalidationBus invalidationBus,
+                                     MeterRegistry meterRegistry) {
+        TwoLevelCacheProperties.Serialization serialization = properties.getSerialization();
+        RedisCacheConfiguration defaults = RedisCacheConfiguration.defaultCacheConfig()
+            .entryTtl(properties.getDefaults().getL2Ttl())
+            .disableCachingNullValues()
+            .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(
+                CacheValueSerializers.create(serialization)))
+            // Entries written in another format are never read back after a format switch
+            .prefixCacheNameWith(serialization.getFormat() + ":");
+
+        Map<String, RedisCacheConfiguration> perCache = new HashMap<>();
+        properties.getCaches().keySet()
+            .forEach(name -> perCache.put(name, defaults.entryTtl(properties.policyFor(name).getL2Ttl())));
+
+        RedisCacheManager l2Manager = RedisCacheManager.builder(connectionFactory)
+            .cacheDefaults(defaults)
+            .withInitialCacheConfigurations(perCache)
             .build();
+        l2Manager.afterPropertiesSet();
+
+        return new TwoLevelCacheManager(l2Manager, properties, invalidationBus, meterRegistry);
     }
 }
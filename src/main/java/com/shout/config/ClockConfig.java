@@ -0,0 +1,22 @@
+package com.shout.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+/**
+ * Clock Configuration - single time source for time-driven components
+ * Tests replace it with a fixed or mutable clock
+ */
+@Configuration
+public class ClockConfig {
+
+    /**
+     * System clock in the JVM default zone (matches the LocalDateTime.now() timestamps stored in the DB)
+     */
+    @Bean
+    public Clock clock() {
+        return Clock.systemDefaultZone();
+    }
+}
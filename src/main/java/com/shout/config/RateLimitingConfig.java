@@ -1,14 +1,19 @@
 package com.shout.config;
 
+import com.shout.util.ratelimit.BucketStore;
+import com.shout.util.ratelimit.LocalBucketStore;
+import com.shout.util.ratelimit.RedisBucketStore;
 import io.github.bucket4j.Bandwidth;
-import io.github.bucket4j.Bucket;
-import io.github.bucket4j.Bucket4j;
 import io.github.bucket4j.Refill;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPoolConfig;
 
 import java.time.Duration;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Rate Limiting Configuration using Bucket4j
@@ -44,10 +49,46 @@ public class RateLimitingConfig {
     }
 
     /**
-     * Bucket cache for tracking rate limits per IP/user
+     * Local bucket store (default): bounded by size, idle buckets evicted
+     * Idle timeout should exceed the longest refill period so an evicted bucket was already full
      */
     @Bean
-    public ConcurrentHashMap<String, Bucket> bucketCache() {
-        return new ConcurrentHashMap<>();
+    @ConditionalOnProperty(name = "rate-limit.store", havingValue = "local", matchIfMissing = true)
+    public BucketStore localBucketStore(
+            @Value("${rate-limit.local.max-size:100000}") long maxSize,
+            @Value("${rate-limit.local.idle-timeout:2h}") Duration idleTimeout,
+            MeterRegistry meterRegistry) {
+        return new LocalBucketStore(maxSize, idleTimeout, meterRegistry);
+    }
+
+    /**
+     * Redis bucket store: buckets shared by every replica
+     */
+    @Bean
+    @ConditionalOnProperty(name = "rate-limit.store", havingValue = "redis")
+    public BucketStore redisBucketStore(
+            JedisPool rateLimitJedisPool,
+            @Value("${rate-limit.redis.key-prefix:rate_limit:}") String keyPrefix,
+            @Value("${rate-limit.redis.keep-after-refill:10m}") Duration keepAfterRefill,
+            MeterRegistry meterRegistry) {
+        return new RedisBucketStore(rateLimitJedisPool, keyPrefix, keepAfterRefill, meterRegistry);
+    }
+
+    /**
+     * Dedicated Jedis pool for the Bucket4j proxy manager
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "rate-limit.store", havingValue = "redis")
+    public JedisPool rateLimitJedisPool(
+            @Value("${spring.redis.host:localhost}") String host,
+            @Value("${spring.redis.port:6379}") int port,
+            @Value("${spring.redis.password:}") String password,
+            @Value("${spring.redis.timeout:2000ms}") Duration timeout,
+            @Value("${rate-limit.redis.pool-size:8}") int poolSize) {
+        JedisPoolConfig poolConfig = new JedisPoolConfig();
+        poolConfig.setMaxTotal(poolSize);
+        poolConfig.setMaxIdle(poolSize);
+        return new JedisPool(poolConfig, host, port, (int) timeout.toMillis(),
+            password == null || password.isBlank() ? null : password);
     }
 }
@@ -2,7 +2,8 @@ package com.shout.controller;
 
 import com.shout.dto.AnalyticsDTO;
 import com.shout.model.*;
-import com.shout.repository.PostAnalyticsRepository;
+import com.shout.repository.projection.AnalyticsAggregateView;
+import com.shout.service.AnalyticsRollupService;
 import com.shout.service.SubscriptionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -10,26 +11,26 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.LocalDateTime;
+import java.time.LocalDate;
 import java.time.YearMonth;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/analytics")
 @RequiredArgsConstructor
 @Slf4j
 public class AnalyticsController {
-    private final PostAnalyticsRepository analyticsRepository;
+    private final AnalyticsRollupService rollupService;
     private final SubscriptionService subscriptionService;
 
     /**
      * Get user's analytics dashboard (PRO only)
      */
     @GetMapping("/dashboard")
-    public ResponseEntity<?> getDashboard(@RequestAttribute("user") User user) {
+    public ResponseEntity<?> getDashboard(@RequestAttribute("user") User user,
+                                          @RequestParam(required = false) List<String> groupBy) {
         try {
             // Check if PRO user
             if (!subscriptionService.isProUser(user)) {
@@ -37,21 +38,19 @@ public class AnalyticsController {
                     .body(new ErrorResponse("Upgrade to PRO to access analytics", "PRO_REQUIRED"));
             }
 
-            // Get all analytics for user
-            List<PostAnalytics> analytics = analyticsRepository.findByUser(user);
-
-            // Calculate aggregates
-            Long totalImpressions = analyticsRepository.getTotalImpressions(user);
-            Long totalClicks = analyticsRepository.getTotalClicks(user);
-            Long totalProfileVisits = analyticsRepository.getTotalProfileVisits(user);
-            Double avgEngagement = analyticsRepository.getAverageEngagementRate(user);
-
-            Map<String, Object> dashboard = new HashMap<>();
-            dashboard.put("totalImpressions", totalImpressions != null ? totalImpressions : 0);
-            dashboard.put("totalClicks", totalClicks != null ? totalClicks : 0);
-            dashboard.put("totalProfileVisits", totalProfileVisits != null ? totalProfileVisits : 0);
-            dashboard.put("averageEngagementRate", avgEngagement != null ? avgEngagement : 0.0);
-            dashboard.put("posts", analytics.size());
+            // All-time totals from the rollups
+            Map<String, Object> dashboard = new HashMap<>(totals(rollupService.allTime(user.getId(), null, false)));
+
+            // Optional breakdown, e.g. ?groupBy=month,type or ?groupBy=day
+            boolean byDay = groupBy != null && groupBy.contains("day");
+            boolean byMonth = groupBy != null && groupBy.contains("month");
+            boolean byType = groupBy != null && groupBy.contains("type");
+            if (byDay || byMonth) {
+                AnalyticsRollup.PeriodType period = byDay ? AnalyticsRollup.PeriodType.DAY : AnalyticsRollup.PeriodType.MONTH;
+                dashboard.put("breakdown", rollupService.series(user.getId(), period, null, null, null, byType));
+            } else if (byType) {
+                dashboard.put("breakdown", rollupService.allTime(user.getId(), null, true));
+            }
 
             return ResponseEntity.ok(dashboard);
         } catch (Exception e) {
@@ -74,16 +73,15 @@ public class AnalyticsController {
             }
 
             YearMonth ym = YearMonth.parse(yearMonth);
-            LocalDateTime startDate = ym.atDay(1).atStartOfDay();
-            LocalDateTime endDate = ym.atEndOfMonth().atTime(23, 59, 59);
-
-            List<PostAnalytics> analytics = analyticsRepository.findByUserAndCreatedAtBetween(user, startDate, endDate);
+            LocalDate startDate = ym.atDay(1);
+            LocalDate endDate = ym.plusMonths(1).atDay(1);
 
-            Map<String, Object> data = new HashMap<>();
+            // Month totals from the monthly rollup, plus the day-by-day series
+            Map<String, Object> data = new HashMap<>(totals(rollupService.totals(
+                user.getId(), AnalyticsRollup.PeriodType.MONTH, startDate, endDate, null)));
             data.put("month", yearMonth);
-            data.put("posts", analytics.size());
-            data.put("totalImpressions", analytics.stream().mapToLong(a -> a.getImpressions() != null ? a.getImpressions() : 0).sum());
-            data.put("totalClicks", analytics.stream().mapToLong(a -> a.getClicks() != null ? a.getClicks() : 0).sum());
+            data.put("daily", rollupService.series(
+                user.getId(), AnalyticsRollup.PeriodType.DAY, startDate, endDate, null, false));
 
             return ResponseEntity.ok(data);
         } catch (Exception e) {
@@ -105,14 +103,14 @@ public class AnalyticsController {
                     .body(new ErrorResponse("Upgrade to PRO to access analytics", "PRO_REQUIRED"));
             }
 
-            List<PostAnalytics> analytics = analyticsRepository.findByUser(user).stream()
-                .filter(a -> a.getMediaType().name().equals(mediaType.toUpperCase()))
-                .collect(Collectors.toList());
+            String type = PostAnalytics.MediaType.valueOf(mediaType.toUpperCase()).name();
 
-            Map<String, Object> data = new HashMap<>();
+            // Totals plus a per-month breakdown for the type
+            Map<String, Object> data = new HashMap<>(totals(rollupService.allTime(user.getId(), type, false)));
             data.put("mediaType", mediaType);
-            data.put("count", analytics.size());
-            data.put("analytics", analytics);
+            data.put("count", data.get("posts"));
+            data.put("monthly", rollupService.series(
+                user.getId(), AnalyticsRollup.PeriodType.MONTH, null, null, type, false));
 
             return ResponseEntity.ok(data);
         } catch (Exception e) {
@@ -122,6 +120,20 @@ public class AnalyticsController {
         }
     }
 
+    /**
+     * Ungrouped aggregate row as dashboard fields - a user without analytics gets zeros
+     */
+    private static Map<String, Object> totals(List<AnalyticsAggregateView> rows) {
+        AnalyticsAggregateView row = rows.isEmpty() ? null : rows.get(0);
+        Map<String, Object> totals = new HashMap<>();
+        totals.put("posts", row != null ? row.getPosts() : 0L);
+        totals.put("totalImpressions", row != null ? row.getTotalImpressions() : 0L);
+        totals.put("totalClicks", row != null ? row.getTotalClicks() : 0L);
+        totals.put("totalProfileVisits", row != null ? row.getTotalProfileVisits() : 0L);
+        totals.put("averageEngagementRate", row != null ? row.getAverageEngagementRate() : 0.0);
+        return totals;
+    }
+
     // Error response class
     private static class ErrorResponse {
         public String message;
@@ -45,12 +45,10 @@ public class ExchangeController {
             @PathVariable Long exchangeId,
             HttpServletRequest request) {
         try {
-            String token = jwtTokenProvider.getTokenFromRequest(request);
-            if (token == null || !jwtTokenProvider.validateToken(token)) {
+            Long userId = jwtTokenProvider.resolveUserId(request);
+            if (userId == null) {
                 return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
             }
-           
-            Long userId = jwtTokenProvider.getUserIdFromToken(token);
             ShoutoutExchange exchange = exchangeService.getExchangeById(exchangeId);
            
             // Authorization check
@@ -78,12 +76,10 @@ public class ExchangeController {
             @RequestBody Map<String, String> requestBody,
             HttpServletRequest request) {
         try {
-            String token = jwtTokenProvider.getTokenFromRequest(request);
-            if (token == null || !jwtTokenProvider.validateToken(token)) {
+            Long userId = jwtTokenProvider.resolveUserId(request);
+            if (userId == null) {
                 return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
             }
-           
-            Long userId = jwtTokenProvider.getUserIdFromToken(token);
             ShoutoutExchange exchange = exchangeService.getExchangeById(exchangeId);
            
             String postUrl = requestBody.get("postUrl");
@@ -120,12 +116,10 @@ public class ExchangeController {
             @RequestBody Map<String, Object> requestBody,
             HttpServletRequest request) {
         try {
-            String token = jwtTokenProvider.getTokenFromRequest(request);
-            if (token == null || !jwtTokenProvider.validateToken(token)) {
+            Long userId = jwtTokenProvider.resolveUserId(request);
+            if (userId == null) {
                 return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
             }
-           
-            Long userId = jwtTokenProvider.getUserIdFromToken(token);
             ShoutoutExchange exchange = exchangeService.getExchangeById(exchangeId);
            
             // Check if exchange is complete
@@ -166,12 +160,10 @@ public class ExchangeController {
     @GetMapping("/user/active")
     public ResponseEntity<?> getUserActiveExchanges(HttpServletRequest request) {
         try {
-            String token = jwtTokenProvider.getTokenFromRequest(request);
-            if (token == null || !jwtTokenProvider.validateToken(token)) {
+            Long userId = jwtTokenProvider.resolveUserId(request);
+            if (userId == null) {
                 return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
             }
-           
-            Long userId = jwtTokenProvider.getUserIdFromToken(token);
             User user = userService.findUserById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
            
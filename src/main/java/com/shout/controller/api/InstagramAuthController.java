@@ -6,6 +6,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 
 import java.util.Map;
 
@@ -20,34 +21,33 @@ public class InstagramAuthController {
 
     /**
      * Instagram OAuth Callback - MAIN ENTRY POINT
-     * Called by Instagram after user authorizes app
+     * Called by Instagram after user authorizes app.
+     * Returns a Mono so the servlet thread is released while Instagram is being called.
      */
     @GetMapping("/instagram/callback")
-    public ResponseEntity<?> instagramCallback(
+    public Mono<ResponseEntity<AuthResponse>> instagramCallback(
             @RequestParam String code,
             @RequestParam(required = false) String state) {
-        try {
-            log.info("📥 Instagram callback received with code: {}", code.substring(0, 10) + "...");
-            
-            AuthResponse response = instagramAuthService.handleCallback(code, state);
-            
-            if (response.isSuccess()) {
-                log.info("✅ Authentication successful for user: {}", response.getUser().getUsername());
-                return ResponseEntity.ok(response);
-            } else {
+        log.info("📥 Instagram callback received with code: {}", code.substring(0, Math.min(10, code.length())) + "...");
+
+        return instagramAuthService.handleCallbackAsync(code, state)
+            .map(response -> {
+                if (response.isSuccess()) {
+                    log.info("✅ Authentication successful for user: {}", response.getUser().getUsername());
+                    return ResponseEntity.ok(response);
+                }
                 log.error("❌ Authentication failed: {}", response.getMessage());
                 return ResponseEntity.badRequest().body(response);
-            }
-            
-        } catch (Exception e) {
-            log.error("💥 Instagram callback error", e);
-            return ResponseEntity.badRequest().body(
-                AuthResponse.builder()
-                    .success(false)
-                    .message("Authentication failed: " + e.getMessage())
-                    .build()
-            );
-        }
+            })
+            .onErrorResume(e -> {
+                log.error("💥 Instagram callback error", e);
+                return Mono.just(ResponseEntity.badRequest().body(
+                    AuthResponse.builder()
+                        .success(false)
+                        .message("Authentication failed: " + e.getMessage())
+                        .build()
+                ));
+            });
     }
 
     /**
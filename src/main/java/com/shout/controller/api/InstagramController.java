@@ -1,7 +1,9 @@
 package com.shout.controller;
 
+import com.shout.dto.AnalyticsDTO;
 import com.shout.model.*;
 import com.shout.repository.ShoutoutExchangeRepository;
+import com.shout.service.AnalyticsRefreshEngine;
 import com.shout.service.InstagramAnalyticsService;
 import com.shout.util.RateLimiter;
 import lombok.RequiredArgsConstructor;
@@ -19,6 +21,7 @@ import java.util.Map;
 @Slf4j
 public class InstagramController {
     private final InstagramAnalyticsService analyticsService;
+    private final AnalyticsRefreshEngine refreshEngine;
     private final ShoutoutExchangeRepository exchangeRepository;
     private final RateLimiter rateLimiter;
 
@@ -46,7 +49,7 @@ public class InstagramController {
             }
 
             // Fetch analytics from Instagram API
-            PostAnalytics analytics = analyticsService.fetchPostAnalytics(exchange, instagramPostId);
+            AnalyticsDTO analytics = analyticsService.fetchPostAnalytics(exchange, instagramPostId);
 
             if (analytics == null) {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -76,7 +79,7 @@ public class InstagramController {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Not authorized");
             }
 
-            PostAnalytics analytics = analyticsService.refreshAnalytics(exchange);
+            AnalyticsDTO analytics = analyticsService.refreshAnalytics(exchange);
 
             if (analytics == null) {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Failed to refresh");
@@ -89,6 +92,27 @@ public class InstagramController {
         }
     }
 
+    /**
+     * Refresh all of the user's stale analytics in bulk (Graph API batch requests)
+     */
+    @PostMapping("/analytics/refresh")
+    public ResponseEntity<?> refreshAllAnalytics(@RequestAttribute("user") User user) {
+        try {
+            // One budget unit per bulk refresh - the batch covers up to 50 posts per round trip
+            if (!rateLimiter.allowRequest(user.getInstagramId())) {
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .body(new ErrorResponse("Rate limit exceeded. Try again in 1 hour", 0L));
+            }
+
+            // The engine evicts the cache entries of the rows it rewrites
+            int refreshed = refreshEngine.refreshForUser(user.getId());
+            return ResponseEntity.ok(Map.of("refreshed", refreshed));
+        } catch (Exception e) {
+            log.error("Error refreshing analytics", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        }
+    }
+
     /**
      * Get rate limit status
      */
@@ -37,12 +37,10 @@ public class NotificationAPIController {
             @RequestParam(required = false) String type,
             HttpServletRequest request) {
         try {
-            String token = jwtTokenProvider.getTokenFromRequest(request);
-            if (token == null || !jwtTokenProvider.validateToken(token)) {
+            Long userId = jwtTokenProvider.resolveUserId(request);
+            if (userId == null) {
                 return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
             }
-
-            Long userId = jwtTokenProvider.getUserIdFromToken(token);
             List<Notification> notifications;
 
             if (type != null) {
@@ -78,12 +76,10 @@ public class NotificationAPIController {
     @GetMapping("/unread/count")
     public ResponseEntity<?> getUnreadCount(HttpServletRequest request) {
         try {
-            String token = jwtTokenProvider.getTokenFromRequest(request);
-            if (token == null || !jwtTokenProvider.validateToken(token)) {
+            Long userId = jwtTokenProvider.resolveUserId(request);
+            if (userId == null) {
                 return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
             }
-
-            Long userId = jwtTokenProvider.getUserIdFromToken(token);
             long unreadCount = notificationService.getUnreadCount(userId);
 
             return ResponseEntity.ok(Map.of("unreadCount", unreadCount));
@@ -102,12 +98,10 @@ public class NotificationAPIController {
             @PathVariable Long id,
             HttpServletRequest request) {
         try {
-            String token = jwtTokenProvider.getTokenFromRequest(request);
-            if (token == null || !jwtTokenProvider.validateToken(token)) {
+            Long userId = jwtTokenProvider.resolveUserId(request);
+            if (userId == null) {
                 return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
             }
-
-            Long userId = jwtTokenProvider.getUserIdFromToken(token);
             Optional<Notification> notificationOpt = notificationService.getNotification(id);
 
             if (!notificationOpt.isPresent()) {
@@ -140,12 +134,10 @@ public class NotificationAPIController {
             @PathVariable Long id,
             HttpServletRequest request) {
         try {
-            String token = jwtTokenProvider.getTokenFromRequest(request);
-            if (token == null || !jwtTokenProvider.validateToken(token)) {
+            Long userId = jwtTokenProvider.resolveUserId(request);
+            if (userId == null) {
                 return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
             }
-
-            Long userId = jwtTokenProvider.getUserIdFromToken(token);
             Optional<Notification> notificationOpt = notificationService.getNotification(id);
 
             if (!notificationOpt.isPresent()) {
@@ -175,12 +167,10 @@ public class NotificationAPIController {
     @PostMapping("/mark-all-read")
     public ResponseEntity<?> markAllAsRead(HttpServletRequest request) {
         try {
-            String token = jwtTokenProvider.getTokenFromRequest(request);
-            if (token == null || !jwtTokenProvider.validateToken(token)) {
+            Long userId = jwtTokenProvider.resolveUserId(request);
+            if (userId == null) {
                 return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
             }
-
-            Long userId = jwtTokenProvider.getUserIdFromToken(token);
             notificationService.markAllAsRead(userId);
 
             return ResponseEntity.ok(Map.of("message", "All notifications marked as read"));
@@ -1,6 +1,7 @@
 package com.shout.controller;
 
 import com.shout.model.User;
+import com.shout.service.EntitlementService;
 import com.shout.service.SubscriptionService;
 import com.shout.service.UserService;
 import com.shout.util.JwtTokenProvider;
@@ -35,6 +36,9 @@ public class PaymentAPIController {
     @Autowired
     private JwtTokenProvider jwtTokenProvider;
 
+    @Autowired
+    private EntitlementService entitlementService;
+
     /**
      * GET /api/payments/current-plan
      * Get current user's plan details
@@ -42,24 +46,21 @@ public class PaymentAPIController {
     @GetMapping("/current-plan")
     public ResponseEntity<?> getCurrentPlan(HttpServletRequest request) {
         try {
-            String token = jwtTokenProvider.getTokenFromRequest(request);
-            if (token == null || !jwtTokenProvider.validateToken(token)) {
+            Long userId = jwtTokenProvider.resolveUserId(request);
+            if (userId == null) {
                 return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
             }
-
-            Long userId = jwtTokenProvider.getUserIdFromToken(token);
             Optional<User> userOptional = userService.findUserById(userId);
             if (!userOptional.isPresent()) {
                 return ResponseEntity.notFound().build();
             }
 
             User user = userOptional.get();
+            EntitlementService.Entitlements entitlements = entitlementService.get(userId);
             Map<String, Object> response = new HashMap<>();
-            response.put("planType", user.getPlanType());
-            response.put("dailyLimit", user.getPlanType().equals("PRO") ? 50 : 10);
-            response.put("allowedMediaTypes", user.getPlanType().equals("PRO") 
-                ? new String[]{"STORY", "POST", "REEL"} 
-                : new String[]{"STORY"});
+            response.put("planType", entitlements.planType().name());
+            response.put("dailyLimit", entitlements.dailyLimit());
+            response.put("allowedMediaTypes", entitlements.mediaTypes());
             response.put("subscriptionStartDate", user.getSubscriptionStartDate());
             response.put("subscriptionEndDate", user.getSubscriptionEndDate());
 
@@ -124,12 +125,10 @@ public class PaymentAPIController {
             @RequestBody Map<String, String> request,
             HttpServletRequest httpRequest) {
         try {
-            String token = jwtTokenProvider.getTokenFromRequest(httpRequest);
-            if (token == null || !jwtTokenProvider.validateToken(token)) {
+            Long userId = jwtTokenProvider.resolveUserId(httpRequest);
+            if (userId == null) {
                 return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
             }
-
-            Long userId = jwtTokenProvider.getUserIdFromToken(token);
             Optional<User> userOptional = userService.findUserById(userId);
             if (!userOptional.isPresent()) {
                 return ResponseEntity.notFound().build();
@@ -177,12 +176,10 @@ public class PaymentAPIController {
             @RequestBody Map<String, String> request,
             HttpServletRequest httpRequest) {
         try {
-            String token = jwtTokenProvider.getTokenFromRequest(httpRequest);
-            if (token == null || !jwtTokenProvider.validateToken(token)) {
+            Long userId = jwtTokenProvider.resolveUserId(httpRequest);
+            if (userId == null) {
                 return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
             }
-
-            Long userId = jwtTokenProvider.getUserIdFromToken(token);
             Optional<User> userOptional = userService.findUserById(userId);
             if (!userOptional.isPresent()) {
                 return ResponseEntity.notFound().build();
@@ -204,6 +201,7 @@ public class PaymentAPIController {
             user.setSubscriptionStartDate(LocalDateTime.now());
             user.setSubscriptionEndDate(LocalDateTime.now().plusMonths(1));
             user = userService.saveUser(user);
+            entitlementService.evict(userId);
 
             // TODO: Send confirmation email
 
@@ -231,12 +229,10 @@ public class PaymentAPIController {
             @RequestParam(defaultValue = "20") int pageSize,
             HttpServletRequest request) {
         try {
-            String token = jwtTokenProvider.getTokenFromRequest(request);
-            if (token == null || !jwtTokenProvider.validateToken(token)) {
+            Long userId = jwtTokenProvider.resolveUserId(request);
+            if (userId == null) {
                 return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
             }
-
-            Long userId = jwtTokenProvider.getUserIdFromToken(token);
             // TODO: Fetch payment history from database
             List<Map<String, Object>> paymentHistory = new ArrayList<>();
 
@@ -255,12 +251,10 @@ public class PaymentAPIController {
     public ResponseEntity<?> cancelSubscription(
             HttpServletRequest request) {
         try {
-            String token = jwtTokenProvider.getTokenFromRequest(request);
-            if (token == null || !jwtTokenProvider.validateToken(token)) {
+            Long userId = jwtTokenProvider.resolveUserId(request);
+            if (userId == null) {
                 return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
             }
-
-            Long userId = jwtTokenProvider.getUserIdFromToken(token);
             Optional<User> userOptional = userService.findUserById(userId);
             if (!userOptional.isPresent()) {
                 return ResponseEntity.notFound().build();
@@ -275,6 +269,7 @@ public class PaymentAPIController {
             user.setPlanType("BASIC");
             user.setSubscriptionEndDate(null);
             user = userService.saveUser(user);
+            entitlementService.evict(userId);
 
             // TODO: Send cancellation email
 
@@ -1,7 +1,9 @@
 package com.shout.controller;
 
+import com.shout.dto.CursorPageDTO;
 import com.shout.model.*;
 import com.shout.repository.UserRepository;
+import com.shout.repository.projection.RatingFeedView;
 import com.shout.service.RatingService;
 import com.shout.service.ShoutoutExchangeService;
 import lombok.RequiredArgsConstructor;
@@ -11,7 +13,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -61,15 +62,17 @@ public class RatingController {
     }
 
     /**
-     * Get user's ratings
+     * Get user's ratings - summary plus one page of the rating feed (pass nextCursor back for more)
      */
     @GetMapping("/user/{username}")
-    public ResponseEntity<?> getUserRatings(@PathVariable String username) {
+    public ResponseEntity<?> getUserRatings(@PathVariable String username,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(required = false) Integer size) {
         try {
-            User user = userRepository.findById(username)
+            User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-            List<UserRating> ratings = ratingService.getUserRatings(user);
+            CursorPageDTO<RatingFeedView> ratings = ratingService.getRatingFeed(user.getId(), cursor, size);
             Double averageRating = ratingService.getUserAverageRating(user);
             Integer ratingCount = ratingService.getUserRatingCount(user);
 
@@ -77,9 +80,13 @@ public class RatingController {
             response.put("username", username);
             response.put("averageRating", averageRating);
             response.put("totalRatings", ratingCount);
-            response.put("ratings", ratings);
+            response.put("ratings", ratings.getItems());
+            response.put("nextCursor", ratings.getNextCursor());
+            response.put("hasMore", ratings.isHasMore());
 
             return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ErrorResponse(e.getMessage()));
         } catch (Exception e) {
             log.error("Error fetching user ratings", e);
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ErrorResponse("User not found"));
@@ -93,7 +100,7 @@ public class RatingController {
     public ResponseEntity<?> getCategoryRating(@PathVariable String username,
                                               @PathVariable String category) {
         try {
-            User user = userRepository.findById(username)
+            User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
             UserRating.RatingCategory ratingCategory = UserRating.RatingCategory.valueOf(category.toUpperCase());
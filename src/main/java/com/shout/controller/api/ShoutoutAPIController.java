@@ -3,6 +3,8 @@ package com.shout.controller;
 import com.shout.dto.ExchangeDTO;
 import com.shout.dto.ShoutoutRequestDTO;
 import com.shout.model.*;
+import com.shout.security.PrincipalCache;
+import com.shout.security.UserPrincipal;
 import com.shout.service.*;
 import com.shout.util.JwtTokenProvider;
 import lombok.extern.slf4j.Slf4j;
@@ -35,6 +37,15 @@ public class ShoutoutAPIController {
     @Autowired
     private JwtTokenProvider jwtTokenProvider;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private DailyQuotaService dailyQuotaService;
+
+    @Autowired
+    private EntitlementService entitlementService;
+
     /**
      * POST /api/shoutouts/send
      * Send a shoutout request to another user
@@ -45,63 +56,62 @@ public class ShoutoutAPIController {
             HttpServletRequest httpRequest) {
         try {
             // Verify sender authentication
-            String token = jwtTokenProvider.getTokenFromRequest(httpRequest);
-            if (token == null || !jwtTokenProvider.validateToken(token)) {
+            Long senderId = jwtTokenProvider.resolveUserId(httpRequest);
+            if (senderId == null) {
                 return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
             }
-
-            Long senderId = jwtTokenProvider.getUserIdFromToken(token);
-            Optional<User> senderOptional = userService.findUserById(senderId);
+            Optional<UserPrincipal> senderOptional = principalCache.get(senderId);
             if (!senderOptional.isPresent()) {
                 return ResponseEntity.notFound().build();
             }
 
-            User sender = senderOptional.get();
+            UserPrincipal sender = senderOptional.get();
 
             // Validate recipient exists
-            Optional<User> recipientOptional = userService.findUserById(request.getRecipientId());
+            Optional<UserPrincipal> recipientOptional = principalCache.get(request.getRecipientId());
             if (!recipientOptional.isPresent()) {
                 return ResponseEntity.badRequest().body(Map.of("error", "Recipient not found"));
             }
 
-            User recipient = recipientOptional.get();
-
-            // Check daily request limit
-            int dailyLimit = sender.getPlanType().equals("PRO") ? 50 : 10;
-            if (sender.getDailyRequestsSent() >= dailyLimit) {
-                return ResponseEntity.badRequest().body(Map.of(
-                    "error", "Daily request limit reached",
-                    "limit", dailyLimit,
-                    "used", sender.getDailyRequestsSent()
-                ));
-            }
+            UserPrincipal recipient = recipientOptional.get();
 
             // Check if sender has 3+ strikes
-            if (sender.getStrikes() >= 3) {
+            if (sender.getStrikeCount() >= 3) {
                 return ResponseEntity.badRequest().body(Map.of(
                     "error", "Account deactivated due to violations",
-                    "strikes", sender.getStrikes()
+                    "strikes", sender.getStrikeCount()
                 ));
             }
 
             // Check if recipient is blocked or banned
-            if (recipient.getStrikes() >= 3) {
+            if (recipient.getStrikeCount() >= 3) {
                 return ResponseEntity.badRequest().body(Map.of(
                     "error", "Cannot send request to deactivated account"
                 ));
             }
 
-            // Validate media type for Basic plan
-            if (sender.getPlanType().equals("BASIC") && !request.getMediaType().equals("STORY")) {
+            // Validate media type against the sender's plan
+            EntitlementService.Entitlements entitlements = entitlementService.get(senderId);
+            if (!entitlements.canAccess(ShoutoutRequest.MediaType.valueOf(request.getMediaType()))) {
                 return ResponseEntity.badRequest().body(Map.of(
                     "error", "Basic plan only allows STORY reposts. Upgrade to Pro for all media types."
                 ));
             }
 
+            // Reserve one send from today's quota (atomic check-and-increment)
+            DailyQuotaService.QuotaResult quota = dailyQuotaService.tryConsumeSent(senderId, entitlements.dailyLimit());
+            if (!quota.allowed()) {
+                return ResponseEntity.badRequest().body(Map.of(
+                    "error", "Daily request limit reached",
+                    "limit", quota.limit(),
+                    "used", quota.used()
+                ));
+            }
+
             // Create shoutout request
             ShoutoutRequest shoutoutRequest = new ShoutoutRequest();
-            shoutoutRequest.setSender(sender);
-            shoutoutRequest.setRecipient(recipient);
+            shoutoutRequest.setSender(userService.getUserReference(senderId));
+            shoutoutRequest.setRecipient(userService.getUserReference(recipient.getId()));
             shoutoutRequest.setMediaType(request.getMediaType());
             shoutoutRequest.setMediaUrl(request.getMediaUrl());
             shoutoutRequest.setMessage(request.getMessage());
@@ -109,17 +119,19 @@ public class ShoutoutAPIController {
             shoutoutRequest.setCreatedAt(LocalDateTime.now());
             shoutoutRequest.setExpiresAt(LocalDateTime.now().plusHours(24));
 
-            shoutoutRequest = shoutoutExchangeService.sendShoutoutRequest(shoutoutRequest);
-
-            // Increment daily request counter
-            sender.setDailyRequestsSent(sender.getDailyRequestsSent() + 1);
-            userService.saveUser(sender);
+            try {
+                shoutoutRequest = shoutoutExchangeService.sendShoutoutRequest(shoutoutRequest);
+            } catch (RuntimeException e) {
+                dailyQuotaService.refundSent(senderId);
+                throw e;
+            }
 
             ShoutoutRequestDTO response = new ShoutoutRequestDTO();
             response.setId(shoutoutRequest.getId());
             response.setStatus("PENDING");
             response.setCreatedAt(shoutoutRequest.getCreatedAt());
             response.setExpiresAt(shoutoutRequest.getExpiresAt());
+            response.setRemainingToday(quota.remaining());
 
             log.info("Shoutout request sent from {} to {}", senderId, request.getRecipientId());
             return ResponseEntity.ok(response);
@@ -140,12 +152,10 @@ public class ShoutoutAPIController {
             @RequestParam(defaultValue = "20") int pageSize,
             HttpServletRequest request) {
         try {
-            String token = jwtTokenProvider.getTokenFromRequest(request);
-            if (token == null || !jwtTokenProvider.validateToken(token)) {
+            Long userId = jwtTokenProvider.resolveUserId(request);
+            if (userId == null) {
                 return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
             }
-
-            Long userId = jwtTokenProvider.getUserIdFromToken(token);
             List<ShoutoutRequest> requests = shoutoutExchangeService.getPendingRequests(userId, page, pageSize);
 
             List<Map<String, Object>> response = new ArrayList<>();
@@ -180,13 +190,11 @@ public class ShoutoutAPIController {
             @RequestBody Map<String, Object> acceptRequest,
             HttpServletRequest request) {
         try {
-            String token = jwtTokenProvider.getTokenFromRequest(request);
-            if (token == null || !jwtTokenProvider.validateToken(token)) {
+            Long recipientId = jwtTokenProvider.resolveUserId(request);
+            if (recipientId == null) {
                 return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
             }
 
-            Long recipientId = jwtTokenProvider.getUserIdFromToken(token);
-
             // Get the shoutout request
             Optional<ShoutoutRequest> shoutoutRequestOpt = shoutoutExchangeService.getShoutoutRequestById(requestId);
             if (!shoutoutRequestOpt.isPresent()) {
@@ -230,9 +238,7 @@ public class ShoutoutAPIController {
             shoutoutExchangeService.updateShoutoutRequest(shoutoutRequest);
 
             // Increment recipient's daily requests accepted
-            User recipient = shoutoutRequest.getRecipient();
-            recipient.setDailyRequestsAccepted(recipient.getDailyRequestsAccepted() + 1);
-            userService.saveUser(recipient);
+            dailyQuotaService.recordAccepted(recipientId);
 
             ExchangeDTO response = new ExchangeDTO();
             response.setId(exchange.getId());
@@ -259,12 +265,10 @@ public class ShoutoutAPIController {
             @RequestParam(defaultValue = "20") int pageSize,
             HttpServletRequest request) {
         try {
-            String token = jwtTokenProvider.getTokenFromRequest(request);
-            if (token == null || !jwtTokenProvider.validateToken(token)) {
+            Long userId = jwtTokenProvider.resolveUserId(request);
+            if (userId == null) {
                 return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
             }
-
-            Long userId = jwtTokenProvider.getUserIdFromToken(token);
             List<Exchange> exchanges = shoutoutExchangeService.getUserExchanges(userId, page, pageSize);
 
             List<ExchangeDTO> response = new ArrayList<>();
@@ -321,12 +325,10 @@ public class ShoutoutAPIController {
             @PathVariable Long exchangeId,
             HttpServletRequest request) {
         try {
-            String token = jwtTokenProvider.getTokenFromRequest(request);
-            if (token == null || !jwtTokenProvider.validateToken(token)) {
+            Long userId = jwtTokenProvider.resolveUserId(request);
+            if (userId == null) {
                 return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
             }
-
-            Long userId = jwtTokenProvider.getUserIdFromToken(token);
             Optional<Exchange> exchangeOpt = shoutoutExchangeService.getExchangeById(exchangeId);
 
             if (!exchangeOpt.isPresent()) {
@@ -1,18 +1,22 @@
 package com.shout.controller;
 
+import com.shout.dto.CursorPageDTO;
+import com.shout.dto.PartnerCandidateDTO;
 import com.shout.dto.UserProfileDTO;
 import com.shout.model.User;
+import com.shout.repository.projection.CreatorCardView;
+import com.shout.service.PartnerRecommendationService;
 import com.shout.service.UserService;
 import com.shout.util.JwtTokenProvider;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.servlet.http.HttpServletRequest;
-import java.util.List;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/users")
@@ -22,25 +26,32 @@ import java.util.stream.Collectors;
 public class UserAPIController {
    
     private final UserService userService;
+    private final PartnerRecommendationService partnerRecommendationService;
     private final JwtTokenProvider jwtTokenProvider;
    
+    /**
+     * Creator search/discovery, keyset-paginated
+     * Pass nextCursor from the previous response as cursor to get the next page
+     */
     @GetMapping("/search")
     public ResponseEntity searchUsers(
             @RequestParam(required = false) String query,
             @RequestParam(required = false) String genre,
             @RequestParam(required = false) String followers,
-            @RequestParam(required = false) String repostType) {
+            @RequestParam(required = false) String repostType,
+            @RequestParam(required = false) Double minRating,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         try {
-            List results = userService.searchUsers(query, genre, followers);
-           
-            if (repostType != null && !repostType.isEmpty()) {
-                results = filterByRepostType(results, repostType);
-            }
-           
-            return ResponseEntity.ok(Map.of(
-                "count", results.size(),
-                "users", results
-            ));
+            CursorPageDTO<CreatorCardView> page =
+                userService.discoverCreators(query, genre, followers, repostType, minRating, cursor, limit);
+
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("count", page.getItems().size());
+            body.put("users", page.getItems());
+            body.put("nextCursor", page.getNextCursor());
+            body.put("hasMore", page.isHasMore());
+            return ResponseEntity.ok(body);
            
         } catch (Exception e) {
             log.error("Error searching users", e);
@@ -48,6 +59,37 @@ public class UserAPIController {
         }
     }
    
+    /**
+     * Recommended exchange partners for the current user, best match first
+     */
+    @GetMapping("/recommendations")
+    public ResponseEntity getRecommendations(
+            HttpServletRequest request,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            Long userId = jwtTokenProvider.resolveUserId(request);
+            if (userId == null) {
+                return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
+            }
+
+            Page<PartnerCandidateDTO> candidates = partnerRecommendationService.getRecommendations(
+                userId, Math.max(page, 0), Math.max(1, Math.min(size, 100)));
+
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("candidates", candidates.getContent());
+            body.put("page", candidates.getNumber());
+            body.put("size", candidates.getSize());
+            body.put("total", candidates.getTotalElements());
+            body.put("hasMore", candidates.hasNext());
+            return ResponseEntity.ok(body);
+
+        } catch (Exception e) {
+            log.error("Error fetching partner recommendations", e);
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @GetMapping("/{userId}")
     public ResponseEntity getUserProfile(@PathVariable Long userId) {
         try {
@@ -60,19 +102,6 @@ public class UserAPIController {
         }
     }
    
-    private List filterByRepostType(List users, String repostType) {
-        return users.stream()
-            .filter(user -> {
-                if ("story".equalsIgnoreCase(repostType)) {
-                    return true;
-                } else if ("post".equalsIgnoreCase(repostType) || "reel".equalsIgnoreCase(repostType)) {
-                    return "PRO".equals(user.getPlanType());
-                }
-                return true;
-            })
-            .collect(Collectors.toList());
-    }
-   
     private UserProfileDTO convertToProfileDTO(User user) {
         UserProfileDTO dto = new UserProfileDTO();
         dto.setId(user.getId());
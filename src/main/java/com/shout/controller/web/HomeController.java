@@ -1,8 +1,11 @@
 package com.shout.controller;
 
+import com.shout.dto.CursorPageDTO;
 import com.shout.dto.UserProfileDto;
 import com.shout.model.User;
 import com.shout.repository.UserRepository;
+import com.shout.repository.projection.CreatorCardView;
+import com.shout.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -13,6 +16,7 @@ import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.stream.Collectors;
 
 @Controller
@@ -21,6 +25,7 @@ import java.util.stream.Collectors;
 @Slf4j
 public class HomeController {
     private final UserRepository userRepository;
+    private final UserService userService;
 
     @GetMapping
     public String home(Model model) {
@@ -43,29 +48,27 @@ public class HomeController {
         return users.map(this::convertToDto);
     }
 
+    /**
+     * Search box (called on every keystroke) - ranked, limited, index-backed
+     */
     @GetMapping("/users/search")
     @ResponseBody
-    public Page<UserProfileDto> searchUsers(
+    public List<CreatorCardView> searchUsers(
             @RequestParam String query,
-            @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "9") int size) {
-        Pageable pageable = PageRequest.of(page, size);
-        
-        Page<User> users = userRepository.findByUsernameContainingIgnoreCaseOrFullNameContainingIgnoreCase(
-            query, query, pageable);
-        return users.map(this::convertToDto);
+        return userService.searchCreators(query, size);
     }
 
+    /**
+     * Category page - served from the discovery index, keyset-paginated
+     */
     @GetMapping("/category/{category}")
     @ResponseBody
-    public Page<UserProfileDto> getUsersByCategory(
+    public CursorPageDTO<CreatorCardView> getUsersByCategory(
             @PathVariable String category,
-            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "9") int size) {
-        Pageable pageable = PageRequest.of(page, size);
-        
-        Page<User> users = userRepository.findByCategoryIgnoreCase(category, pageable);
-        return users.map(this::convertToDto);
+        return userService.discoverCreators(null, category, null, null, null, cursor, size);
     }
 
     @GetMapping("/profile/{username}")
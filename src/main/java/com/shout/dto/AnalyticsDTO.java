@@ -13,6 +13,7 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class AnalyticsDTO {
     private Long exchangeId;
+    private String instagramPostId;
     private String mediaType;
     private Long impressions;
     private Long clicks;
@@ -23,4 +24,5 @@ public class AnalyticsDTO {
     private Long likes;
     private Double engagementRate;
     private LocalDateTime createdAt;
+    private LocalDateTime lastFetchedAt;
 }
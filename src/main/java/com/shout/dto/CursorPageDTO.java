@@ -0,0 +1,19 @@
+package com.shout.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated result - pass nextCursor back to get the following page
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorPageDTO<T> {
+    private List<T> items;
+    private String nextCursor;
+    private boolean hasMore;
+}
@@ -0,0 +1,28 @@
+package com.shout.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * One recommended exchange partner with its match score (0-1)
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PartnerCandidateDTO implements Serializable {
+    private Long userId;
+    private String name;
+    private String username;
+    private String profilePicture;
+    private String category;
+    private Integer followerCount;
+    private String planType;
+    private Double rating;
+    private Integer completedExchanges;
+    private Double score;
+}
@@ -0,0 +1,21 @@
+package com.shout.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Pre-computed, ranked partner candidates of a user (best first)
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PartnerRecommendationsDTO implements Serializable {
+    private Long userId;
+    private List<PartnerCandidateDTO> candidates;
+    private LocalDateTime computedAt;
+}
@@ -22,4 +22,5 @@ public class ShoutoutRequestDTO {
     private Boolean sentByMe;
     private Boolean receivedByMe;
     private Integer hoursLeft;
+    private Integer remainingToday; // daily sends left after this request
 }
@@ -0,0 +1,67 @@
+package com.shout.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Pre-aggregated PostAnalytics of a user for one period and media type
+ * Maintained by the post_analytics_rollup trigger (V12) - never written from Java except by the rebuild job.
+ */
+@Entity
+@Table(name = "analytics_rollups")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AnalyticsRollup {
+
+    public enum PeriodType {
+        DAY, MONTH, ALL
+    }
+
+    @EmbeddedId
+    private Key key;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Long posts = 0L;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Long impressions = 0L;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Long clicks = 0L;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Long profileVisits = 0L;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Double engagementRateSum = 0.0;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long userId;
+
+        @Enumerated(EnumType.STRING)
+        @Column(length = 10)
+        private PeriodType periodType;
+
+        private LocalDate periodStart; // first day of the period; 1970-01-01 for ALL
+
+        private String mediaType;
+    }
+}
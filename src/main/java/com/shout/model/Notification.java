@@ -33,6 +33,9 @@ public class Notification {
     @Column(name = "related_user_id")
     private Long relatedUserId;
  
+    @Column(name = "action_url", length = 500)
+    private String actionUrl;
+ 
     @Column(name = "is_read", nullable = false)
     private Boolean isRead = false;
  
@@ -63,6 +63,9 @@ public class ShoutoutExchange {
     private LocalDateTime requesterRemovedAt;
     private LocalDateTime acceptorRemovedAt;
 
+    // Set once the "expires soon" reminder went out (reminders are sent once per exchange)
+    private LocalDateTime reminderSentAt;
+
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
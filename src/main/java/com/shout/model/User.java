@@ -2,6 +2,7 @@ package com.shout.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -73,13 +74,19 @@ public class User {
  
     private String category;
  
-    // Ratings
-    @Column(nullable = false)
+    // Ratings - running aggregates, written only by RatingService's atomic updates
+    @Builder.Default
+    @Column(nullable = false, updatable = false)
     private Double rating = 0.0;
  
-    @Column(name = "total_ratings")
+    @Builder.Default
+    @Column(name = "total_ratings", nullable = false, updatable = false)
     private Integer totalRatings = 0;
  
+    @Builder.Default
+    @Column(name = "rating_sum", nullable = false, updatable = false)
+    private Long ratingSum = 0L;
+ 
     // Compliance & Strike System
     @Builder.Default
     @Column(name = "strike_count", nullable = false)
@@ -96,12 +103,16 @@ public class User {
     @Column(name = "banned_at")
     private LocalDateTime bannedAt;
  
-    // Daily Limits
-    @Column(name = "daily_requests_sent")
+    // Daily Limits - written only by DailyQuotaService (atomic UPDATEs), never by entity saves
+    @Column(name = "daily_requests_sent", updatable = false)
     private Integer dailyRequestsSent = 0;
  
-    @Column(name = "daily_requests_accepted")
+    @Column(name = "daily_requests_accepted", updatable = false)
     private Integer dailyRequestsAccepted = 0;
+
+    // UTC day the daily counters belong to; counters from an earlier day read as 0
+    @Column(name = "daily_counter_date", updatable = false)
+    private LocalDate dailyCounterDate;
  
     // Subscription
     @Column(name = "subscription_start_date")
@@ -148,6 +159,14 @@ public class User {
     public boolean hasMaxStrikes() {
         return strikeCount != null && strikeCount >= 3;
     }
+
+    public int dailyRequestsSentOn(LocalDate day) {
+        return day.equals(dailyCounterDate) && dailyRequestsSent != null ? dailyRequestsSent : 0;
+    }
+
+    public int dailyRequestsAcceptedOn(LocalDate day) {
+        return day.equals(dailyCounterDate) && dailyRequestsAccepted != null ? dailyRequestsAccepted : 0;
+    }
     
     // FIXED: Alias methods for backward compatibility
     public Integer getFollowers() {
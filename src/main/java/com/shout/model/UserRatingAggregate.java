@@ -0,0 +1,46 @@
+package com.shout.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+
+/**
+ * Running sum and count of a user's ratings in one category
+ * Updated by RatingService in the same transaction as the rating insert.
+ */
+@Entity
+@Table(name = "user_rating_aggregates")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserRatingAggregate {
+
+    @EmbeddedId
+    private Key key;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Long ratingSum = 0L;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Integer ratingCount = 0;
+
+    public double getAverage() {
+        return ratingCount != null && ratingCount > 0 ? (double) ratingSum / ratingCount : 0.0;
+    }
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long userId;
+
+        @Enumerated(EnumType.STRING)
+        @Column(length = 50)
+        private UserRating.RatingCategory category;
+    }
+}
@@ -0,0 +1,72 @@
+package com.shout.repository;
+
+import com.shout.model.AnalyticsRollup;
+import com.shout.repository.projection.AnalyticsAggregateView;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface AnalyticsRollupRepository extends JpaRepository<AnalyticsRollup, AnalyticsRollup.Key> {
+
+    // Dashboard reads: rollup rows of one period type, summed over media types unless byType,
+    // one row per period when byPeriod. Cost depends on the number of periods, not posts.
+    @Query(value = "SELECT CASE WHEN :byPeriod THEN " +
+           "  CASE r.period_type WHEN 'DAY' THEN to_char(r.period_start, 'YYYY-MM-DD') " +
+           "                     WHEN 'MONTH' THEN to_char(r.period_start, 'YYYY-MM') END END AS period, " +
+           "CASE WHEN :byType THEN r.media_type END AS mediaType, " +
+           "SUM(r.posts) AS posts, " +
+           "SUM(r.impressions) AS totalImpressions, " +
+           "SUM(r.clicks) AS totalClicks, " +
+           "SUM(r.profile_visits) AS totalProfileVisits, " +
+           "CASE WHEN SUM(r.posts) > 0 THEN SUM(r.engagement_rate_sum) / SUM(r.posts) ELSE 0 END AS averageEngagementRate " +
+           "FROM analytics_rollups r " +
+           "WHERE r.user_id = :userId AND r.period_type = :periodType AND r.posts > 0 " +
+           "AND (CAST(:from AS date) IS NULL OR r.period_start >= CAST(:from AS date)) " +
+           "AND (CAST(:to AS date) IS NULL OR r.period_start < CAST(:to AS date)) " +
+           "AND (CAST(:mediaType AS text) IS NULL OR r.media_type = CAST(:mediaType AS text)) " +
+           "GROUP BY 1, 2 " +
+           "ORDER BY 1, 2",
+           nativeQuery = true)
+    List<AnalyticsAggregateView> summarize(@Param("userId") Long userId,
+                                           @Param("periodType") String periodType,
+                                           @Param("from") LocalDate from,
+                                           @Param("to") LocalDate to,
+                                           @Param("mediaType") String mediaType,
+                                           @Param("byPeriod") boolean byPeriod,
+                                           @Param("byType") boolean byType);
+
+    // Rebuild job
+    @Query(value = "SELECT DISTINCT user_id FROM post_analytics", nativeQuery = true)
+    List<Long> findUserIdsWithAnalytics();
+
+    @Modifying
+    @Query(value = "DELETE FROM analytics_rollups WHERE user_id = :userId", nativeQuery = true)
+    int deleteByUserId(@Param("userId") Long userId);
+
+    // Overwrites on conflict: a trigger may have created a row after the delete above
+    @Modifying
+    @Query(value = "INSERT INTO analytics_rollups (user_id, period_type, period_start, media_type, posts, " +
+           "impressions, clicks, profile_visits, engagement_rate_sum, updated_at) " +
+           "SELECT pa.user_id, p.period_type, p.period_start, pa.media_type, COUNT(*), " +
+           "COALESCE(SUM(pa.impressions), 0), COALESCE(SUM(pa.clicks), 0), COALESCE(SUM(pa.profile_visits), 0), " +
+           "COALESCE(SUM(pa.engagement_rate), 0), CURRENT_TIMESTAMP " +
+           "FROM post_analytics pa " +
+           "CROSS JOIN LATERAL (VALUES " +
+           "  ('DAY', CAST(pa.created_at AS DATE)), " +
+           "  ('MONTH', CAST(date_trunc('month', pa.created_at) AS DATE)), " +
+           "  ('ALL', DATE '1970-01-01')) AS p(period_type, period_start) " +
+           "WHERE pa.user_id = :userId " +
+           "GROUP BY pa.user_id, p.period_type, p.period_start, pa.media_type " +
+           "ON CONFLICT (user_id, period_type, period_start, media_type) DO UPDATE SET " +
+           "posts = EXCLUDED.posts, impressions = EXCLUDED.impressions, clicks = EXCLUDED.clicks, " +
+           "profile_visits = EXCLUDED.profile_visits, engagement_rate_sum = EXCLUDED.engagement_rate_sum, " +
+           "updated_at = EXCLUDED.updated_at",
+           nativeQuery = true)
+    int rebuildForUser(@Param("userId") Long userId);
+}
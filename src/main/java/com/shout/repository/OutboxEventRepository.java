@@ -0,0 +1,51 @@
+package com.shout.repository;
+
+import com.shout.model.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    long countByStatus(OutboxEvent.Status status);
+
+    // Relay: claim due PENDING events in (next_attempt_at, id) order.
+    // SKIP LOCKED lets several nodes drain the outbox concurrently without claiming the same rows.
+    @Query(value = "SELECT * FROM outbox_events " +
+           "WHERE status = 'PENDING' AND next_attempt_at <= :now " +
+           "ORDER BY next_attempt_at, id " +
+           "LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxEvent> claimDueBatch(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE outbox_events SET status = 'SENT', dispatched_at = :now, last_error = NULL " +
+           "WHERE id = :id", nativeQuery = true)
+    int markSent(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE outbox_events SET next_attempt_at = :nextAttemptAt, last_error = :error " +
+           "WHERE id = :id", nativeQuery = true)
+    int reschedule(@Param("id") Long id, @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                   @Param("error") String error);
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE outbox_events SET status = 'FAILED', last_error = :error WHERE id = :id",
+           nativeQuery = true)
+    int markFailed(@Param("id") Long id, @Param("error") String error);
+
+    // Housekeeping: delivered events older than the retention window
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM outbox_events WHERE status = 'SENT' AND dispatched_at < :before", nativeQuery = true)
+    int deleteSentBefore(@Param("before") LocalDateTime before);
+}
@@ -3,8 +3,11 @@ package com.shout.repository;
 import com.shout.model.PostAnalytics;
 import com.shout.model.ShoutoutExchange;
 import com.shout.model.User;
+import com.shout.repository.projection.StaleAnalyticsView;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -15,17 +18,21 @@ import java.util.Optional;
 public interface PostAnalyticsRepository extends JpaRepository<PostAnalytics, Long> {
     List<PostAnalytics> findByUser(User user);
     Optional<PostAnalytics> findByShoutoutExchange(ShoutoutExchange exchange);
-    List<PostAnalytics> findByUserAndCreatedAtBetween(User user, LocalDateTime start, LocalDateTime end);
-    
-    @Query("SELECT SUM(pa.impressions) FROM PostAnalytics pa WHERE pa.user = :user")
-    Long getTotalImpressions(User user);
-    
-    @Query("SELECT SUM(pa.clicks) FROM PostAnalytics pa WHERE pa.user = :user")
-    Long getTotalClicks(User user);
-    
-    @Query("SELECT SUM(pa.profileVisits) FROM PostAnalytics pa WHERE pa.user = :user")
-    Long getTotalProfileVisits(User user);
-    
-    @Query("SELECT AVG(pa.engagementRate) FROM PostAnalytics pa WHERE pa.user = :user")
-    Double getAverageEngagementRate(User user);
+    Optional<PostAnalytics> findByShoutoutExchange_IdAndInstagramPostId(Long exchangeId, String instagramPostId);
+
+    // Analytics refresh engine: least recently fetched rows first
+    @Query("SELECT pa.id AS id, pa.instagramPostId AS instagramPostId, pa.impressions AS impressions, " +
+           "pa.clicks AS clicks, pa.profileVisits AS profileVisits FROM PostAnalytics pa " +
+           "WHERE pa.instagramPostId IS NOT NULL AND (pa.lastFetchedAt IS NULL OR pa.lastFetchedAt < :cutoff) " +
+           "ORDER BY pa.lastFetchedAt ASC NULLS FIRST, pa.id ASC")
+    List<StaleAnalyticsView> findStaleAnalytics(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    @Query("SELECT pa.id AS id, pa.instagramPostId AS instagramPostId, pa.impressions AS impressions, " +
+           "pa.clicks AS clicks, pa.profileVisits AS profileVisits FROM PostAnalytics pa " +
+           "WHERE pa.user.id = :userId AND pa.instagramPostId IS NOT NULL " +
+           "AND (pa.lastFetchedAt IS NULL OR pa.lastFetchedAt < :cutoff) " +
+           "ORDER BY pa.lastFetchedAt ASC NULLS FIRST, pa.id ASC")
+    List<StaleAnalyticsView> findStaleAnalyticsForUser(@Param("userId") Long userId,
+                                                       @Param("cutoff") LocalDateTime cutoff,
+                                                       Pageable pageable);
 }
@@ -2,6 +2,9 @@ package com.shout.repository;
 
 import com.shout.model.ShoutoutExchange;
 import com.shout.model.User;
+import com.shout.repository.projection.CompletionCountView;
+import com.shout.repository.projection.ExchangeDeadlineView;
+import com.shout.repository.projection.ExchangeOwnerView;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -9,6 +12,7 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ShoutoutExchangeRepository extends JpaRepository<ShoutoutExchange, Long> {
@@ -42,4 +46,62 @@ public interface ShoutoutExchangeRepository extends JpaRepository<ShoutoutExchan
     
     @Query("SELECT COUNT(e) FROM ShoutoutExchange e WHERE e.acceptor = :user AND e.status = 'COMPLETED'")
     Integer countCompletedExchangesAsAcceptor(User user);
+
+    // Completed exchanges per user (either side), for bulk partner scoring
+    @Query(value = "SELECT c.user_id AS userId, COUNT(*) AS completed FROM (" +
+           "SELECT requester_id AS user_id FROM shoutout_exchanges WHERE status = 'COMPLETED' " +
+           "UNION ALL SELECT acceptor_id FROM shoutout_exchanges WHERE status = 'COMPLETED') c " +
+           "GROUP BY c.user_id", nativeQuery = true)
+    List<CompletionCountView> findCompletionCounts();
+
+    // Expiry engine: claim due PENDING exchanges in keyset order (expires_at, id).
+    // SKIP LOCKED lets several nodes sweep concurrently without claiming the same rows.
+    @Query(value = "SELECT * FROM shoutout_exchanges " +
+           "WHERE status = 'PENDING' AND expires_at <= :now " +
+           "AND (expires_at, id) > (:afterExpiresAt, :afterId) " +
+           "ORDER BY expires_at, id " +
+           "LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<ShoutoutExchange> claimExpiredBatch(@Param("now") LocalDateTime now,
+                                             @Param("afterExpiresAt") LocalDateTime afterExpiresAt,
+                                             @Param("afterId") Long afterId,
+                                             @Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM shoutout_exchanges " +
+           "WHERE status = 'PENDING' AND reminder_sent_at IS NULL " +
+           "AND expires_at > :now AND expires_at <= :cutoff " +
+           "AND (expires_at, id) > (:afterExpiresAt, :afterId) " +
+           "ORDER BY expires_at, id " +
+           "LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<ShoutoutExchange> claimReminderBatch(@Param("now") LocalDateTime now,
+                                              @Param("cutoff") LocalDateTime cutoff,
+                                              @Param("afterExpiresAt") LocalDateTime afterExpiresAt,
+                                              @Param("afterId") Long afterId,
+                                              @Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM shoutout_exchanges WHERE id = :id AND status = 'PENDING' " +
+           "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    Optional<ShoutoutExchange> claimPendingById(@Param("id") Long id);
+
+    @Query(value = "SELECT * FROM shoutout_exchanges WHERE id = :id AND status = 'PENDING' " +
+           "AND reminder_sent_at IS NULL FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    Optional<ShoutoutExchange> claimReminderById(@Param("id") Long id);
+
+    // Post verification: PENDING exchanges with at least one side still to post, users fetched up front
+    @Query("SELECT e FROM ShoutoutExchange e JOIN FETCH e.requester JOIN FETCH e.acceptor " +
+           "WHERE e.status = 'PENDING' AND (e.requesterPosted = false OR e.acceptorPosted = false)")
+    List<ShoutoutExchange> findAwaitingVerification();
+
+    // Analytics cache loader: requester of an exchange, without loading entities
+    @Query("SELECT e.id AS id, e.mediaType AS mediaType, r.id AS requesterId, r.instagramId AS requesterInstagramId " +
+           "FROM ShoutoutExchange e JOIN e.requester r WHERE e.id = :id")
+    Optional<ExchangeOwnerView> findOwnerById(@Param("id") Long id);
+
+    // Deadline scheduler: every PENDING exchange's deadlines, without loading entities
+    @Query("SELECT e.id AS id, e.expiresAt AS expiresAt, e.reminderSentAt AS reminderSentAt " +
+           "FROM ShoutoutExchange e WHERE e.status = 'PENDING'")
+    List<ExchangeDeadlineView> findPendingDeadlines();
+
+    @Query("SELECT MIN(e.expiresAt) FROM ShoutoutExchange e " +
+           "WHERE e.status = 'PENDING' AND e.expiresAt <= :now")
+    LocalDateTime findOldestOverdueExpiry(@Param("now") LocalDateTime now);
 }
@@ -13,5 +13,4 @@ import java.util.Optional;
 public interface SubscriptionRepository extends JpaRepository<Subscription, Long> {
     Optional<Subscription> findByUser(User user);
     List<Subscription> findByStatusAndRenewalDateBefore(Subscription.SubscriptionStatus status, LocalDateTime date);
-    List<Subscription> findByAutoRenewAndRenewalDateBefore(Boolean autoRenew, LocalDateTime date);
 }
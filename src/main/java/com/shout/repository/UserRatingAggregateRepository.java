@@ -0,0 +1,51 @@
+package com.shout.repository;
+
+import com.shout.model.UserRatingAggregate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface UserRatingAggregateRepository extends JpaRepository<UserRatingAggregate, UserRatingAggregate.Key> {
+
+    List<UserRatingAggregate> findByKeyUserId(Long userId);
+
+    // Add one rating to a user's category aggregate
+    @Modifying
+    @Query(value = "INSERT INTO user_rating_aggregates (user_id, category, rating_sum, rating_count) " +
+           "VALUES (:userId, :category, :rating, 1) " +
+           "ON CONFLICT (user_id, category) DO UPDATE SET " +
+           "rating_sum = user_rating_aggregates.rating_sum + EXCLUDED.rating_sum, " +
+           "rating_count = user_rating_aggregates.rating_count + 1",
+           nativeQuery = true)
+    int addRating(@Param("userId") Long userId, @Param("category") String category, @Param("rating") int rating);
+
+    // Reconciliation: users whose running aggregates (overall or per category) disagree with user_ratings
+    @Query(value = "SELECT u.id FROM users u " +
+           "LEFT JOIN (SELECT ratee_id, SUM(rating) AS s, COUNT(*) AS c FROM user_ratings GROUP BY ratee_id) a " +
+           "ON a.ratee_id = u.id " +
+           "WHERE u.rating_sum <> COALESCE(a.s, 0) OR u.total_ratings <> COALESCE(a.c, 0) " +
+           "UNION " +
+           "SELECT COALESCE(g.user_id, x.ratee_id) FROM user_rating_aggregates g " +
+           "FULL JOIN (SELECT ratee_id, category, SUM(rating) AS s, COUNT(*) AS c " +
+           "           FROM user_ratings GROUP BY ratee_id, category) x " +
+           "ON x.ratee_id = g.user_id AND x.category = g.category " +
+           "WHERE g.user_id IS NULL OR x.ratee_id IS NULL OR g.rating_sum <> x.s OR g.rating_count <> x.c",
+           nativeQuery = true)
+    List<Long> findUsersWithDrift();
+
+    @Modifying
+    @Query(value = "DELETE FROM user_rating_aggregates WHERE user_id = :userId", nativeQuery = true)
+    int deleteByUserId(@Param("userId") Long userId);
+
+    @Modifying
+    @Query(value = "INSERT INTO user_rating_aggregates (user_id, category, rating_sum, rating_count) " +
+           "SELECT ratee_id, category, SUM(rating), COUNT(*) FROM user_ratings WHERE ratee_id = :userId " +
+           "GROUP BY ratee_id, category",
+           nativeQuery = true)
+    int rebuildForUser(@Param("userId") Long userId);
+}
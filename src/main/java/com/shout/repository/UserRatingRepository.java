@@ -3,10 +3,13 @@ package com.shout.repository;
 import com.shout.model.UserRating;
 import com.shout.model.User;
 import com.shout.model.ShoutoutExchange;
+import com.shout.repository.projection.RatingFeedView;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -16,13 +19,22 @@ public interface UserRatingRepository extends JpaRepository<UserRating, Long> {
     
     // ✅ ADDED: Missing method
     boolean existsByRaterAndExchange(User rater, ShoutoutExchange exchange);
-    
-    @Query("SELECT AVG(ur.rating) FROM UserRating ur WHERE ur.ratee = :user")
-    Double getAverageRating(User user);
-    
-    @Query("SELECT COUNT(ur) FROM UserRating ur WHERE ur.ratee = :user")
-    Integer getTotalRatingCount(User user);
-    
-    @Query("SELECT AVG(ur.rating) FROM UserRating ur WHERE ur.ratee = :user AND ur.category = :category")
-    Double getAverageRatingByCategory(User user, UserRating.RatingCategory category);
+
+    // Rating feed: one join with the rater, keyset order (created_at DESC, id DESC)
+    // First page: afterCreatedAt = null
+    @Query(value = "SELECT r.id AS id, u.username AS raterUsername, u.profile_picture AS raterProfilePicture, " +
+           "r.rating AS rating, r.category AS category, LEFT(r.review, :excerptLength) AS reviewExcerpt, " +
+           "r.created_at AS createdAt " +
+           "FROM user_ratings r JOIN users u ON u.id = r.rater_id " +
+           "WHERE r.ratee_id = :rateeId " +
+           "AND (CAST(:afterCreatedAt AS timestamp) IS NULL " +
+           "     OR (r.created_at, r.id) < (CAST(:afterCreatedAt AS timestamp), :afterId)) " +
+           "ORDER BY r.created_at DESC, r.id DESC " +
+           "LIMIT :limit",
+           nativeQuery = true)
+    List<RatingFeedView> findFeedForRatee(@Param("rateeId") Long rateeId,
+                                          @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                          @Param("afterId") long afterId,
+                                          @Param("excerptLength") int excerptLength,
+                                          @Param("limit") int limit);
 }
@@ -1,7 +1,9 @@
 package com.shout.repository;
 
 import com.shout.model.User;
+import com.shout.repository.projection.CreatorCardView;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -31,18 +33,33 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByInstagramUsername(String instagramUsername);
     boolean existsByUsername(String username);
    
-    // Follower range queries
-    @Query("SELECT u FROM User u WHERE u.followers BETWEEN :minFollowers AND :maxFollowers " +
-           "AND u.isActive = true ORDER BY u.followers DESC")
-    List<User> findByFollowerCountRange(@Param("minFollowers") Integer minFollowers, 
-                                        @Param("maxFollowers") Integer maxFollowers);
-   
-    @Query("SELECT u FROM User u WHERE u.category = :category " +
-           "AND u.followers BETWEEN :minFollowers AND :maxFollowers " +
-           "AND u.isActive = true ORDER BY u.followers DESC")
-    List<User> findByCategoryAndFollowerCountRange(@Param("category") String category,
-                                                    @Param("minFollowers") Integer minFollowers,
-                                                    @Param("maxFollowers") Integer maxFollowers);
+    // Creator discovery: every filter in SQL, keyset order (follower_count DESC, id)
+    // First page: afterFollowers = Integer.MAX_VALUE, afterId = 0; :category is lower-case (V18 index)
+    @Query(value = "SELECT u.id AS id, u.name AS name, u.username AS username, " +
+           "u.profile_picture AS profilePicture, u.plan_type AS planType, u.follower_count AS followerCount, " +
+           "u.account_type AS accountType, u.category AS category, u.is_verified AS isVerified, u.rating AS rating " +
+           "FROM users u " +
+           "WHERE u.is_active = true AND u.account_banned = false " +
+           "AND u.follower_count BETWEEN :minFollowers AND :maxFollowers " +
+           "AND (CAST(:category AS text) IS NULL OR LOWER(u.category) = CAST(:category AS text)) " +
+           "AND (CAST(:pattern AS text) IS NULL " +
+           "     OR LOWER(u.name) LIKE CAST(:pattern AS text) ESCAPE '\\' " +
+           "     OR LOWER(u.username) LIKE CAST(:pattern AS text) ESCAPE '\\') " +
+           "AND (:proOnly = false OR u.plan_type = 'PRO') " +
+           "AND COALESCE(u.rating, 0) >= :minRating " +
+           "AND (u.follower_count < :afterFollowers OR (u.follower_count = :afterFollowers AND u.id > :afterId)) " +
+           "ORDER BY u.follower_count DESC, u.id ASC " +
+           "LIMIT :limit",
+           nativeQuery = true)
+    List<CreatorCardView> discoverCreators(@Param("minFollowers") int minFollowers,
+                                           @Param("maxFollowers") int maxFollowers,
+                                           @Param("category") String category,
+                                           @Param("pattern") String pattern,
+                                           @Param("proOnly") boolean proOnly,
+                                           @Param("minRating") double minRating,
+                                           @Param("afterFollowers") long afterFollowers,
+                                           @Param("afterId") long afterId,
+                                           @Param("limit") int limit);
    
     // Category search
     List<User> findByCategory(String category);
@@ -50,12 +67,45 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT u FROM User u WHERE u.category = :category AND u.isActive = true")
     List<User> findActiveByCategoryCategory(@Param("category") String category);
    
-    // Search by name or username
-    @Query("SELECT u FROM User u WHERE (LOWER(u.name) LIKE LOWER(CONCAT('%', :query, '%')) " +
-           "OR LOWER(u.username) LIKE LOWER(CONCAT('%', :query, '%'))) " +
-           "AND u.isActive = true")
-    List<User> searchByNameOrUsername(@Param("query") String query);
+    // Search-as-you-type over name/username (pg_trgm indexes, V10)
+    // Prefix matches first, then by trigram similarity; :prefix is an escaped 'q%' pattern
+    @Query(value = "SELECT u.id AS id, u.name AS name, u.username AS username, " +
+           "u.profile_picture AS profilePicture, u.plan_type AS planType, u.follower_count AS followerCount, " +
+           "u.account_type AS accountType, u.category AS category, u.is_verified AS isVerified, u.rating AS rating " +
+           "FROM users u " +
+           "WHERE u.is_active = true AND u.account_banned = false " +
+           "AND (LOWER(u.username) LIKE :prefix ESCAPE '\\' OR LOWER(u.name) LIKE :prefix ESCAPE '\\' " +
+           "     OR LOWER(u.username) % :query OR LOWER(u.name) % :query) " +
+           "ORDER BY (LOWER(u.username) LIKE :prefix ESCAPE '\\' OR LOWER(u.name) LIKE :prefix ESCAPE '\\') DESC, " +
+           "GREATEST(similarity(LOWER(u.username), :query), similarity(LOWER(u.name), :query)) DESC, " +
+           "u.follower_count DESC, u.id ASC " +
+           "LIMIT :limit",
+           nativeQuery = true)
+    List<CreatorCardView> searchByNameOrUsernameRanked(@Param("query") String query,
+                                                       @Param("prefix") String prefix,
+                                                       @Param("limit") int limit);
    
+    // Running rating aggregates: add one rating atomically (the SET list sees the old row values)
+    // updated_at is bumped so CreatorDiscoveryIndex's delta poll picks up the new rating
+    @Modifying
+    @Query(value = "UPDATE users SET rating_sum = rating_sum + :rating, total_ratings = total_ratings + 1, " +
+           "rating = CAST(rating_sum + :rating AS DOUBLE PRECISION) / (total_ratings + 1), updated_at = now() " +
+           "WHERE id = :userId", nativeQuery = true)
+    int addRating(@Param("userId") Long userId, @Param("rating") int rating);
+
+    // Reconciliation: lock the user row first so concurrent addRating calls queue behind the rebuild
+    @Query(value = "SELECT id FROM users WHERE id = :userId FOR UPDATE", nativeQuery = true)
+    Long lockById(@Param("userId") Long userId);
+
+    @Modifying
+    @Query(value = "UPDATE users SET " +
+           "rating_sum = COALESCE((SELECT SUM(r.rating) FROM user_ratings r WHERE r.ratee_id = :userId), 0), " +
+           "total_ratings = (SELECT COUNT(*) FROM user_ratings r WHERE r.ratee_id = :userId), " +
+           "rating = COALESCE((SELECT AVG(r.rating) FROM user_ratings r WHERE r.ratee_id = :userId), 0), " +
+           "updated_at = now() " +
+           "WHERE id = :userId", nativeQuery = true)
+    int rebuildRatingAggregate(@Param("userId") Long userId);
+
     // Social login ban check
     @Query("SELECT CASE WHEN u.socialLoginBanned = true THEN true ELSE false END " +
            "FROM User u WHERE u.id = :userId")
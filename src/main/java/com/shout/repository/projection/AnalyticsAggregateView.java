@@ -0,0 +1,14 @@
+package com.shout.repository.projection;
+
+/**
+ * Aggregated PostAnalytics of a user - period ("YYYY-MM") and mediaType are null unless grouped by them
+ */
+public interface AnalyticsAggregateView {
+    String getPeriod();
+    String getMediaType();
+    Long getPosts();
+    Long getTotalImpressions();
+    Long getTotalClicks();
+    Long getTotalProfileVisits();
+    Double getAverageEngagementRate();
+}
@@ -0,0 +1,9 @@
+package com.shout.repository.projection;
+
+/**
+ * Completed exchanges of a user, as requester or acceptor
+ */
+public interface CompletionCountView {
+    Long getUserId();
+    Long getCompleted();
+}
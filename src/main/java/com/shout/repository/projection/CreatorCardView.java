@@ -0,0 +1,17 @@
+package com.shout.repository.projection;
+
+/**
+ * Slim creator row for discovery/search results (no entity, no tokens)
+ */
+public interface CreatorCardView {
+    Long getId();
+    String getName();
+    String getUsername();
+    String getProfilePicture();
+    String getPlanType();
+    Integer getFollowerCount();
+    String getAccountType();
+    String getCategory();
+    Boolean getIsVerified();
+    Double getRating();
+}
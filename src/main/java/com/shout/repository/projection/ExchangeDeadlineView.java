@@ -0,0 +1,12 @@
+package com.shout.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Deadline fields of a PENDING exchange (loaded without the entity graph)
+ */
+public interface ExchangeDeadlineView {
+    Long getId();
+    LocalDateTime getExpiresAt();
+    LocalDateTime getReminderSentAt();
+}
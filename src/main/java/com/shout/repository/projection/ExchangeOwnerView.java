@@ -0,0 +1,13 @@
+package com.shout.repository.projection;
+
+import com.shout.model.ShoutoutExchange;
+
+/**
+ * Requester of an exchange, for background jobs that run without a persistence context
+ */
+public interface ExchangeOwnerView {
+    Long getId();
+    ShoutoutExchange.MediaType getMediaType();
+    Long getRequesterId();
+    String getRequesterInstagramId();
+}
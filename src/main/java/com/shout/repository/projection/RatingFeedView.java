@@ -0,0 +1,16 @@
+package com.shout.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry of a user's rating feed - rater card and a review excerpt (loaded without the entity graph)
+ */
+public interface RatingFeedView {
+    Long getId();
+    String getRaterUsername();
+    String getRaterProfilePicture();
+    Integer getRating();
+    String getCategory();
+    String getReviewExcerpt();
+    LocalDateTime getCreatedAt();
+}
@@ -0,0 +1,12 @@
+package com.shout.repository.projection;
+
+/**
+ * Fields the analytics refresh engine needs from a PostAnalytics row (loaded without the entity graph)
+ */
+public interface StaleAnalyticsView {
+    Long getId();
+    String getInstagramPostId();
+    Long getImpressions();
+    Long getClicks();
+    Long getProfileVisits();
+}
@@ -1,7 +1,7 @@
 package com.shout.security;
 
-import com.shout.model.User;
 import com.shout.repository.UserRepository;
+import com.shout.util.JwtTokenEngine;
 import com.shout.util.JwtTokenProvider;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -23,6 +23,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider jwtTokenProvider;
     private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
 
     @Override
     protected void doFilterInternal(
@@ -30,31 +31,35 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             @NonNull HttpServletResponse response,
             @NonNull FilterChain filterChain) throws ServletException, IOException {
 
+        HttpServletRequest chainRequest = request;
+
         try {
             String token = jwtTokenProvider.getTokenFromRequest(request);
+            Optional<JwtTokenEngine.TokenClaims> claims = jwtTokenProvider.resolveClaims(token);
 
-            if (token != null && jwtTokenProvider.validateToken(token)) {
-                Long userId = jwtTokenProvider.getUserIdFromToken(token);
+            if (claims.isPresent()) {
+                Long userId = claims.get().userId();
 
                 if (userId != null) {
-                    Optional<User> userOptional = userRepository.findById(userId);
+                    Optional<UserPrincipal> principalOptional = principalCache.get(userId);
 
-                    if (userOptional.isPresent()) {
-                        User user = userOptional.get();
+                    if (principalOptional.isPresent()) {
+                        UserPrincipal principal = principalOptional.get();
 
                         // Check if user is banned
-                        if (Boolean.TRUE.equals(user.getAccountBanned())) {
-                            log.warn("🚫 Banned user attempted access: {}", user.getUsername());
+                        if (principal.isBanned()) {
+                            log.warn("🚫 Banned user attempted access: {}", principal.getUsername());
                             response.setStatus(HttpServletResponse.SC_FORBIDDEN);
                             response.setContentType("application/json");
                             response.getWriter().write("{\"error\":\"Account banned\",\"code\":\"ACCOUNT_BANNED\"}");
                             return;
                         }
 
-                        // ✅ FIX: Attach BOTH user object AND userId
-                        request.setAttribute("user", user);
-                        request.setAttribute("userId", userId);
-                        log.debug("✅ Authenticated user: {} (ID: {})", user.getUsername(), userId);
+                        // Full User entity is loaded lazily, only if a controller asks for it
+                        chainRequest = new LazyUserRequestWrapper(request, userRepository, userId);
+                        chainRequest.setAttribute("principal", principal);
+                        chainRequest.setAttribute("userId", userId);
+                        log.debug("✅ Authenticated user: {} (ID: {})", principal.getUsername(), userId);
                     } else {
                         log.warn("⚠️ User not found for valid token: {}", userId);
                     }
@@ -65,7 +70,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             log.error("❌ JWT authentication error: {}", e.getMessage());
         }
 
-        filterChain.doFilter(request, response);
+        filterChain.doFilter(chainRequest, response);
     }
 
     @Override
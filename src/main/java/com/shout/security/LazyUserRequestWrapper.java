@@ -0,0 +1,45 @@
+package com.shout.security;
+
+import com.shout.model.User;
+import com.shout.repository.UserRepository;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+
+/**
+ * Request wrapper that resolves the "user" attribute on first access
+ * Only controllers that ask for the full User entity pay for loading it
+ */
+public class LazyUserRequestWrapper extends HttpServletRequestWrapper {
+
+    public static final String USER_ATTRIBUTE = "user";
+
+    private final UserRepository userRepository;
+    private final Long userId;
+    private boolean loaded;
+
+    public LazyUserRequestWrapper(HttpServletRequest request, UserRepository userRepository, Long userId) {
+        super(request);
+        this.userRepository = userRepository;
+        this.userId = userId;
+    }
+
+    @Override
+    public Object getAttribute(String name) {
+        if (USER_ATTRIBUTE.equals(name) && !loaded) {
+            loaded = true;
+            User user = userRepository.findById(userId).orElse(null);
+            if (user != null) {
+                super.setAttribute(USER_ATTRIBUTE, user);
+            }
+        }
+        return super.getAttribute(name);
+    }
+
+    @Override
+    public void setAttribute(String name, Object value) {
+        if (USER_ATTRIBUTE.equals(name)) {
+            loaded = true;
+        }
+        super.setAttribute(name, value);
+    }
+}
@@ -0,0 +1,72 @@
+package com.shout.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.shout.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Principal Cache - bounded, TTL-based cache of {@link UserPrincipal} snapshots
+ * Keeps the per-request ban/plan check off the database
+ */
+@Component
+@Slf4j
+public class PrincipalCache {
+
+    private final UserRepository userRepository;
+    private final Cache<Long, UserPrincipal> cache;
+
+    public PrincipalCache(UserRepository userRepository,
+                          @Value("${security.principal-cache.ttl:60s}") Duration ttl,
+                          @Value("${security.principal-cache.max-size:10000}") long maxSize) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(ttl)
+            .build();
+        log.info("Principal cache configured (ttl: {}, max size: {})", ttl, maxSize);
+    }
+
+    /**
+     * Get principal for user ID, loading from the database on a miss
+     */
+    public Optional<UserPrincipal> get(Long userId) {
+        return Optional.ofNullable(cache.get(userId, id ->
+            userRepository.findById(id).map(UserPrincipal::from).orElse(null)));
+    }
+
+    /**
+     * Evict a user's principal now and again once the current transaction commits,
+     * so a concurrent request can't re-cache the pre-commit state
+     */
+    public void evict(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        cache.invalidate(userId);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(userId);
+                }
+            });
+        }
+    }
+
+    /**
+     * Evict several principals (bulk updates)
+     */
+    public void evictAll(Collection<Long> userIds) {
+        userIds.forEach(this::evict);
+    }
+}
@@ -0,0 +1,31 @@
+package com.shout.security;
+
+import com.shout.model.User;
+import lombok.Value;
+
+/**
+ * Immutable snapshot of the fields the auth filter needs on every request.
+ * Cached by {@link PrincipalCache} so authenticated requests don't load the full User row.
+ */
+@Value
+public class UserPrincipal {
+    Long id;
+    String username;
+    String planType;
+    boolean banned;
+    int strikeCount;
+
+    public static UserPrincipal from(User user) {
+        return new UserPrincipal(
+            user.getId(),
+            user.getUsername(),
+            user.getPlanType(),
+            user.isBanned(),
+            user.getStrikeCount() != null ? user.getStrikeCount() : 0
+        );
+    }
+
+    public boolean isPro() {
+        return "PRO".equalsIgnoreCase(planType);
+    }
+}
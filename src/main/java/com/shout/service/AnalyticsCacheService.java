@@ -0,0 +1,307 @@
+package com.shout.service;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.shout.dto.AnalyticsDTO;
+import com.shout.model.PostAnalytics;
+import com.shout.repository.PostAnalyticsRepository;
+import com.shout.repository.ShoutoutExchangeRepository;
+import com.shout.repository.projection.ExchangeOwnerView;
+import com.shout.util.RateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Analytics Cache Service - stale-while-revalidate cache of PostAnalytics
+ * - Keyed by (exchange id, Instagram post id); entries are immutable snapshots, never entities
+ * - Past the soft TTL the cached value is still served while a background reload runs;
+ *   past the hard TTL (measured from the last successful fetch) the entry is dropped and the
+ *   next read loads synchronously
+ * - A miss upserts the analytics row on (shoutout_exchange_id, instagram_post_id)
+ * - Rate-limited or failed reloads keep serving the previous value, but only within the hard TTL
+ * - AnalyticsRefreshEngine evicts the rows it rewrites in bulk
+ * Hit/miss/load metrics are published under cache="instagramAnalytics".
+ */
+@Service
+@Slf4j
+public class AnalyticsCacheService {
+
+    private static final String UPSERT_SQL =
+        "INSERT INTO post_analytics (user_id, shoutout_exchange_id, instagram_post_id, media_type, impressions, " +
+        "clicks, profile_visits, engagement_rate, analytics_verified, last_fetched_at, created_at, updated_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, true, ?, ?, ?) " +
+        "ON CONFLICT (shoutout_exchange_id, instagram_post_id) DO UPDATE SET " +
+        "impressions = EXCLUDED.impressions, clicks = EXCLUDED.clicks, profile_visits = EXCLUDED.profile_visits, " +
+        "engagement_rate = EXCLUDED.engagement_rate, analytics_verified = true, " +
+        "last_fetched_at = EXCLUDED.last_fetched_at, updated_at = EXCLUDED.updated_at " +
+        "RETURNING id, media_type, impressions, clicks, profile_visits, shares, saves, comments, likes, " +
+        "engagement_rate, created_at, last_fetched_at";
+
+    private final ShoutoutExchangeRepository exchangeRepository;
+    private final PostAnalyticsRepository analyticsRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final WebClient webClient;
+    private final RateLimiter rateLimiter;
+    private final Clock clock;
+    private final Duration hardTtl;
+    private final String instagramApiUrl;
+    private final String accessToken;
+
+    private final ExecutorService refreshExecutor;
+    private final LoadingCache<AnalyticsKey, CachedAnalytics> cache;
+
+    public AnalyticsCacheService(ShoutoutExchangeRepository exchangeRepository,
+                                 PostAnalyticsRepository analyticsRepository,
+                                 JdbcTemplate jdbcTemplate,
+                                 WebClient webClient,
+                                 RateLimiter rateLimiter,
+                                 Clock clock,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${instagram.graph-api.url:https://graph.instagram.com/v17.0}") String instagramApiUrl,
+                                 @Value("${instagram.graph-api.access-token:}") String accessToken,
+                                 @Value("${instagram.analytics.cache.soft-ttl:5m}") Duration softTtl,
+                                 @Value("${instagram.analytics.cache.hard-ttl:1h}") Duration hardTtl,
+                                 @Value("${instagram.analytics.cache.max-size:10000}") long maxSize,
+                                 @Value("${instagram.analytics.cache.refresh-threads:2}") int refreshThreads) {
+        this.exchangeRepository = exchangeRepository;
+        this.analyticsRepository = analyticsRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.webClient = webClient;
+        this.rateLimiter = rateLimiter;
+        this.clock = clock;
+        this.hardTtl = hardTtl;
+        this.instagramApiUrl = instagramApiUrl;
+        this.accessToken = accessToken;
+
+        // Loads do blocking HTTP and JDBC, keep them off the common pool
+        this.refreshExecutor = Executors.newFixedThreadPool(refreshThreads, runnable -> {
+            Thread thread = new Thread(runnable, "analytics-cache-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.cache = Caffeine.newBuilder()
+            .refreshAfterWrite(softTtl)
+            .expireAfterWrite(hardTtl)
+            .maximumSize(maxSize)
+            .executor(refreshExecutor)
+            .recordStats()
+            .build(new AnalyticsLoader());
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "instagramAnalytics");
+
+        log.info("Analytics cache configured (soft ttl: {}, hard ttl: {})", softTtl, hardTtl);
+    }
+
+    record AnalyticsKey(Long exchangeId, String postId) { }
+
+    /**
+     * Detached copy of an analytics row plus its owner - no entity or lazy association is cached
+     * fetchedAt is when Instagram was last asked successfully, and bounds how long the value may be served
+     */
+    record CachedAnalytics(Long analyticsId, Long userId, Long exchangeId, String postId, String mediaType,
+                           long impressions, long clicks, long profileVisits, long shares, long saves,
+                           long comments, long likes, double engagementRate, LocalDateTime createdAt,
+                           LocalDateTime fetchedAt) {
+
+        AnalyticsDTO toDto() {
+            return AnalyticsDTO.builder()
+                .exchangeId(exchangeId)
+                .instagramPostId(postId)
+                .mediaType(mediaType)
+                .impressions(impressions)
+                .clicks(clicks)
+                .profileVisits(profileVisits)
+                .shares(shares)
+                .saves(saves)
+                .comments(comments)
+                .likes(likes)
+                .engagementRate(engagementRate)
+                .createdAt(createdAt)
+                .lastFetchedAt(fetchedAt)
+                .build();
+        }
+    }
+
+    /**
+     * Analytics for an exchange post - served from cache, loaded and upserted on a miss
+     * Returns null when nothing is stored and Instagram can't be asked right now
+     */
+    public AnalyticsDTO get(Long exchangeId, String postId) {
+        CachedAnalytics cached = cache.get(new AnalyticsKey(exchangeId, postId));
+        return cached != null ? cached.toDto() : null;
+    }
+
+    /**
+     * Reload an entry now (manual refresh) - falls back to the previous value on failure
+     */
+    public AnalyticsDTO refresh(Long exchangeId, String postId) {
+        CachedAnalytics cached = cache.refresh(new AnalyticsKey(exchangeId, postId)).join();
+        return cached != null ? cached.toDto() : null;
+    }
+
+    /**
+     * Drop cached entries of analytics rows rewritten outside the cache (bulk refresh)
+     */
+    public int evictAnalytics(Collection<Long> analyticsIds) {
+        if (analyticsIds.isEmpty()) {
+            return 0;
+        }
+        Set<Long> ids = Set.copyOf(analyticsIds);
+        int before = cache.asMap().size();
+        cache.asMap().values().removeIf(cached -> ids.contains(cached.analyticsId()));
+        return Math.max(before - cache.asMap().size(), 0);
+    }
+
+    /**
+     * Drop all cached analytics owned by a user
+     */
+    public int evictUser(Long userId) {
+        int before = cache.asMap().size();
+        cache.asMap().values().removeIf(cached -> userId.equals(cached.userId()));
+        int evicted = before - cache.asMap().size();
+        log.debug("Evicted {} analytics cache entries for user {}", evicted, userId);
+        return Math.max(evicted, 0);
+    }
+
+    private class AnalyticsLoader implements CacheLoader<AnalyticsKey, CachedAnalytics> {
+
+        @Override
+        public CachedAnalytics load(AnalyticsKey key) {
+            return fetchAndStore(key, null);
+        }
+
+        /**
+         * Returning null drops the entry - Caffeine would otherwise treat a reused old value
+         * as a fresh write and restart its hard TTL
+         */
+        @Override
+        public CachedAnalytics reload(AnalyticsKey key, CachedAnalytics oldValue) {
+            return fetchAndStore(key, oldValue);
+        }
+    }
+
+    /**
+     * Fetch insights from Instagram and upsert the row; without a budget or on API failure,
+     * fall back to the previous value while it is within the hard TTL, else to the stored row
+     */
+    private CachedAnalytics fetchAndStore(AnalyticsKey key, CachedAnalytics previous) {
+        ExchangeOwnerView owner = exchangeRepository.findOwnerById(key.exchangeId()).orElse(null);
+        if (owner == null) {
+            return null;
+        }
+
+        if (!rateLimiter.allowRequest(owner.getRequesterInstagramId())) {
+            log.warn("Rate limit exceeded for user {}, serving stored analytics", owner.getRequesterId());
+            return fallback(key, owner, previous);
+        }
+
+        log.info("Fetching analytics for post {} from Instagram API", key.postId());
+        Map<String, Long> metrics = fetchInstagramInsights(key.postId());
+        if (metrics == null) {
+            log.warn("Failed to fetch analytics for post {}", key.postId());
+            return fallback(key, owner, previous);
+        }
+
+        AnalyticsRefreshEngine.InsightsUpdate update = new AnalyticsRefreshEngine.InsightsUpdate(null,
+            metrics.getOrDefault("impressions", 0L),
+            metrics.getOrDefault("website_clicks", 0L),
+            metrics.getOrDefault("profile_visits", 0L));
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now(clock));
+        String mediaType = owner.getMediaType() != null ? owner.getMediaType().name() : PostAnalytics.MediaType.POST.name();
+
+        CachedAnalytics saved = jdbcTemplate.queryForObject(UPSERT_SQL, upsertedRow(key, owner.getRequesterId()),
+            owner.getRequesterId(), key.exchangeId(), key.postId(), mediaType,
+            update.impressions(), update.clicks(), update.profileVisits(), update.engagementRate(),
+            now, now, now);
+
+        log.info("Analytics saved for post {}: {} impressions, {} clicks", key.postId(), update.impressions(), update.clicks());
+        return saved;
+    }
+
+    private CachedAnalytics fallback(AnalyticsKey key, ExchangeOwnerView owner, CachedAnalytics previous) {
+        if (previous != null && !expired(previous)) {
+            return previous;
+        }
+        CachedAnalytics stored = stored(key, owner);
+        // On reload, a stored row no newer than the expired value would just extend its life
+        return previous != null && stored != null && expired(stored) ? null : stored;
+    }
+
+    private boolean expired(CachedAnalytics cached) {
+        return cached.fetchedAt() == null
+            || cached.fetchedAt().plus(hardTtl).isBefore(LocalDateTime.now(clock));
+    }
+
+    private CachedAnalytics stored(AnalyticsKey key, ExchangeOwnerView owner) {
+        return analyticsRepository.findByShoutoutExchange_IdAndInstagramPostId(key.exchangeId(), key.postId())
+            .map(analytics -> new CachedAnalytics(analytics.getId(), owner.getRequesterId(), key.exchangeId(),
+                key.postId(), analytics.getMediaType() != null ? analytics.getMediaType().name() : null,
+                valueOrZero(analytics.getImpressions()), valueOrZero(analytics.getClicks()),
+                valueOrZero(analytics.getProfileVisits()), valueOrZero(analytics.getShares()),
+                valueOrZero(analytics.getSaves()), valueOrZero(analytics.getComments()),
+                valueOrZero(analytics.getLikes()),
+                analytics.getEngagementRate() != null ? analytics.getEngagementRate() : 0.0,
+                analytics.getCreatedAt(), analytics.getLastFetchedAt()))
+            .orElse(null);
+    }
+
+    private static RowMapper<CachedAnalytics> upsertedRow(AnalyticsKey key, Long userId) {
+        return (rs, rowNum) -> {
+            Timestamp createdAt = rs.getTimestamp("created_at");
+            Timestamp fetchedAt = rs.getTimestamp("last_fetched_at");
+            return new CachedAnalytics(rs.getLong("id"), userId, key.exchangeId(), key.postId(),
+                rs.getString("media_type"), rs.getLong("impressions"), rs.getLong("clicks"),
+                rs.getLong("profile_visits"), rs.getLong("shares"), rs.getLong("saves"), rs.getLong("comments"),
+                rs.getLong("likes"), rs.getDouble("engagement_rate"),
+                createdAt != null ? createdAt.toLocalDateTime() : null,
+                fetchedAt != null ? fetchedAt.toLocalDateTime() : null);
+        };
+    }
+
+    private static long valueOrZero(Long value) {
+        return value != null ? value : 0L;
+    }
+
+    /**
+     * Fetch insights from Instagram Graph API - null on failure
+     */
+    private Map<String, Long> fetchInstagramInsights(String postId) {
+        try {
+            String url = String.format("%s/%s/insights?metric=%s&access_token=%s",
+                instagramApiUrl, postId, AnalyticsRefreshEngine.INSIGHTS_METRIC, accessToken);
+
+            AnalyticsRefreshEngine.InsightsPayload payload = webClient.get()
+                .uri(url)
+                .retrieve()
+                .bodyToMono(AnalyticsRefreshEngine.InsightsPayload.class)
+                .block();
+
+            return payload != null ? AnalyticsRefreshEngine.parseMetrics(payload) : null;
+        } catch (Exception e) {
+            log.error("Instagram API error for post {}: {}", postId, e.getMessage());
+            return null;
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        refreshExecutor.shutdown();
+    }
+}
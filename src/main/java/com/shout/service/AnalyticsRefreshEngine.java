@@ -0,0 +1,289 @@
+package com.shout.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shout.repository.PostAnalyticsRepository;
+import com.shout.repository.projection.StaleAnalyticsView;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Analytics Refresh Engine - bulk refresh of PostAnalytics insights
+ * - Collects stale rows (least recently fetched first) through a projection
+ * - Fetches their insights with Graph API batch requests, up to 50 sub-requests per round trip
+ * - Writes all results back with one JDBC batch update, then evicts those rows from AnalyticsCacheService
+ * Runs on a schedule for every stale row, and on demand for a single user's dashboard.
+ */
+@Service
+@Slf4j
+public class AnalyticsRefreshEngine {
+
+    static final String INSIGHTS_METRIC = "impressions,profile_visits,website_clicks";
+
+    static final String UPDATE_SQL = "UPDATE post_analytics SET impressions = ?, clicks = ?, profile_visits = ?, " +
+        "engagement_rate = ?, analytics_verified = true, last_fetched_at = ?, updated_at = ? WHERE id = ?";
+
+    private static final int GRAPH_BATCH_LIMIT = 50;
+
+    private final PostAnalyticsRepository analyticsRepository;
+    private final AnalyticsCacheService analyticsCache;
+    private final JdbcTemplate jdbcTemplate;
+    private final WebClient webClient;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+
+    private final String batchUrl;
+    private final String accessToken;
+    private final int batchSize;
+    private final int concurrency;
+    private final int maxRowsPerRun;
+    private final Duration staleAfter;
+    private final Duration minOnDemandAge;
+    private final Duration runTimeout;
+
+    private final Timer runTimer;
+    private final Counter roundTrips;
+    private final Counter refreshedCounter;
+    private final Counter failedCounter;
+
+    public AnalyticsRefreshEngine(PostAnalyticsRepository analyticsRepository,
+                                  AnalyticsCacheService analyticsCache,
+                                  JdbcTemplate jdbcTemplate,
+                                  WebClient webClient,
+                                  ObjectMapper objectMapper,
+                                  Clock clock,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${instagram.graph-api.batch-url:https://graph.facebook.com/v17.0}") String batchUrl,
+                                  @Value("${instagram.graph-api.access-token:}") String accessToken,
+                                  @Value("${instagram.analytics.batch-size:50}") int batchSize,
+                                  @Value("${instagram.analytics.concurrency:4}") int concurrency,
+                                  @Value("${instagram.analytics.max-rows-per-run:1000}") int maxRowsPerRun,
+                                  @Value("${instagram.analytics.stale-after:6h}") Duration staleAfter,
+                                  @Value("${instagram.analytics.min-on-demand-age:5m}") Duration minOnDemandAge,
+                                  @Value("${instagram.analytics.run-timeout:2m}") Duration runTimeout) {
+        this.analyticsRepository = analyticsRepository;
+        this.analyticsCache = analyticsCache;
+        this.jdbcTemplate = jdbcTemplate;
+        this.webClient = webClient;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+        this.batchUrl = batchUrl;
+        this.accessToken = accessToken;
+        this.batchSize = Math.max(1, Math.min(batchSize, GRAPH_BATCH_LIMIT));
+        this.concurrency = concurrency;
+        this.maxRowsPerRun = maxRowsPerRun;
+        this.staleAfter = staleAfter;
+        this.minOnDemandAge = minOnDemandAge;
+        this.runTimeout = runTimeout;
+
+        this.runTimer = Timer.builder("analytics.refresh.run")
+            .description("Duration of a bulk analytics refresh")
+            .register(meterRegistry);
+        this.roundTrips = Counter.builder("analytics.refresh.round_trips")
+            .description("Graph API batch requests sent")
+            .register(meterRegistry);
+        this.refreshedCounter = Counter.builder("analytics.refresh.refreshed")
+            .description("PostAnalytics rows refreshed")
+            .register(meterRegistry);
+        this.failedCounter = Counter.builder("analytics.refresh.failed")
+            .description("PostAnalytics rows whose insights could not be fetched")
+            .register(meterRegistry);
+    }
+
+    /**
+     * One metric of an insights response
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record InsightsMetric(String name, List<InsightsValue> values) { }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record InsightsValue(Long value) { }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record InsightsPayload(List<InsightsMetric> data) { }
+
+    /**
+     * One sub-response of a Graph API batch request - body is the JSON of the sub-request
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record BatchItem(int code, String body) { }
+
+    record InsightsUpdate(Long analyticsId, long impressions, long clicks, long profileVisits) {
+
+        double engagementRate() {
+            return impressions > 0 ? (double) ((clicks + profileVisits) * 100) / impressions : 0.0;
+        }
+    }
+
+    /**
+     * Scheduled mode - refresh every row not fetched within the stale window
+     */
+    @Scheduled(fixedDelayString = "${instagram.analytics.refresh-interval:3600000}",
+               initialDelayString = "${instagram.analytics.initial-delay:60000}")
+    public void refreshStaleAnalytics() {
+        try {
+            int refreshed = refreshStale();
+            if (refreshed > 0) {
+                log.info("📊 Refreshed analytics for {} posts", refreshed);
+            }
+        } catch (Exception e) {
+            log.error("❌ Error during bulk analytics refresh", e);
+        }
+    }
+
+    /**
+     * Refresh up to max-rows-per-run stale rows, returns the number of rows updated
+     */
+    public int refreshStale() {
+        LocalDateTime cutoff = LocalDateTime.now(clock).minus(staleAfter);
+        return refresh(analyticsRepository.findStaleAnalytics(cutoff, PageRequest.of(0, maxRowsPerRun)));
+    }
+
+    /**
+     * On-demand mode - refresh one user's posts (e.g. a Pro dashboard)
+     * Rows fetched within the last min-on-demand-age are skipped
+     */
+    public int refreshForUser(Long userId) {
+        LocalDateTime cutoff = LocalDateTime.now(clock).minus(minOnDemandAge);
+        return refresh(analyticsRepository.findStaleAnalyticsForUser(userId, cutoff, PageRequest.of(0, maxRowsPerRun)));
+    }
+
+    int refresh(List<StaleAnalyticsView> rows) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        Timer.Sample run = Timer.start();
+        try {
+            List<InsightsUpdate> updates = Flux.fromIterable(partition(rows))
+                .flatMap(this::fetchBatch, concurrency)
+                .collectList()
+                .block(runTimeout);
+
+            int written = write(updates != null ? updates : List.of());
+            refreshedCounter.increment(written);
+            failedCounter.increment(rows.size() - written);
+            return written;
+        } finally {
+            run.stop(runTimer);
+        }
+    }
+
+    /**
+     * Fetch insights of up to batchSize posts in one Graph API round trip
+     */
+    private Flux<InsightsUpdate> fetchBatch(List<StaleAnalyticsView> batch) {
+        return Mono.fromCallable(() -> objectMapper.writeValueAsString(batch.stream()
+                .map(row -> Map.of(
+                    "method", "GET",
+                    "relative_url", row.getInstagramPostId() + "/insights?metric=" + INSIGHTS_METRIC))
+                .toList()))
+            .flatMap(batchJson -> webClient.post()
+                .uri(batchUrl)
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                .body(BodyInserters.fromFormData("access_token", accessToken).with("batch", batchJson))
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<List<BatchItem>>() { }))
+            .doOnSubscribe(subscription -> roundTrips.increment())
+            .flatMapIterable(items -> toUpdates(batch, items))
+            .onErrorResume(e -> {
+                log.warn("Insights batch of {} posts failed: {}", batch.size(), e.getMessage());
+                return Flux.empty();
+            });
+    }
+
+    /**
+     * Sub-responses come back in request order; failed or missing ones are skipped
+     */
+    List<InsightsUpdate> toUpdates(List<StaleAnalyticsView> batch, List<BatchItem> items) {
+        List<InsightsUpdate> updates = new ArrayList<>();
+        for (int i = 0; i < batch.size() && i < items.size(); i++) {
+            StaleAnalyticsView row = batch.get(i);
+            BatchItem item = items.get(i);
+            if (item == null || item.code() != 200 || item.body() == null) {
+                log.debug("No insights for post {} (code {})", row.getInstagramPostId(), item != null ? item.code() : "timeout");
+                continue;
+            }
+            try {
+                Map<String, Long> metrics = parseMetrics(objectMapper.readValue(item.body(), InsightsPayload.class));
+                updates.add(new InsightsUpdate(row.getId(),
+                    metrics.getOrDefault("impressions", valueOrZero(row.getImpressions())),
+                    metrics.getOrDefault("website_clicks", valueOrZero(row.getClicks())),
+                    metrics.getOrDefault("profile_visits", valueOrZero(row.getProfileVisits()))));
+            } catch (Exception e) {
+                log.warn("Could not parse insights for post {}: {}", row.getInstagramPostId(), e.getMessage());
+            }
+        }
+        return updates;
+    }
+
+    private int write(List<InsightsUpdate> updates) {
+        if (updates.isEmpty()) {
+            return 0;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now(clock));
+        List<Object[]> args = updates.stream()
+            .map(update -> new Object[] {
+                update.impressions(), update.clicks(), update.profileVisits(), update.engagementRate(),
+                now, now, update.analyticsId()
+            })
+            .toList();
+
+        int written = 0;
+        for (int count : jdbcTemplate.batchUpdate(UPDATE_SQL, args)) {
+            // SUCCESS_NO_INFO (-2) still means the row was updated
+            written += count == 0 ? 0 : 1;
+        }
+
+        // Cached copies of these rows would otherwise be served until their own reload
+        analyticsCache.evictAnalytics(updates.stream().map(InsightsUpdate::analyticsId).toList());
+        return written;
+    }
+
+    static Map<String, Long> parseMetrics(InsightsPayload payload) {
+        Map<String, Long> metrics = new HashMap<>();
+        if (payload.data() != null) {
+            for (InsightsMetric metric : payload.data()) {
+                if (metric.name() != null && metric.values() != null && !metric.values().isEmpty()
+                        && metric.values().get(0).value() != null) {
+                    metrics.put(metric.name(), metric.values().get(0).value());
+                }
+            }
+        }
+        return metrics;
+    }
+
+    private List<List<StaleAnalyticsView>> partition(List<StaleAnalyticsView> rows) {
+        List<List<StaleAnalyticsView>> batches = new ArrayList<>();
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            batches.add(rows.subList(from, Math.min(from + batchSize, rows.size())));
+        }
+        return batches;
+    }
+
+    private static long valueOrZero(Long value) {
+        return value != null ? value : 0L;
+    }
+}
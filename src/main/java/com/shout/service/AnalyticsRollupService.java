@@ -0,0 +1,82 @@
+package com.shout.service;
+
+import com.shout.model.AnalyticsRollup;
+import com.shout.repository.AnalyticsRollupRepository;
+import com.shout.repository.projection.AnalyticsAggregateView;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Analytics Rollup Service - dashboard reads over analytics_rollups
+ * Rollups are kept current by the post_analytics_rollup trigger (delta per insert/update/delete),
+ * so reads cost O(periods) regardless of how many posts a user has. The rebuild job recomputes
+ * a user's rollups from post_analytics, for backfill and repair.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AnalyticsRollupService {
+
+    private final AnalyticsRollupRepository rollupRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * All-time totals, optionally for one media type
+     */
+    public List<AnalyticsAggregateView> allTime(Long userId, String mediaType, boolean byType) {
+        return rollupRepository.summarize(userId, AnalyticsRollup.PeriodType.ALL.name(), null, null,
+            mediaType, false, byType);
+    }
+
+    /**
+     * Totals over [from, to) built from daily or monthly rollups
+     */
+    public List<AnalyticsAggregateView> totals(Long userId, AnalyticsRollup.PeriodType periodType,
+                                               LocalDate from, LocalDate to, String mediaType) {
+        return rollupRepository.summarize(userId, periodType.name(), from, to, mediaType, false, false);
+    }
+
+    /**
+     * One row per day or month (and per media type if byType) within [from, to); null bounds are open
+     */
+    public List<AnalyticsAggregateView> series(Long userId, AnalyticsRollup.PeriodType periodType,
+                                               LocalDate from, LocalDate to, String mediaType, boolean byType) {
+        return rollupRepository.summarize(userId, periodType.name(), from, to, mediaType, true, byType);
+    }
+
+    /**
+     * Recompute one user's rollups from post_analytics, in one transaction
+     */
+    public int rebuildUser(Long userId) {
+        Integer rows = transactionTemplate.execute(status -> {
+            rollupRepository.deleteByUserId(userId);
+            return rollupRepository.rebuildForUser(userId);
+        });
+        return rows != null ? rows : 0;
+    }
+
+    /**
+     * Rebuild job - recompute rollups of every user with analytics (disabled unless a cron is set)
+     */
+    @Scheduled(cron = "${instagram.analytics.rollups.rebuild-cron:-}")
+    public void rebuildAll() {
+        List<Long> userIds = rollupRepository.findUserIdsWithAnalytics();
+        log.info("📊 Rebuilding analytics rollups for {} users", userIds.size());
+        int failed = 0;
+        for (Long userId : userIds) {
+            try {
+                rebuildUser(userId);
+            } catch (Exception e) {
+                failed++;
+                log.error("❌ Failed to rebuild analytics rollups for user {}", userId, e);
+            }
+        }
+        log.info("📊 Analytics rollup rebuild finished ({} failed)", failed);
+    }
+}
@@ -3,6 +3,7 @@ package com.shout.service;
 import com.shout.model.*;
 import com.shout.repository.ComplianceRecordRepository;
 import com.shout.repository.UserRepository;
+import com.shout.security.PrincipalCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -17,6 +18,7 @@ import java.util.List;
 public class ComplianceService {
     private final ComplianceRecordRepository complianceRecordRepository;
     private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
     private static final int MAX_STRIKES = 3;
 
     /**
@@ -61,6 +63,7 @@ public class ComplianceService {
         }
 
         userRepository.save(user);
+        principalCache.evict(user.getId());
         log.info("Violation recorded for user {}: {} (Strike {})", user.getUsername(), violationType, nextStrike);
         return saved;
     }
@@ -162,6 +165,7 @@ public class ComplianceService {
         user.setStrikeCount(0);
         user.setAccountBanned(false);
         userRepository.save(user);
+        principalCache.evict(user.getId());
         log.info("Strikes cleared for user: {}", user.getUsername());
     }
 }
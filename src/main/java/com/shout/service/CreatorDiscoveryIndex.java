@@ -0,0 +1,575 @@
+package com.shout.service;
+
+import com.shout.repository.projection.CreatorCardView;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creator Discovery Index - in-process, column-oriented copy of the discovery columns of users
+ * - One segment per lower-cased category plus one for all categories, each sorted by (follower_count DESC, id)
+ * - Columns are primitive arrays; a query binary-searches the follower bound / cursor, then scans forward
+ * - Loaded at startup, kept fresh by polling users.updated_at against a database-side watermark,
+ *   checked against the DB on a schedule (counts, sums and a digest of every indexed column)
+ * Segments are immutable: a change merges the changed rows into copies of the touched segments and
+ * swaps them in, so readers never lock. Text search is not served from here - that stays on the trigram indexes.
+ * Applied changes are published as CreatorsChanged events.
+ */
+@Service
+@Slf4j
+public class CreatorDiscoveryIndex {
+
+    static final String SELECT_SQL = "SELECT id, name, username, profile_picture, plan_type, follower_count, " +
+        "account_type, category, is_verified, rating, strike_count, is_active, account_banned, updated_at FROM users";
+
+    /**
+     * Poll watermark in the clock users.updated_at is written with: the start of the oldest transaction
+     * still open on this database, or now() when there is none. updated_at is CURRENT_TIMESTAMP, the
+     * transaction start, so any write that commits after this is read carries an updated_at at or after it,
+     * however long the transaction runs and whatever the application clock says.
+     */
+    static final String WATERMARK_SQL = "SELECT LEAST(now(), COALESCE(MIN(xact_start), now()))::timestamp " +
+        "FROM pg_stat_activity WHERE datname = current_database() AND backend_type = 'client backend'";
+
+    // Every indexed column except rating, in Row order; rating is compared as a sum in millionths
+    private static final String DIGEST_ROW_SQL = "id || chr(31) || COALESCE(name, '') || chr(31) || " +
+        "COALESCE(username, '') || chr(31) || COALESCE(profile_picture, '') || chr(31) || COALESCE(plan_type, '') || " +
+        "chr(31) || COALESCE(follower_count, 0) || chr(31) || COALESCE(account_type, '') || chr(31) || " +
+        "COALESCE(category, '') || chr(31) || COALESCE(is_verified, false)::int || chr(31) || " +
+        "COALESCE(strike_count, 0) || chr(31) || COALESCE(is_active, false)::int || chr(31) || " +
+        "COALESCE(account_banned, false)::int";
+
+    static final String CHECK_SQL = "SELECT COUNT(*), COALESCE(SUM(follower_count), 0), " +
+        "COALESCE(SUM(strike_count), 0), COUNT(*) FILTER (WHERE plan_type = 'PRO'), " +
+        "COUNT(*) FILTER (WHERE is_active AND NOT account_banned), " +
+        "COALESCE(SUM(ROUND(COALESCE(rating, 0)::numeric * 1000000)), 0), " +
+        "('x' || substr(md5(COALESCE(string_agg(" + DIGEST_ROW_SQL + ", chr(30) ORDER BY id), '')), 1, 16))::bit(64)::bigint " +
+        "FROM users";
+
+    // Key of the all-categories segment
+    private static final String ALL = "";
+
+    private static final byte FLAG_ACTIVE = 0x01;
+    private static final byte FLAG_BANNED = 0x02;
+    private static final byte FLAG_PRO = 0x04;
+
+    private static final Comparator<Row> ORDER = Comparator.comparingInt(Row::followerCount).reversed()
+        .thenComparingLong(Row::id);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final Duration pollOverlap;
+
+    private final Timer queryTimer;
+    private final Counter changesCounter;
+    private final Counter mismatchCounter;
+
+    // Writer side, guarded by this
+    private final Map<Long, Row> rows = new HashMap<>();
+    private LocalDateTime watermark;
+
+    private volatile Map<String, Segment> segments = Map.of();
+    private volatile boolean ready;
+
+    public CreatorDiscoveryIndex(JdbcTemplate jdbcTemplate,
+                                 ApplicationEventPublisher eventPublisher,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.discovery.index.enabled:true}") boolean enabled,
+                                 @Value("${app.discovery.index.poll-overlap:2s}") Duration pollOverlap) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.pollOverlap = pollOverlap;
+
+        this.queryTimer = Timer.builder("discovery.index.query")
+            .description("Creator discovery queries answered from the in-memory index")
+            .register(meterRegistry);
+        this.changesCounter = Counter.builder("discovery.index.changes")
+            .description("User rows applied to the discovery index by the change poll")
+            .register(meterRegistry);
+        this.mismatchCounter = Counter.builder("discovery.index.mismatches")
+            .description("Consistency checks that found the index out of step with the database")
+            .register(meterRegistry);
+        meterRegistry.gauge("discovery.index.size", rows, Map::size);
+    }
+
+    /**
+     * Users whose discovery columns changed, with their follower counts before and after the change
+     */
+    public record CreatorsChanged(Set<Long> userIds, Set<Integer> followerCounts) { }
+
+    /**
+     * Discovery columns of one user row
+     */
+    record Row(long id, String name, String username, String profilePicture, String planType, int followerCount,
+               String accountType, String category, boolean verified, double rating, int strikes,
+               boolean active, boolean banned) {
+
+        byte flags() {
+            return (byte) ((active ? FLAG_ACTIVE : 0) | (banned ? FLAG_BANNED : 0)
+                | ("PRO".equals(planType) ? FLAG_PRO : 0));
+        }
+
+        Card card() {
+            return new Card(id, name, username, profilePicture, planType, followerCount, accountType, category,
+                verified, rating);
+        }
+    }
+
+    /**
+     * Creator card served straight from the index
+     */
+    @lombok.Value
+    public static class Card implements CreatorCardView {
+        Long id;
+        String name;
+        String username;
+        String profilePicture;
+        String planType;
+        Integer followerCount;
+        String accountType;
+        String category;
+        Boolean isVerified;
+        Double rating;
+    }
+
+    /**
+     * Immutable columns of one category, sorted by (follower_count DESC, id)
+     */
+    static final class Segment {
+        static final Segment EMPTY = new Segment(0);
+
+        final long[] ids;
+        final int[] followers;
+        // Same precision as users.rating, so minRating comparisons agree with the database
+        final double[] ratings;
+        final short[] strikes;
+        final byte[] flags;
+        final Row[] rows;
+        final Card[] cards;
+
+        Segment(List<Row> sorted) {
+            this(sorted.size());
+            for (int i = 0; i < sorted.size(); i++) {
+                Row row = sorted.get(i);
+                set(i, row, row.card());
+            }
+        }
+
+        private Segment(int size) {
+            ids = new long[size];
+            followers = new int[size];
+            ratings = new double[size];
+            strikes = new short[size];
+            flags = new byte[size];
+            rows = new Row[size];
+            cards = new Card[size];
+        }
+
+        /**
+         * Copy of this segment without the dropped ids and with the added rows merged in, in one ordered
+         * pass - only the added rows are sorted, untouched positions are copied column by column
+         */
+        Segment merge(Set<Long> dropped, List<Row> added) {
+            List<Row> sortedAdded = new ArrayList<>(added);
+            sortedAdded.sort(ORDER);
+            int kept = 0;
+            for (long id : ids) {
+                kept += dropped.contains(id) ? 0 : 1;
+            }
+
+            Segment merged = new Segment(kept + sortedAdded.size());
+            int i = 0;
+            int j = 0;
+            int k = 0;
+            while (i < ids.length || j < sortedAdded.size()) {
+                if (i < ids.length && dropped.contains(ids[i])) {
+                    i++;
+                } else if (j == sortedAdded.size() || (i < ids.length && ORDER.compare(rows[i], sortedAdded.get(j)) < 0)) {
+                    merged.copy(k++, this, i++);
+                } else {
+                    Row row = sortedAdded.get(j++);
+                    merged.set(k++, row, row.card());
+                }
+            }
+            return merged;
+        }
+
+        private void set(int i, Row row, Card card) {
+            ids[i] = row.id();
+            followers[i] = row.followerCount();
+            ratings[i] = row.rating();
+            strikes[i] = (short) Math.min(row.strikes(), Short.MAX_VALUE);
+            flags[i] = row.flags();
+            rows[i] = row;
+            cards[i] = card;
+        }
+
+        private void copy(int i, Segment from, int j) {
+            ids[i] = from.ids[j];
+            followers[i] = from.followers[j];
+            ratings[i] = from.ratings[j];
+            strikes[i] = from.strikes[j];
+            flags[i] = from.flags[j];
+            rows[i] = from.rows[j];
+            cards[i] = from.cards[j];
+        }
+
+        /**
+         * First position that sorts strictly after (afterFollowers, afterId)
+         */
+        int after(long afterFollowers, long afterId) {
+            int low = 0;
+            int high = ids.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (followers[mid] < afterFollowers || (followers[mid] == afterFollowers && ids[mid] > afterId)) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            return low;
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Same contract as UserRepository.discoverCreators without the text filter: active, non-banned
+     * creators in (follower_count DESC, id) order after the keyset position, at most limit rows
+     * @param category category, matched case-insensitively; null for all
+     */
+    public List<CreatorCardView> discover(String category, int minFollowers, int maxFollowers, boolean proOnly,
+                                          double minRating, long afterFollowers, long afterId, int limit) {
+        long started = System.nanoTime();
+        Segment segment = segments.get(category != null ? category.toLowerCase(Locale.ROOT) : ALL);
+        if (segment == null) {
+            return List.of();
+        }
+
+        int from = Math.max(segment.after(afterFollowers, afterId), segment.after((long) maxFollowers + 1, Long.MAX_VALUE));
+        byte required = (byte) (FLAG_ACTIVE | (proOnly ? FLAG_PRO : 0));
+        List<CreatorCardView> result = new ArrayList<>(Math.min(limit, 64));
+        for (int i = from; i < segment.ids.length && result.size() < limit; i++) {
+            if (segment.followers[i] < minFollowers) {
+                break;
+            }
+            byte flags = segment.flags[i];
+            if ((flags & required) == required && (flags & FLAG_BANNED) == 0 && segment.ratings[i] >= minRating) {
+                result.add(segment.cards[i]);
+            }
+        }
+        queryTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        return result;
+    }
+
+    /**
+     * Active, non-banned users with followers in [minFollowers, maxFollowers] and at most maxStrikes strikes,
+     * largest first - the candidate pool for offline scoring
+     */
+    List<Row> eligibleInRange(int minFollowers, int maxFollowers, int maxStrikes, int limit) {
+        Segment segment = segments.get(ALL);
+        if (segment == null) {
+            return List.of();
+        }
+        List<Row> result = new ArrayList<>();
+        for (int i = segment.after((long) maxFollowers + 1, Long.MAX_VALUE);
+             i < segment.ids.length && result.size() < limit; i++) {
+            if (segment.followers[i] < minFollowers) {
+                break;
+            }
+            if ((segment.flags[i] & (FLAG_ACTIVE | FLAG_BANNED)) == FLAG_ACTIVE && segment.strikes[i] <= maxStrikes) {
+                result.add(segment.rows[i]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Current row of a user, null if not indexed
+     */
+    synchronized Row find(long userId) {
+        return rows.get(userId);
+    }
+
+    /**
+     * Full load at startup
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            log.info("Creator discovery index disabled, discovery reads go to the database");
+            return;
+        }
+        reload();
+    }
+
+    /**
+     * Replace the whole index with a fresh copy of users
+     */
+    public synchronized void reload() {
+        LocalDateTime loadStarted = databaseWatermark();
+        List<Row> loaded = jdbcTemplate.query(SELECT_SQL, (rs, rowNum) -> toRow(rs));
+        rows.clear();
+        loaded.forEach(row -> rows.put(row.id(), row));
+        watermark = loadStarted;
+        segments = buildAll();
+        ready = true;
+        log.info("🔎 Creator discovery index loaded {} users in {} categories", rows.size(), segments.size() - 1);
+    }
+
+    /**
+     * Change poll - apply rows updated since the last poll's watermark (minus a small overlap)
+     * The next watermark is read before the rows, so writes still in flight are picked up next time.
+     */
+    @Scheduled(fixedDelayString = "${app.discovery.index.poll-interval:5000}",
+               initialDelayString = "${app.discovery.index.poll-interval:5000}")
+    public void pollChanges() {
+        if (!ready) {
+            return;
+        }
+        try {
+            LocalDateTime since;
+            synchronized (this) {
+                since = watermark.minus(pollOverlap);
+            }
+            LocalDateTime pollStarted = databaseWatermark();
+            List<Row> changed = jdbcTemplate.query(SELECT_SQL + " WHERE updated_at >= ?",
+                (rs, rowNum) -> toRow(rs), Timestamp.valueOf(since));
+            apply(changed, pollStarted);
+        } catch (Exception e) {
+            log.error("❌ Creator discovery index poll failed", e);
+        }
+    }
+
+    /**
+     * Consistency check - compare counts, column sums and a digest of every indexed column with the
+     * database, reload on mismatch
+     * Catches what the poll can't see: bulk updates that skip updated_at, and deleted rows.
+     * @return true if the index matched
+     */
+    @Scheduled(fixedDelayString = "${app.discovery.index.check-interval:600000}",
+               initialDelayString = "${app.discovery.index.check-interval:600000}")
+    public boolean checkConsistency() {
+        if (!ready) {
+            return true;
+        }
+        try {
+            long[] expected = jdbcTemplate.queryForObject(CHECK_SQL, (rs, rowNum) -> new long[] {
+                rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4), rs.getLong(5), rs.getLong(6), rs.getLong(7)
+            });
+            long[] actual = checksum();
+            if (Arrays.equals(expected, actual)) {
+                return true;
+            }
+            mismatchCounter.increment();
+            log.warn("⚠️ Creator discovery index out of step with the database (db {} vs index {}), reloading",
+                Arrays.toString(expected), Arrays.toString(actual));
+            reload();
+            return false;
+        } catch (Exception e) {
+            log.error("❌ Creator discovery index consistency check failed", e);
+            return true;
+        }
+    }
+
+    /**
+     * Apply changed rows, merging them into the segments of the categories they left or joined and
+     * into the all-categories segment - the rest of each segment is copied, not re-sorted
+     */
+    synchronized void apply(List<Row> changed, LocalDateTime polledAt) {
+        watermark = polledAt;
+        Set<String> touched = new HashSet<>();
+        Set<Long> changedIds = new HashSet<>();
+        Set<Integer> followerCounts = new HashSet<>();
+        for (Row row : changed) {
+            Row previous = rows.put(row.id(), row);
+            if (!row.equals(previous)) {
+                touched.add(keyOf(row));
+                changedIds.add(row.id());
+                followerCounts.add(row.followerCount());
+                if (previous != null) {
+                    touched.add(keyOf(previous));
+                    followerCounts.add(previous.followerCount());
+                }
+            }
+        }
+        if (touched.isEmpty()) {
+            return;
+        }
+        // Latest version of each changed row (a poll may return a row twice)
+        List<Row> added = new ArrayList<>();
+        Map<String, List<Row>> addedByCategory = new HashMap<>();
+        for (Long id : changedIds) {
+            Row row = rows.get(id);
+            added.add(row);
+            addedByCategory.computeIfAbsent(keyOf(row), k -> new ArrayList<>()).add(row);
+        }
+
+        Map<String, Segment> next = new HashMap<>(segments);
+        for (String category : touched) {
+            if (ALL.equals(category)) {
+                continue;
+            }
+            Segment merged = next.getOrDefault(category, Segment.EMPTY)
+                .merge(changedIds, addedByCategory.getOrDefault(category, List.of()));
+            if (merged.ids.length == 0) {
+                next.remove(category);
+            } else {
+                next.put(category, merged);
+            }
+        }
+        next.put(ALL, next.getOrDefault(ALL, Segment.EMPTY).merge(changedIds, added));
+        segments = Map.copyOf(next);
+        changesCounter.increment(changedIds.size());
+        log.debug("Creator discovery index applied {} changed users ({} categories)", changedIds.size(), touched.size());
+        eventPublisher.publishEvent(new CreatorsChanged(changedIds, followerCounts));
+    }
+
+    /**
+     * Index-side figures in CHECK_SQL's column order
+     */
+    synchronized long[] checksum() {
+        long followers = 0;
+        long strikes = 0;
+        long pro = 0;
+        long eligible = 0;
+        long ratingMillionths = 0;
+        MessageDigest md5 = md5();
+        List<Row> byId = new ArrayList<>(rows.values());
+        byId.sort(Comparator.comparingLong(Row::id));
+        for (int i = 0; i < byId.size(); i++) {
+            Row row = byId.get(i);
+            followers += row.followerCount();
+            strikes += row.strikes();
+            pro += "PRO".equals(row.planType()) ? 1 : 0;
+            eligible += row.active() && !row.banned() ? 1 : 0;
+            ratingMillionths += millionths(row.rating());
+            md5.update(((i == 0 ? "" : "\u001e") + digestText(row)).getBytes(StandardCharsets.UTF_8));
+        }
+        long digest = ByteBuffer.wrap(md5.digest()).getLong();
+        return new long[] { rows.size(), followers, strikes, pro, eligible, ratingMillionths, digest };
+    }
+
+    /**
+     * Java side of DIGEST_ROW_SQL - NULL text reads as empty, booleans as 0/1
+     */
+    private static String digestText(Row row) {
+        return String.join("\u001f",
+            Long.toString(row.id()),
+            Objects.requireNonNullElse(row.name(), ""),
+            Objects.requireNonNullElse(row.username(), ""),
+            Objects.requireNonNullElse(row.profilePicture(), ""),
+            Objects.requireNonNullElse(row.planType(), ""),
+            Integer.toString(row.followerCount()),
+            Objects.requireNonNullElse(row.accountType(), ""),
+            Objects.requireNonNullElse(row.category(), ""),
+            row.verified() ? "1" : "0",
+            Integer.toString(row.strikes()),
+            row.active() ? "1" : "0",
+            row.banned() ? "1" : "0");
+    }
+
+    /**
+     * ROUND(rating::numeric * 1000000) - Postgres converts float8 to numeric with 15 significant digits
+     */
+    private static long millionths(double rating) {
+        return new BigDecimal(rating, new MathContext(15)).movePointRight(6)
+            .setScale(0, RoundingMode.HALF_UP).longValue();
+    }
+
+    private static MessageDigest md5() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private LocalDateTime databaseWatermark() {
+        return jdbcTemplate.queryForObject(WATERMARK_SQL, Timestamp.class).toLocalDateTime();
+    }
+
+    private Map<String, Segment> buildAll() {
+        Map<String, Segment> built = new HashMap<>();
+        group().forEach((category, members) -> built.put(category, segment(members)));
+        built.put(ALL, segment(new ArrayList<>(rows.values())));
+        return Map.copyOf(built);
+    }
+
+    /**
+     * Rows per category
+     */
+    private Map<String, List<Row>> group() {
+        Map<String, List<Row>> grouped = new HashMap<>();
+        for (Row row : rows.values()) {
+            String key = keyOf(row);
+            if (!ALL.equals(key)) {
+                grouped.computeIfAbsent(key, k -> new ArrayList<>()).add(row);
+            }
+        }
+        return grouped;
+    }
+
+    private static Segment segment(List<Row> members) {
+        members.sort(ORDER);
+        return new Segment(members);
+    }
+
+    private static String keyOf(Row row) {
+        return row.category() != null ? row.category().toLowerCase(Locale.ROOT) : ALL;
+    }
+
+    private static Row toRow(ResultSet rs) throws SQLException {
+        return new Row(
+            rs.getLong("id"),
+            rs.getString("name"),
+            rs.getString("username"),
+            rs.getString("profile_picture"),
+            rs.getString("plan_type"),
+            rs.getInt("follower_count"),
+            rs.getString("account_type"),
+            rs.getString("category"),
+            rs.getBoolean("is_verified"),
+            rs.getDouble("rating"),
+            rs.getInt("strike_count"),
+            rs.getBoolean("is_active"),
+            rs.getBoolean("account_banned"));
+    }
+}
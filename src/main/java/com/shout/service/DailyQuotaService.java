@@ -0,0 +1,140 @@
+package com.shout.service;
+
+import com.shout.model.User;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Daily Quota Service - atomic daily request counters
+ * Each check-and-increment is a single conditional UPDATE ... RETURNING on the users row,
+ * so concurrent sends can't overshoot the limit and the User aggregate is never loaded.
+ * Counters are keyed by UTC date: a counter from an earlier day is treated as 0.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DailyQuotaService {
+
+    private static final int BASIC_DAILY_LIMIT = 10;
+    private static final int PRO_DAILY_LIMIT = 50;
+
+    private static final String CONSUME_SENT_SQL =
+        "UPDATE users SET " +
+        "  daily_requests_sent = CASE WHEN daily_counter_date = ? THEN COALESCE(daily_requests_sent, 0) + 1 ELSE 1 END, " +
+        "  daily_requests_accepted = CASE WHEN daily_counter_date = ? THEN daily_requests_accepted ELSE 0 END, " +
+        "  daily_counter_date = ? " +
+        "WHERE id = ? " +
+        "  AND (daily_counter_date IS DISTINCT FROM ? OR COALESCE(daily_requests_sent, 0) < ?) " +
+        "RETURNING daily_requests_sent";
+
+    private static final String RECORD_ACCEPTED_SQL =
+        "UPDATE users SET " +
+        "  daily_requests_accepted = CASE WHEN daily_counter_date = ? THEN COALESCE(daily_requests_accepted, 0) + 1 ELSE 1 END, " +
+        "  daily_requests_sent = CASE WHEN daily_counter_date = ? THEN daily_requests_sent ELSE 0 END, " +
+        "  daily_counter_date = ? " +
+        "WHERE id = ? " +
+        "RETURNING daily_requests_accepted";
+
+    private static final String REFUND_SENT_SQL =
+        "UPDATE users SET daily_requests_sent = GREATEST(daily_requests_sent - 1, 0) " +
+        "WHERE id = ? AND daily_counter_date = ?";
+
+    private static final String READ_SENT_SQL =
+        "SELECT CASE WHEN daily_counter_date = ? THEN COALESCE(daily_requests_sent, 0) ELSE 0 END " +
+        "FROM users WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Result of a quota check
+     */
+    public record QuotaResult(boolean allowed, int used, int limit) {
+
+        public int remaining() {
+            return Math.max(0, limit - used);
+        }
+    }
+
+    /**
+     * Daily send limit for a plan
+     */
+    public int dailyLimitFor(String planType) {
+        return "PRO".equalsIgnoreCase(planType) ? PRO_DAILY_LIMIT : BASIC_DAILY_LIMIT;
+    }
+
+    /**
+     * Atomically consume one send from today's quota
+     * Returns allowed=false (and the current usage) when the limit is already reached
+     */
+    public QuotaResult tryConsumeSent(Long userId, String planType) {
+        return tryConsumeSent(userId, dailyLimitFor(planType));
+    }
+
+    /**
+     * Atomically consume one send against an explicit limit (from the user's entitlements)
+     */
+    public QuotaResult tryConsumeSent(Long userId, int limit) {
+        Date today = today();
+
+        List<Integer> updated = jdbcTemplate.queryForList(CONSUME_SENT_SQL, Integer.class,
+            today, today, today, userId, today, limit);
+
+        if (!updated.isEmpty()) {
+            return new QuotaResult(true, updated.get(0), limit);
+        }
+
+        int used = getSentToday(userId);
+        log.debug("Daily request limit reached for user {} ({}/{})", userId, used, limit);
+        return new QuotaResult(false, used, limit);
+    }
+
+    /**
+     * Give back a consumed send (the request it was reserved for failed)
+     */
+    public void refundSent(Long userId) {
+        jdbcTemplate.update(REFUND_SENT_SQL, userId, today());
+    }
+
+    /**
+     * Atomically record an accepted request, returns today's accepted count
+     */
+    public int recordAccepted(Long userId) {
+        Date today = today();
+        List<Integer> updated = jdbcTemplate.queryForList(RECORD_ACCEPTED_SQL, Integer.class,
+            today, today, today, userId);
+        return updated.isEmpty() ? 0 : updated.get(0);
+    }
+
+    /**
+     * Sends used today
+     */
+    public int getSentToday(Long userId) {
+        List<Integer> rows = jdbcTemplate.queryForList(READ_SENT_SQL, Integer.class, today(), userId);
+        return rows.isEmpty() ? 0 : rows.get(0);
+    }
+
+    /**
+     * Remaining sends today for an already loaded user
+     */
+    public int getRemainingSent(User user) {
+        return Math.max(0, dailyLimitFor(user.getPlanType()) - user.dailyRequestsSentOn(currentDate()));
+    }
+
+    /**
+     * Current UTC date the counters are keyed by
+     */
+    public LocalDate currentDate() {
+        return LocalDate.now(ZoneOffset.UTC);
+    }
+
+    private Date today() {
+        return Date.valueOf(currentDate());
+    }
+}
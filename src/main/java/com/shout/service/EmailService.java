@@ -7,7 +7,6 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import jakarta.mail.MessagingException;
@@ -15,11 +14,17 @@ import jakarta.mail.internet.MimeMessage;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
+/**
+ * Email Service - renders emails and queues them in the transactional outbox
+ * The send* methods only write an outbox event in the caller's transaction; OutboxRelay delivers
+ * it through {@link #deliver}, so a rolled-back change sends nothing and a crash loses nothing.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class EmailService {
     private final JavaMailSender mailSender;
+    private final OutboxService outboxService;
 
     @Value("${spring.mail.from:noreply@shoutx.co.in}")
     private String fromEmail;
@@ -31,130 +36,90 @@ public class EmailService {
     private String appUrl;
 
     /**
-     * Send shoutout request notification
+     * Queue shoutout request notification
      */
-    @Async
     public void sendShoutoutRequestNotification(User requester, User target, ShoutoutRequest request) {
-        try {
-            String subject = "New Shoutout Request from " + requester.getFullName();
-            String content = buildShoutoutRequestEmail(requester, request);
-            sendHtmlEmail(target.getEmail(), subject, content);
-            log.info("Shoutout request email sent to {}", target.getEmail());
-        } catch (Exception e) {
-            log.error("Error sending shoutout request email to {}", target.getEmail(), e);
-        }
+        String subject = "New Shoutout Request from " + requester.getFullName();
+        String content = buildShoutoutRequestEmail(requester, request);
+        outboxService.enqueueEmail("SHOUTOUT_REQUEST", target, subject, content);
+        log.info("Shoutout request email queued for {}", target.getEmail());
     }
 
     /**
-     * Send shoutout acceptance notification
+     * Queue shoutout acceptance notification
      */
-    @Async
     public void sendShoutoutAcceptedNotification(User acceptor, ShoutoutExchange exchange) {
-        try {
-            String subject = "Your Shoutout Request Was Accepted!";
-            String content = buildShoutoutAcceptedEmail(acceptor, exchange);
-            sendHtmlEmail(exchange.getRequester().getEmail(), subject, content);
-            log.info("Shoutout accepted email sent to {}", exchange.getRequester().getEmail());
-        } catch (Exception e) {
-            log.error("Error sending shoutout accepted email", e);
-        }
+        String subject = "Your Shoutout Request Was Accepted!";
+        String content = buildShoutoutAcceptedEmail(acceptor, exchange);
+        outboxService.enqueueEmail("SHOUTOUT_ACCEPTED", exchange.getRequester(), subject, content);
+        log.info("Shoutout accepted email queued for {}", exchange.getRequester().getEmail());
     }
 
     /**
-     * Send 24-hour timer reminder
+     * Queue 24-hour timer reminder
      */
-    @Async
     public void send24HourReminderEmail(User user, ShoutoutExchange exchange) {
-        try {
-            String subject = "[REMINDER] You have 24 hours to post your shoutout";
-            String content = build24HourReminderEmail(user, exchange);
-            sendHtmlEmail(user.getEmail(), subject, content);
-            log.info("24-hour reminder email sent to {}", user.getEmail());
-        } catch (Exception e) {
-            log.error("Error sending 24-hour reminder email", e);
-        }
+        String subject = "[REMINDER] You have 24 hours to post your shoutout";
+        String content = build24HourReminderEmail(user, exchange);
+        outboxService.enqueueEmail("EXCHANGE_REMINDER", user, subject, content);
+        log.info("24-hour reminder email queued for {}", user.getEmail());
     }
 
     /**
-     * Send exchange completion notification
+     * Queue exchange completion notification
      */
-    @Async
     public void sendExchangeCompletedNotification(ShoutoutExchange exchange) {
-        try {
-            String subject = "Shoutout Exchange Completed!";
-            String content = buildExchangeCompletedEmail(exchange);
-            sendHtmlEmail(exchange.getRequester().getEmail(), subject, content);
-            sendHtmlEmail(exchange.getAcceptor().getEmail(), subject, content);
-            log.info("Exchange completed emails sent to both users");
-        } catch (Exception e) {
-            log.error("Error sending exchange completion email", e);
-        }
+        String subject = "Shoutout Exchange Completed!";
+        String content = buildExchangeCompletedEmail(exchange);
+        outboxService.enqueueEmail("EXCHANGE_COMPLETED", exchange.getRequester(), subject, content);
+        outboxService.enqueueEmail("EXCHANGE_COMPLETED", exchange.getAcceptor(), subject, content);
+        log.info("Exchange completed emails queued for both users");
     }
 
     /**
-     * Send failed exchange notification with violation warning
+     * Queue failed exchange notification with violation warning
      */
-    @Async
     public void sendExchangeFailedNotification(ShoutoutExchange exchange, User violator, String reason) {
-        try {
-            String subject = "Shoutout Exchange Failed - Strike Added";
-            String content = buildExchangeFailedEmail(exchange, violator, reason);
-            sendHtmlEmail(violator.getEmail(), subject, content);
-            log.info("Exchange failed email sent to {}", violator.getEmail());
-        } catch (Exception e) {
-            log.error("Error sending exchange failed email", e);
-        }
+        String subject = "Shoutout Exchange Failed - Strike Added";
+        String content = buildExchangeFailedEmail(exchange, violator, reason);
+        outboxService.enqueueEmail("EXCHANGE_FAILED", violator, subject, content);
+        log.info("Exchange failed email queued for {}", violator.getEmail());
     }
 
     /**
-     * Send account banned notification
+     * Queue account banned notification
      */
-    @Async
     public void sendAccountBannedNotification(User user) {
-        try {
-            String subject = "Your Account Has Been Banned";
-            String content = buildAccountBannedEmail(user);
-            sendHtmlEmail(user.getEmail(), subject, content);
-            log.warn("Account banned email sent to {}", user.getEmail());
-        } catch (Exception e) {
-            log.error("Error sending account banned email", e);
-        }
+        String subject = "Your Account Has Been Banned";
+        String content = buildAccountBannedEmail(user);
+        outboxService.enqueueEmail("ACCOUNT_BANNED", user, subject, content);
+        log.warn("Account banned email queued for {}", user.getEmail());
     }
 
     /**
-     * Send subscription upgrade confirmation
+     * Queue subscription upgrade confirmation
      */
-    @Async
     public void sendSubscriptionUpgradeEmail(User user, Subscription subscription) {
-        try {
-            String subject = "Welcome to ShoutX Pro!";
-            String content = buildSubscriptionUpgradeEmail(user, subscription);
-            sendHtmlEmail(user.getEmail(), subject, content);
-            log.info("Subscription upgrade email sent to {}", user.getEmail());
-        } catch (Exception e) {
-            log.error("Error sending subscription upgrade email", e);
-        }
+        String subject = "Welcome to ShoutX Pro!";
+        String content = buildSubscriptionUpgradeEmail(user, subscription);
+        outboxService.enqueueEmail("SUBSCRIPTION_UPGRADE", user, subject, content);
+        log.info("Subscription upgrade email queued for {}", user.getEmail());
     }
 
     /**
-     * Send rating request notification
+     * Queue rating request notification
      */
-    @Async
     public void sendRatingRequestNotification(User rater, User ratee, ShoutoutExchange exchange) {
-        try {
-            String subject = "Rate Your Shoutout Exchange with " + rater.getFullName();
-            String content = buildRatingRequestEmail(rater, exchange);
-            sendHtmlEmail(ratee.getEmail(), subject, content);
-            log.info("Rating request email sent to {}", ratee.getEmail());
-        } catch (Exception e) {
-            log.error("Error sending rating request email", e);
-        }
+        String subject = "Rate Your Shoutout Exchange with " + rater.getFullName();
+        String content = buildRatingRequestEmail(rater, exchange);
+        outboxService.enqueueEmail("RATING_REQUEST", ratee, subject, content);
+        log.info("Rating request email queued for {}", ratee.getEmail());
     }
 
     /**
-     * Send HTML email
+     * Send an HTML email now (called by OutboxRelay)
      */
-    private void sendHtmlEmail(String to, String subject, String content) throws MessagingException {
+    public void deliver(String to, String subject, String content) throws MessagingException {
         MimeMessage message = mailSender.createMimeMessage();
         MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
 
@@ -0,0 +1,202 @@
+package com.shout.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.shout.model.ShoutoutRequest;
+import com.shout.model.SubscriptionPlan;
+import com.shout.model.Subscription;
+import com.shout.repository.SubscriptionPlanRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Entitlement Service - "is pro, which media types, what daily limit" from an in-memory snapshot
+ * - Plan definitions are loaded once from subscription_plans and refreshed periodically or on change
+ * - Each user's snapshot comes from one query (user plan + subscription status + plan type) and is cached
+ * The active subscription is the source of truth; users.plan_type is only used for users with no
+ * subscription row (payments made outside SubscriptionService). Snapshots are evicted on subscription
+ * create/upgrade/cancel/expiry; the TTL bounds staleness if an eviction is missed.
+ */
+@Service
+@Slf4j
+public class EntitlementService {
+
+    static final String LOAD_SQL =
+        "SELECT u.plan_type AS user_plan, s.status AS subscription_status, p.plan_type AS subscription_plan " +
+        "FROM users u " +
+        "LEFT JOIN user_subscriptions s ON s.user_id = u.id " +
+        "LEFT JOIN subscription_plans p ON p.id = s.plan_id " +
+        "WHERE u.id = ?";
+
+    private final SubscriptionPlanRepository subscriptionPlanRepository;
+    private final DailyQuotaService dailyQuotaService;
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache<Long, Entitlements> cache;
+
+    private volatile Map<SubscriptionPlan.PlanType, Entitlements> plans;
+
+    public EntitlementService(SubscriptionPlanRepository subscriptionPlanRepository,
+                              DailyQuotaService dailyQuotaService,
+                              JdbcTemplate jdbcTemplate,
+                              @Value("${app.entitlements.ttl:10m}") Duration ttl,
+                              @Value("${app.entitlements.max-size:50000}") long maxSize) {
+        this.subscriptionPlanRepository = subscriptionPlanRepository;
+        this.dailyQuotaService = dailyQuotaService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(ttl)
+            .build();
+        log.info("Entitlement cache configured (ttl: {}, max size: {})", ttl, maxSize);
+    }
+
+    /**
+     * What a plan allows
+     */
+    public record Entitlements(SubscriptionPlan.PlanType planType,
+                               Set<ShoutoutRequest.MediaType> mediaTypes,
+                               int dailyLimit,
+                               int maxActiveRequests,
+                               boolean analytics,
+                               boolean advancedAnalytics) {
+
+        public boolean pro() {
+            return planType == SubscriptionPlan.PlanType.PRO;
+        }
+
+        public boolean canAccess(ShoutoutRequest.MediaType mediaType) {
+            return mediaTypes.contains(mediaType);
+        }
+    }
+
+    /**
+     * A user's entitlements, loaded on a cache miss
+     */
+    public Entitlements get(Long userId) {
+        return cache.get(userId, this::load);
+    }
+
+    /**
+     * Entitlements of a plan
+     */
+    public Entitlements forPlan(SubscriptionPlan.PlanType planType) {
+        Map<SubscriptionPlan.PlanType, Entitlements> current = plans;
+        if (current == null) {
+            current = refreshPlans();
+        }
+        Entitlements entitlements = current.get(planType);
+        return entitlements != null ? entitlements : defaults(planType);
+    }
+
+    /**
+     * Evict a user's snapshot now and again once the current transaction commits,
+     * so a concurrent request can't re-cache the pre-commit state
+     */
+    public void evict(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        cache.invalidate(userId);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(userId);
+                }
+            });
+        }
+    }
+
+    /**
+     * Evict several snapshots (bulk updates)
+     */
+    public void evictAll(Collection<Long> userIds) {
+        userIds.forEach(this::evict);
+    }
+
+    /**
+     * Reload plan definitions; user snapshots are dropped if any plan changed
+     */
+    @Scheduled(fixedDelayString = "${app.entitlements.plan-refresh-interval:600000}",
+               initialDelayString = "${app.entitlements.plan-refresh-interval:600000}")
+    public synchronized Map<SubscriptionPlan.PlanType, Entitlements> refreshPlans() {
+        Map<SubscriptionPlan.PlanType, Entitlements> loaded = new EnumMap<>(SubscriptionPlan.PlanType.class);
+        for (SubscriptionPlan plan : subscriptionPlanRepository.findAll()) {
+            if (Boolean.TRUE.equals(plan.getActive())) {
+                loaded.put(plan.getPlanType(), fromPlan(plan));
+            }
+        }
+        Map<SubscriptionPlan.PlanType, Entitlements> snapshot = Collections.unmodifiableMap(loaded);
+
+        Map<SubscriptionPlan.PlanType, Entitlements> previous = plans;
+        plans = snapshot;
+        if (previous != null && !previous.equals(snapshot)) {
+            cache.invalidateAll();
+            log.info("🔄 Subscription plans changed, entitlement cache cleared");
+        }
+        return snapshot;
+    }
+
+    private Entitlements load(Long userId) {
+        List<SubscriptionPlan.PlanType> rows = jdbcTemplate.query(LOAD_SQL, (rs, rowNum) -> {
+            String subscriptionStatus = rs.getString("subscription_status");
+            if (subscriptionStatus != null) {
+                return Subscription.SubscriptionStatus.ACTIVE.name().equals(subscriptionStatus)
+                    ? planType(rs.getString("subscription_plan"))
+                    : SubscriptionPlan.PlanType.BASIC;
+            }
+            return planType(rs.getString("user_plan"));
+        }, userId);
+
+        return forPlan(rows.isEmpty() ? SubscriptionPlan.PlanType.BASIC : rows.get(0));
+    }
+
+    private Entitlements fromPlan(SubscriptionPlan plan) {
+        Set<ShoutoutRequest.MediaType> mediaTypes = EnumSet.noneOf(ShoutoutRequest.MediaType.class);
+        if (Boolean.TRUE.equals(plan.getStoriesSupported())) {
+            mediaTypes.add(ShoutoutRequest.MediaType.STORY);
+        }
+        if (Boolean.TRUE.equals(plan.getPostsSupported())) {
+            mediaTypes.add(ShoutoutRequest.MediaType.POST);
+        }
+        if (Boolean.TRUE.equals(plan.getReelsSupported())) {
+            mediaTypes.add(ShoutoutRequest.MediaType.REEL);
+        }
+        return new Entitlements(plan.getPlanType(), Collections.unmodifiableSet(mediaTypes),
+            dailyQuotaService.dailyLimitFor(plan.getPlanType().name()),
+            plan.getMaxActiveRequests() != null ? plan.getMaxActiveRequests() : 0,
+            Boolean.TRUE.equals(plan.getAnalyticsSupported()),
+            Boolean.TRUE.equals(plan.getAdvancedAnalyticsSupported()));
+    }
+
+    /**
+     * Fallback while plan definitions are missing (before initializeSubscriptionPlans has run)
+     */
+    private Entitlements defaults(SubscriptionPlan.PlanType planType) {
+        boolean pro = planType == SubscriptionPlan.PlanType.PRO;
+        Set<ShoutoutRequest.MediaType> mediaTypes = pro
+            ? Collections.unmodifiableSet(EnumSet.allOf(ShoutoutRequest.MediaType.class))
+            : Set.of(ShoutoutRequest.MediaType.STORY);
+        return new Entitlements(planType, mediaTypes, dailyQuotaService.dailyLimitFor(planType.name()),
+            pro ? 100 : 10, pro, pro);
+    }
+
+    private static SubscriptionPlan.PlanType planType(String value) {
+        return "PRO".equalsIgnoreCase(value) ? SubscriptionPlan.PlanType.PRO : SubscriptionPlan.PlanType.BASIC;
+    }
+}
@@ -0,0 +1,161 @@
+package com.shout.service;
+
+import com.shout.repository.ShoutoutExchangeRepository;
+import com.shout.repository.projection.ExchangeDeadlineView;
+import com.shout.util.TimingWheel;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exchange Deadline Scheduler - fires expiry and "2 hours left" reminders on time
+ * Deadlines of PENDING exchanges live in an in-process timing wheel, loaded at startup and kept
+ * up to date by ShoutoutExchangeService. Handlers go through ExchangeExpiryEngine, which claims the
+ * row with SKIP LOCKED, so firing on several nodes (or alongside the safety-net sweep) is harmless.
+ */
+@Service
+@Slf4j
+public class ExchangeDeadlineScheduler {
+
+    enum DeadlineType { EXPIRE, REMIND }
+
+    record Deadline(Long exchangeId, DeadlineType type) { }
+
+    private final ShoutoutExchangeRepository exchangeRepository;
+    private final ExchangeExpiryEngine expiryEngine;
+    private final Clock clock;
+    private final TimingWheel<Deadline> wheel;
+    private final Duration tick;
+
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "exchange-deadline-tick");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ExecutorService handlers;
+
+    public ExchangeDeadlineScheduler(ShoutoutExchangeRepository exchangeRepository,
+                                     ExchangeExpiryEngine expiryEngine,
+                                     Clock clock,
+                                     @Value("${exchange.deadlines.tick:250ms}") Duration tick,
+                                     @Value("${exchange.deadlines.wheel-size:512}") int wheelSize,
+                                     @Value("${exchange.deadlines.handler-threads:2}") int handlerThreads) {
+        this.exchangeRepository = exchangeRepository;
+        this.expiryEngine = expiryEngine;
+        this.clock = clock;
+        this.tick = tick;
+        this.wheel = new TimingWheel<>(clock, tick, wheelSize);
+        this.handlers = Executors.newFixedThreadPool(handlerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "exchange-deadline-handler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Load deadlines of all PENDING exchanges and start ticking
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        List<ExchangeDeadlineView> pending = exchangeRepository.findPendingDeadlines();
+        pending.forEach(view -> schedule(view.getId(), view.getExpiresAt(), view.getReminderSentAt() == null));
+        log.info("⏱️ Exchange deadline scheduler loaded {} pending exchanges", pending.size());
+
+        ticker.scheduleAtFixedRate(this::fireDue, tick.toMillis(), tick.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Register deadlines for a new exchange (after the creating transaction commits)
+     */
+    public void register(Long exchangeId, LocalDateTime expiresAt) {
+        afterCommit(() -> schedule(exchangeId, expiresAt, true));
+    }
+
+    /**
+     * Drop deadlines of an exchange that is no longer PENDING
+     */
+    public void cancel(Long exchangeId) {
+        afterCommit(() -> {
+            wheel.cancel(new Deadline(exchangeId, DeadlineType.EXPIRE));
+            wheel.cancel(new Deadline(exchangeId, DeadlineType.REMIND));
+        });
+    }
+
+    /**
+     * Number of deadlines currently scheduled
+     */
+    public int scheduledCount() {
+        return wheel.size();
+    }
+
+    /**
+     * Advance the wheel and hand due deadlines to the handler pool
+     */
+    void fireDue() {
+        try {
+            for (Deadline deadline : wheel.advance()) {
+                handlers.execute(() -> handle(deadline));
+            }
+        } catch (Exception e) {
+            log.error("❌ Error advancing exchange deadline wheel", e);
+        }
+    }
+
+    private void handle(Deadline deadline) {
+        try {
+            if (deadline.type() == DeadlineType.EXPIRE) {
+                expiryEngine.expireExchange(deadline.exchangeId());
+            } else {
+                expiryEngine.remindExchange(deadline.exchangeId());
+            }
+        } catch (Exception e) {
+            // The safety-net sweep will pick it up
+            log.error("❌ Deadline handler failed for exchange {} ({})", deadline.exchangeId(), deadline.type(), e);
+        }
+    }
+
+    private void schedule(Long exchangeId, LocalDateTime expiresAt, boolean remind) {
+        Instant expiry = expiresAt.atZone(clock.getZone()).toInstant();
+        wheel.schedule(new Deadline(exchangeId, DeadlineType.EXPIRE), expiry);
+
+        // Already inside the reminder window: the wheel fires it on the next tick
+        if (remind && expiry.isAfter(clock.instant())) {
+            Instant reminderAt = expiry.minus(expiryEngine.getReminderWindow());
+            wheel.schedule(new Deadline(exchangeId, DeadlineType.REMIND), reminderAt);
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        ticker.shutdownNow();
+        handlers.shutdown();
+    }
+}
@@ -0,0 +1,302 @@
+package com.shout.service;
+
+import com.shout.model.ShoutoutExchange;
+import com.shout.model.User;
+import com.shout.repository.ShoutoutExchangeRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Exchange Expiry Engine - the single sweeper for exchange deadlines
+ * - Pages through due PENDING exchanges in (expires_at, id) keyset order
+ * - Claims rows with FOR UPDATE SKIP LOCKED so several nodes can share the work
+ * - Commits every batch in its own short transaction
+ * Metrics: exchange.expiry.lag (seconds), exchange.expiry.run, exchange.expiry.expired,
+ * exchange.expiry.reminders, exchange.expiry.failures
+ */
+@Service
+@Slf4j
+public class ExchangeExpiryEngine {
+
+    private static final LocalDateTime KEYSET_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final ShoutoutExchangeRepository exchangeRepository;
+    private final ComplianceService complianceService;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Duration reminderWindow;
+
+    private final AtomicLong lagSeconds = new AtomicLong();
+    private final Timer runTimer;
+    private final Counter expiredCounter;
+    private final Counter reminderCounter;
+    private final Counter failureCounter;
+
+    public ExchangeExpiryEngine(ShoutoutExchangeRepository exchangeRepository,
+                                ComplianceService complianceService,
+                                OutboxService outboxService,
+                                TransactionTemplate transactionTemplate,
+                                Clock clock,
+                                MeterRegistry meterRegistry,
+                                @Value("${exchange.expiry.batch-size:100}") int batchSize,
+                                @Value("${exchange.expiry.max-batches-per-run:50}") int maxBatchesPerRun,
+                                @Value("${exchange.expiry.reminder-window:2h}") Duration reminderWindow) {
+        this.exchangeRepository = exchangeRepository;
+        this.complianceService = complianceService;
+        this.outboxService = outboxService;
+        this.transactionTemplate = transactionTemplate;
+        this.clock = clock;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.reminderWindow = reminderWindow;
+
+        Gauge.builder("exchange.expiry.lag", lagSeconds, AtomicLong::get)
+            .description("Seconds the oldest overdue PENDING exchange has been waiting to expire")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+        this.runTimer = Timer.builder("exchange.expiry.run")
+            .description("Duration of an expiry sweep")
+            .register(meterRegistry);
+        this.expiredCounter = Counter.builder("exchange.expiry.expired")
+            .description("Exchanges moved from PENDING to EXPIRED")
+            .register(meterRegistry);
+        this.reminderCounter = Counter.builder("exchange.expiry.reminders")
+            .description("Expiration reminders sent")
+            .register(meterRegistry);
+        this.failureCounter = Counter.builder("exchange.expiry.failures")
+            .description("Exchanges that failed to expire and will be retried")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Expire every due PENDING exchange, batch by batch
+     * Returns the number of exchanges expired by this node
+     */
+    public int expireDueExchanges() {
+        return runTimer.record(() -> {
+            LocalDateTime now = LocalDateTime.now(clock);
+            LocalDateTime afterExpiresAt = KEYSET_START;
+            long afterId = 0L;
+            int expired = 0;
+
+            for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                BatchResult result = expireBatch(now, afterExpiresAt, afterId);
+                expired += result.processed();
+                if (result.claimed() < batchSize) {
+                    break;
+                }
+                afterExpiresAt = result.lastExpiresAt();
+                afterId = result.lastId();
+            }
+
+            updateLag(now);
+            if (expired > 0) {
+                log.info("⏰ Expired {} exchanges", expired);
+            }
+            return expired;
+        });
+    }
+
+    /**
+     * Expire a single exchange if it is still PENDING and past its deadline
+     * Used for precise, per-exchange deadlines; a no-op if another node holds the row
+     */
+    public boolean expireExchange(Long exchangeId) {
+        Boolean expired = transactionTemplate.execute(status ->
+            exchangeRepository.claimPendingById(exchangeId)
+                .filter(exchange -> !exchange.getExpiresAt().isAfter(LocalDateTime.now(clock)))
+                .map(exchange -> {
+                    expire(exchange);
+                    return true;
+                })
+                .orElse(false));
+        if (Boolean.TRUE.equals(expired)) {
+            expiredCounter.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Send the "expires soon" reminder for a single exchange if it hasn't gone out yet
+     */
+    public boolean remindExchange(Long exchangeId) {
+        Boolean sent = transactionTemplate.execute(status ->
+            exchangeRepository.claimReminderById(exchangeId)
+                .map(exchange -> {
+                    sendReminder(exchange, LocalDateTime.now(clock));
+                    return true;
+                })
+                .orElse(false));
+        if (Boolean.TRUE.equals(sent)) {
+            reminderCounter.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * How long before expiry the reminder goes out
+     */
+    public Duration getReminderWindow() {
+        return reminderWindow;
+    }
+
+    /**
+     * Send one "expires soon" reminder per exchange entering the reminder window
+     */
+    public int sendExpirationReminders() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDateTime cutoff = now.plus(reminderWindow);
+        LocalDateTime afterExpiresAt = KEYSET_START;
+        long afterId = 0L;
+        int sent = 0;
+
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            final LocalDateTime cursorExpiresAt = afterExpiresAt;
+            final long cursorId = afterId;
+
+            List<ShoutoutExchange> claimed = transactionTemplate.execute(status -> {
+                List<ShoutoutExchange> exchanges = exchangeRepository.claimReminderBatch(
+                    now, cutoff, cursorExpiresAt, cursorId, batchSize);
+                exchanges.forEach(exchange -> sendReminder(exchange, now));
+                return exchanges;
+            });
+
+            if (claimed == null || claimed.isEmpty()) {
+                break;
+            }
+            sent += claimed.size();
+            reminderCounter.increment(claimed.size());
+            if (claimed.size() < batchSize) {
+                break;
+            }
+            ShoutoutExchange last = claimed.get(claimed.size() - 1);
+            afterExpiresAt = last.getExpiresAt();
+            afterId = last.getId();
+        }
+
+        if (sent > 0) {
+            log.info("🔔 Sent expiration reminders for {} exchanges", sent);
+        }
+        return sent;
+    }
+
+    /**
+     * Claim and expire one batch in its own transaction
+     * If the batch fails, its rows are retried one by one so a single bad row can't block the rest
+     */
+    private BatchResult expireBatch(LocalDateTime now, LocalDateTime afterExpiresAt, long afterId) {
+        try {
+            BatchResult result = transactionTemplate.execute(status -> {
+                List<ShoutoutExchange> exchanges = exchangeRepository.claimExpiredBatch(
+                    now, afterExpiresAt, afterId, batchSize);
+                if (exchanges.isEmpty()) {
+                    return BatchResult.EMPTY;
+                }
+                exchanges.forEach(this::expire);
+                ShoutoutExchange last = exchanges.get(exchanges.size() - 1);
+                return new BatchResult(exchanges.size(), exchanges.size(), last.getExpiresAt(), last.getId());
+            });
+            if (result == null) {
+                return BatchResult.EMPTY;
+            }
+            expiredCounter.increment(result.processed());
+            return result;
+        } catch (Exception e) {
+            log.error("❌ Expiry batch failed, retrying rows individually: {}", e.getMessage());
+            return retryIndividually(now, afterExpiresAt, afterId);
+        }
+    }
+
+    /**
+     * Fallback path for a failed batch: expire each due row in its own transaction
+     */
+    private BatchResult retryIndividually(LocalDateTime now, LocalDateTime afterExpiresAt, long afterId) {
+        List<ShoutoutExchange> candidates = transactionTemplate.execute(status ->
+            exchangeRepository.claimExpiredBatch(now, afterExpiresAt, afterId, batchSize));
+        if (candidates == null || candidates.isEmpty()) {
+            return BatchResult.EMPTY;
+        }
+
+        int processed = 0;
+        for (ShoutoutExchange candidate : candidates) {
+            try {
+                if (expireExchange(candidate.getId())) {
+                    processed++;
+                }
+            } catch (Exception e) {
+                failureCounter.increment();
+                log.error("❌ Failed to expire exchange {}", candidate.getId(), e);
+            }
+        }
+        ShoutoutExchange last = candidates.get(candidates.size() - 1);
+        return new BatchResult(candidates.size(), processed, last.getExpiresAt(), last.getId());
+    }
+
+    /**
+     * PENDING -> EXPIRED and strike whoever didn't post
+     */
+    private void expire(ShoutoutExchange exchange) {
+        exchange.setStatus(ShoutoutExchange.ExchangeStatus.EXPIRED);
+        exchangeRepository.save(exchange);
+        complianceService.checkFailedPostings(exchange);
+        log.debug("Exchange {} marked as EXPIRED", exchange.getId());
+    }
+
+    /**
+     * Notify whichever side hasn't posted yet
+     */
+    private void sendReminder(ShoutoutExchange exchange, LocalDateTime now) {
+        long hoursRemaining = ChronoUnit.HOURS.between(now, exchange.getExpiresAt());
+
+        if (!Boolean.TRUE.equals(exchange.getRequesterPosted())) {
+            notifyExpiringSoon(exchange, exchange.getRequester(), exchange.getAcceptor(), hoursRemaining);
+        }
+        if (!Boolean.TRUE.equals(exchange.getAcceptorPosted())) {
+            notifyExpiringSoon(exchange, exchange.getAcceptor(), exchange.getRequester(), hoursRemaining);
+        }
+
+        exchange.setReminderSentAt(now);
+        exchangeRepository.save(exchange);
+    }
+
+    /**
+     * Queued in the batch's transaction, so a rolled-back batch sends no reminder
+     */
+    private void notifyExpiringSoon(ShoutoutExchange exchange, User recipient, User partner, long hoursRemaining) {
+        String message = String.format(
+            "Your exchange with %s expires in %d hours. Please post now!",
+            partner.getUsername(),
+            hoursRemaining
+        );
+        outboxService.enqueueInApp("EXCHANGE_EXPIRING_SOON", recipient, "Exchange Expiring Soon", message,
+            "/shoutouts/" + exchange.getId());
+    }
+
+    private void updateLag(LocalDateTime now) {
+        LocalDateTime oldest = exchangeRepository.findOldestOverdueExpiry(now);
+        lagSeconds.set(oldest == null ? 0 : Duration.between(oldest, now).getSeconds());
+    }
+
+    private record BatchResult(int claimed, int processed, LocalDateTime lastExpiresAt, long lastId) {
+        static final BatchResult EMPTY = new BatchResult(0, 0, KEYSET_START, 0L);
+    }
+}
@@ -1,7 +1,7 @@
 package com.shout.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.shout.dto.AuthResponse;
 import com.shout.model.User;
 import com.shout.repository.UserRepository;
@@ -12,8 +12,11 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.time.LocalDateTime;
+import java.util.Optional;
 
 /**
  * Instagram OAuth Authentication Service (REAL)
@@ -25,7 +28,6 @@ import java.time.LocalDateTime;
 public class InstagramAuthService {
 
     private final WebClient webClient;
-    private final ObjectMapper objectMapper;
     private final UserRepository userRepository;
     private final JwtTokenProvider jwtTokenProvider;
     private final InstagramGraphService instagramGraphService;
@@ -41,108 +43,116 @@ public class InstagramAuthService {
 
     /**
      * Handle Instagram OAuth callback
-     * Exchange authorization code for access token and create/update user
+     * Blocking facade over handleCallbackAsync for legacy callers
      */
-    @Transactional
     public AuthResponse handleCallback(String code, String state) {
-        try {
-            log.info("🔐 Processing Instagram OAuth callback...");
+        return handleCallbackAsync(code, state).block();
+    }
 
-            // Step 1: Exchange code for access token
-            String shortLivedToken = exchangeCodeForToken(code);
-            log.info("✅ Obtained short-lived access token");
+    /**
+     * Handle Instagram OAuth callback without holding a request thread
+     * Exchange authorization code for access token and create/update user.
+     * The basic and business profile are fetched concurrently; only the user upsert runs on a worker thread.
+     */
+    public Mono<AuthResponse> handleCallbackAsync(String code, String state) {
+        log.info("🔐 Processing Instagram OAuth callback...");
 
+        // Step 1: Exchange code for access token
+        return exchangeCodeForTokenAsync(code)
             // Step 2: Exchange for long-lived token (60 days)
-            String longLivedToken = instagramGraphService.exchangeForLongLivedToken(shortLivedToken, clientSecret);
-            log.info("✅ Exchanged for long-lived token");
-
-            // Step 3: Fetch user profile from Instagram
-            InstagramGraphService.InstagramProfile igProfile = instagramGraphService.fetchUserProfile(longLivedToken);
-            log.info("✅ Fetched Instagram profile: {}", igProfile.getUsername());
-
-            // Step 4: Try to fetch business profile (may fail if not business account)
-            try {
-                InstagramGraphService.InstagramProfile businessProfile = instagramGraphService.fetchBusinessProfile(longLivedToken);
-                igProfile = businessProfile; // Use business profile if available
-                log.info("✅ Fetched business profile with {} followers", igProfile.getFollowerCount());
-            } catch (Exception e) {
-                log.info("ℹ️ Not a business account, using basic profile");
-            }
-
-            // Step 5: Create or update user in database
-            User user = createOrUpdateUser(igProfile, longLivedToken);
-            log.info("✅ User created/updated: {}", user.getUsername());
-
-            // Step 6: Generate JWT token
-            String jwtToken = jwtTokenProvider.generateToken(user.getId());
-
-            // Step 7: Build response
-            AuthResponse response = new AuthResponse();
-            response.setSuccess(true);
-            response.setMessage("Authentication successful");
-            response.setToken(jwtToken);
-
-            AuthResponse.UserInfoResponse userInfo = new AuthResponse.UserInfoResponse();
-            userInfo.setUserId(user.getId().toString());
-            userInfo.setUsername(user.getUsername());
-            userInfo.setEmail(user.getEmail());
-            userInfo.setProfilePicture(user.getProfilePicture());
-            userInfo.setFollowerCount(Long.valueOf(user.getFollowerCount()));
-            userInfo.setBio(user.getBio());
-            userInfo.setInstagramId(user.getInstagramId());
-
-            response.setUser(userInfo);
+            .flatMap(shortLivedToken -> instagramGraphService.exchangeForLongLivedTokenAsync(shortLivedToken, clientSecret))
+            .flatMap(longLivedToken -> fetchProfile(longLivedToken)
+                // Step 5: Create or update user in database
+                .flatMap(igProfile -> Mono.fromCallable(() -> createOrUpdateUser(igProfile, longLivedToken))
+                    .subscribeOn(Schedulers.boundedElastic())))
+            .map(user -> {
+                log.info("✅ User created/updated: {}", user.getUsername());
+
+                // Step 6: Generate JWT token
+                String jwtToken = jwtTokenProvider.generateToken(user.getId());
+                log.info("🎉 Authentication complete for user: {}", user.getUsername());
+                return buildAuthResponse(user, jwtToken);
+            })
+            .onErrorResume(e -> {
+                log.error("❌ Instagram authentication failed", e);
+                AuthResponse errorResponse = new AuthResponse();
+                errorResponse.setSuccess(false);
+                errorResponse.setMessage("Authentication failed: " + e.getMessage());
+                return Mono.just(errorResponse);
+            });
+    }
 
-            log.info("🎉 Authentication complete for user: {}", user.getUsername());
-            return response;
+    /**
+     * Steps 3 and 4: fetch the basic and business profile concurrently
+     * The business profile wins when available (it fails for non-business accounts)
+     */
+    private Mono<InstagramGraphService.InstagramProfile> fetchProfile(String longLivedToken) {
+        Mono<Optional<InstagramGraphService.InstagramProfile>> businessProfile =
+            instagramGraphService.fetchBusinessProfileAsync(longLivedToken)
+                .map(Optional::of)
+                .onErrorResume(e -> {
+                    log.info("ℹ️ Not a business account, using basic profile");
+                    return Mono.just(Optional.empty());
+                });
+
+        return Mono.zip(instagramGraphService.fetchUserProfileAsync(longLivedToken), businessProfile)
+            .map(profiles -> {
+                log.info("✅ Fetched Instagram profile: {}", profiles.getT1().getUsername());
+                return profiles.getT2().orElse(profiles.getT1());
+            });
+    }
 
-        } catch (Exception e) {
-            log.error("❌ Instagram authentication failed", e);
-            AuthResponse errorResponse = new AuthResponse();
-            errorResponse.setSuccess(false);
-            errorResponse.setMessage("Authentication failed: " + e.getMessage());
-            return errorResponse;
-        }
+    private AuthResponse buildAuthResponse(User user, String jwtToken) {
+        AuthResponse response = new AuthResponse();
+        response.setSuccess(true);
+        response.setMessage("Authentication successful");
+        response.setToken(jwtToken);
+
+        AuthResponse.UserInfoResponse userInfo = new AuthResponse.UserInfoResponse();
+        userInfo.setUserId(user.getId().toString());
+        userInfo.setUsername(user.getUsername());
+        userInfo.setEmail(user.getEmail());
+        userInfo.setProfilePicture(user.getProfilePicture());
+        userInfo.setFollowerCount(Long.valueOf(user.getFollowerCount()));
+        userInfo.setBio(user.getBio());
+        userInfo.setInstagramId(user.getInstagramId());
+
+        response.setUser(userInfo);
+        return response;
     }
 
     /**
      * Exchange authorization code for short-lived access token
      */
-    private String exchangeCodeForToken(String code) {
-        try {
-            String url = "https://api.instagram.com/oauth/access_token";
-
-            String formData = String.format(
-                "client_id=%s&client_secret=%s&grant_type=authorization_code&redirect_uri=%s&code=%s",
-                clientId, clientSecret, redirectUri, code
-            );
-
-            String response = webClient.post()
-                    .uri(url)
-                    .header("Content-Type", "application/x-www-form-urlencoded")
-                    .bodyValue(formData)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
-
-            if (response == null) {
-                throw new RuntimeException("No response from Instagram token exchange");
-            }
-
-            JsonNode rootNode = objectMapper.readTree(response);
-            
-            if (rootNode.has("error_message")) {
-                throw new RuntimeException("Instagram API error: " + rootNode.get("error_message").asText());
-            }
-
-            return rootNode.get("access_token").asText();
-
-        } catch (Exception e) {
-            log.error("Failed to exchange code for token", e);
-            throw new RuntimeException("Token exchange failed: " + e.getMessage());
-        }
+    private Mono<String> exchangeCodeForTokenAsync(String code) {
+        String url = "https://api.instagram.com/oauth/access_token";
+
+        String formData = String.format(
+            "client_id=%s&client_secret=%s&grant_type=authorization_code&redirect_uri=%s&code=%s",
+            clientId, clientSecret, redirectUri, code
+        );
+
+        return webClient.post()
+                .uri(url)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .bodyValue(formData)
+                .retrieve()
+                .bodyToMono(OAuthTokenPayload.class)
+                .switchIfEmpty(Mono.error(new RuntimeException("No response from Instagram token exchange")))
+                .flatMap(payload -> {
+                    if (payload.errorMessage() != null) {
+                        return Mono.error(new RuntimeException("Instagram API error: " + payload.errorMessage()));
+                    }
+                    log.info("✅ Obtained short-lived access token");
+                    return Mono.just(payload.accessToken());
+                })
+                .onErrorMap(e -> new RuntimeException("Token exchange failed: " + e.getMessage(), e));
     }
 
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record OAuthTokenPayload(@JsonProperty("access_token") String accessToken,
+                             @JsonProperty("error_message") String errorMessage) { }
+
     /**
      * Create or update user in database with Instagram data
      */
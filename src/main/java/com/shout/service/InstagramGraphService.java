@@ -1,12 +1,13 @@
 package com.shout.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
 
 import java.util.ArrayList;
@@ -15,6 +16,8 @@ import java.util.List;
 /**
  * Instagram Graph API Service
  * Handles all Instagram API interactions - profile fetch, media retrieval, post verification
+ * The *Async methods never block: responses are decoded straight into typed payloads by the
+ * WebClient's Jackson decoder. The blocking methods are thin facades kept for legacy callers.
  */
 @Service
 @RequiredArgsConstructor
@@ -22,7 +25,6 @@ import java.util.List;
 public class InstagramGraphService {
 
     private final WebClient webClient;
-    private final ObjectMapper objectMapper;
 
     @Value("${instagram.graph-api-url:https://graph.instagram.com}")
     private String graphApiUrl;
@@ -37,27 +39,7 @@ public class InstagramGraphService {
      */
     public InstagramProfile fetchUserProfile(String accessToken) {
         try {
-            String url = String.format("%s/%s/me?fields=id,username,account_type,media_count&access_token=%s",
-                    graphApiUrl, apiVersion, accessToken);
-
-            String response = webClient.get()
-                    .uri(url)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
-
-            if (response == null) {
-                throw new RuntimeException("Failed to fetch Instagram profile - null response");
-            }
-
-            JsonNode rootNode = objectMapper.readTree(response);
-            
-            InstagramProfile profile = new InstagramProfile();
-            profile.setInstagramId(rootNode.get("id").asText());
-            profile.setUsername(rootNode.get("username").asText());
-            profile.setAccountType(rootNode.has("account_type") ? rootNode.get("account_type").asText() : "PERSONAL");
-            profile.setMediaCount(rootNode.has("media_count") ? rootNode.get("media_count").asInt() : 0);
-
+            InstagramProfile profile = fetchUserProfileAsync(accessToken).block();
             log.info("✅ Fetched Instagram profile: {}", profile.getUsername());
             return profile;
 
@@ -67,38 +49,32 @@ public class InstagramGraphService {
         }
     }
 
+    /**
+     * Fetch Instagram user profile without blocking
+     */
+    public Mono<InstagramProfile> fetchUserProfileAsync(String accessToken) {
+        String url = String.format("%s/%s/me?fields=id,username,account_type,media_count&access_token=%s",
+                graphApiUrl, apiVersion, accessToken);
+
+        return webClient.get()
+                .uri(url)
+                .retrieve()
+                .bodyToMono(ProfilePayload.class)
+                .switchIfEmpty(Mono.error(new RuntimeException("Failed to fetch Instagram profile - null response")))
+                .map(payload -> {
+                    InstagramProfile profile = payload.toProfile();
+                    profile.setAccountType(payload.accountType() != null ? payload.accountType() : "PERSONAL");
+                    return profile;
+                });
+    }
+
     /**
      * Fetch Instagram Business Account profile (with follower count)
      * Requires Instagram Business account linked to Facebook Page
      */
     public InstagramProfile fetchBusinessProfile(String accessToken) {
         try {
-            String url = String.format("%s/%s/me?fields=id,username,name,biography,followers_count,follows_count,media_count,profile_picture_url&access_token=%s",
-                    graphApiUrl, apiVersion, accessToken);
-
-            String response = webClient.get()
-                    .uri(url)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
-
-            if (response == null) {
-                throw new RuntimeException("Failed to fetch business profile");
-            }
-
-            JsonNode rootNode = objectMapper.readTree(response);
-            
-            InstagramProfile profile = new InstagramProfile();
-            profile.setInstagramId(rootNode.get("id").asText());
-            profile.setUsername(rootNode.get("username").asText());
-            profile.setName(rootNode.has("name") ? rootNode.get("name").asText() : rootNode.get("username").asText());
-            profile.setBio(rootNode.has("biography") ? rootNode.get("biography").asText() : "");
-            profile.setFollowerCount(rootNode.has("followers_count") ? rootNode.get("followers_count").asInt() : 0);
-            profile.setFollowingCount(rootNode.has("follows_count") ? rootNode.get("follows_count").asInt() : 0);
-            profile.setMediaCount(rootNode.has("media_count") ? rootNode.get("media_count").asInt() : 0);
-            profile.setProfilePictureUrl(rootNode.has("profile_picture_url") ? rootNode.get("profile_picture_url").asText() : "");
-            profile.setAccountType("BUSINESS");
-
+            InstagramProfile profile = fetchBusinessProfileAsync(accessToken).block();
             log.info("✅ Fetched business profile: {} ({} followers)", profile.getUsername(), profile.getFollowerCount());
             return profile;
 
@@ -108,6 +84,30 @@ public class InstagramGraphService {
         }
     }
 
+    /**
+     * Fetch Instagram Business Account profile without blocking
+     */
+    public Mono<InstagramProfile> fetchBusinessProfileAsync(String accessToken) {
+        String url = String.format("%s/%s/me?fields=id,username,name,biography,followers_count,follows_count,media_count,profile_picture_url&access_token=%s",
+                graphApiUrl, apiVersion, accessToken);
+
+        return webClient.get()
+                .uri(url)
+                .retrieve()
+                .bodyToMono(ProfilePayload.class)
+                .switchIfEmpty(Mono.error(new RuntimeException("Failed to fetch business profile")))
+                .map(payload -> {
+                    InstagramProfile profile = payload.toProfile();
+                    profile.setName(payload.name() != null ? payload.name() : payload.username());
+                    profile.setBio(payload.biography() != null ? payload.biography() : "");
+                    profile.setFollowerCount(payload.followersCount() != null ? payload.followersCount() : 0);
+                    profile.setFollowingCount(payload.followsCount() != null ? payload.followsCount() : 0);
+                    profile.setProfilePictureUrl(payload.profilePictureUrl() != null ? payload.profilePictureUrl() : "");
+                    profile.setAccountType("BUSINESS");
+                    return profile;
+                });
+    }
+
     /**
      * Fetch user's recent media items
      * @param accessToken Instagram access token
@@ -116,41 +116,9 @@ public class InstagramGraphService {
      */
     public List<InstagramMedia> fetchUserMedia(String accessToken, int limit) {
         try {
-            String url = String.format("%s/%s/me/media?fields=id,caption,media_type,media_url,thumbnail_url,permalink,timestamp&limit=%d&access_token=%s",
-                    graphApiUrl, apiVersion, limit, accessToken);
-
-            String response = webClient.get()
-                    .uri(url)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
-
-            if (response == null) {
-                log.warn("No media response from Instagram API");
-                return new ArrayList<>();
-            }
-
-            JsonNode rootNode = objectMapper.readTree(response);
-            JsonNode dataArray = rootNode.get("data");
-
-            List<InstagramMedia> mediaList = new ArrayList<>();
-            if (dataArray != null && dataArray.isArray()) {
-                for (JsonNode item : dataArray) {
-                    InstagramMedia media = new InstagramMedia();
-                    media.setMediaId(item.get("id").asText());
-                    media.setMediaType(item.has("media_type") ? item.get("media_type").asText() : "IMAGE");
-                    media.setMediaUrl(item.has("media_url") ? item.get("media_url").asText() : "");
-                    media.setThumbnailUrl(item.has("thumbnail_url") ? item.get("thumbnail_url").asText() : "");
-                    media.setCaption(item.has("caption") ? item.get("caption").asText() : "");
-                    media.setPermalink(item.has("permalink") ? item.get("permalink").asText() : "");
-                    media.setTimestamp(item.has("timestamp") ? item.get("timestamp").asText() : "");
-                    
-                    mediaList.add(media);
-                }
-            }
-
-            log.info("✅ Fetched {} media items from Instagram", mediaList.size());
-            return mediaList;
+            List<InstagramMedia> mediaList = fetchUserMediaAsync(accessToken, limit).block();
+            log.info("✅ Fetched {} media items from Instagram", mediaList != null ? mediaList.size() : 0);
+            return mediaList != null ? mediaList : new ArrayList<>();
 
         } catch (Exception e) {
             log.error("❌ Error fetching Instagram media", e);
@@ -158,32 +126,53 @@ public class InstagramGraphService {
         }
     }
 
+    /**
+     * Fetch user's recent media items without blocking
+     * Errors are propagated so callers can decide how to degrade
+     */
+    public Mono<List<InstagramMedia>> fetchUserMediaAsync(String accessToken, int limit) {
+        String url = String.format("%s/%s/me/media?fields=id,caption,media_type,media_url,thumbnail_url,permalink,timestamp&limit=%d&access_token=%s",
+                graphApiUrl, apiVersion, limit, accessToken);
+
+        return webClient.get()
+                .uri(url)
+                .retrieve()
+                .bodyToMono(MediaPage.class)
+                .map(MediaPage::toMediaList)
+                .defaultIfEmpty(new ArrayList<>());
+    }
+
     /**
      * Verify if a post exists and is still live
+     * Same contract as verifyPostExistsAsync: API errors other than 400/404 are thrown, not reported as false
      * @param mediaId Instagram media ID
      * @param accessToken User's access token
      * @return true if post exists and is accessible
      */
     public boolean verifyPostExists(String mediaId, String accessToken) {
-        try {
-            String url = String.format("%s/%s/%s?fields=id&access_token=%s",
-                    graphApiUrl, apiVersion, mediaId, accessToken);
-
-            String response = webClient.get()
-                    .uri(url)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .onErrorResume(e -> Mono.empty())
-                    .block();
-
-            boolean exists = response != null && response.contains("\"id\"");
-            log.debug("Post verification for {}: {}", mediaId, exists);
-            return exists;
+        boolean exists = Boolean.TRUE.equals(verifyPostExistsAsync(mediaId, accessToken).block());
+        log.debug("Post verification for {}: {}", mediaId, exists);
+        return exists;
+    }
 
-        } catch (Exception e) {
-            log.warn("Post verification failed for {}: {}", mediaId, e.getMessage());
-            return false;
-        }
+    /**
+     * Verify if a post exists without blocking
+     * "No such media" (400/404) is false; other errors (rate limit, auth, 5xx, timeouts) propagate,
+     * so callers never mistake an API outage for a removed post.
+     * Recent media and post checks go through InstagramMediaSnapshotCache, not these methods directly.
+     */
+    public Mono<Boolean> verifyPostExistsAsync(String mediaId, String accessToken) {
+        String url = String.format("%s/%s/%s?fields=id&access_token=%s",
+                graphApiUrl, apiVersion, mediaId, accessToken);
+
+        return webClient.get()
+                .uri(url)
+                .retrieve()
+                .bodyToMono(IdPayload.class)
+                .map(payload -> payload.id() != null)
+                .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.just(false))
+                .onErrorResume(WebClientResponseException.BadRequest.class, e -> Mono.just(false))
+                .defaultIfEmpty(false);
     }
 
     /**
@@ -192,22 +181,7 @@ public class InstagramGraphService {
      */
     public String exchangeForLongLivedToken(String shortLivedToken, String clientSecret) {
         try {
-            String url = String.format("%s/access_token?grant_type=ig_exchange_token&client_secret=%s&access_token=%s",
-                    graphApiUrl, clientSecret, shortLivedToken);
-
-            String response = webClient.get()
-                    .uri(url)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
-
-            if (response == null) {
-                throw new RuntimeException("Failed to exchange token");
-            }
-
-            JsonNode rootNode = objectMapper.readTree(response);
-            String longLivedToken = rootNode.get("access_token").asText();
-
+            String longLivedToken = exchangeForLongLivedTokenAsync(shortLivedToken, clientSecret).block();
             log.info("✅ Exchanged for long-lived token");
             return longLivedToken;
 
@@ -217,27 +191,22 @@ public class InstagramGraphService {
         }
     }
 
+    /**
+     * Exchange short-lived token for long-lived token without blocking
+     */
+    public Mono<String> exchangeForLongLivedTokenAsync(String shortLivedToken, String clientSecret) {
+        String url = String.format("%s/access_token?grant_type=ig_exchange_token&client_secret=%s&access_token=%s",
+                graphApiUrl, clientSecret, shortLivedToken);
+
+        return fetchAccessToken(url, "Failed to exchange token");
+    }
+
     /**
      * Refresh long-lived token (extends for another 60 days)
      */
     public String refreshLongLivedToken(String longLivedToken) {
         try {
-            String url = String.format("%s/refresh_access_token?grant_type=ig_refresh_token&access_token=%s",
-                    graphApiUrl, longLivedToken);
-
-            String response = webClient.get()
-                    .uri(url)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
-
-            if (response == null) {
-                throw new RuntimeException("Failed to refresh token");
-            }
-
-            JsonNode rootNode = objectMapper.readTree(response);
-            String newToken = rootNode.get("access_token").asText();
-
+            String newToken = refreshLongLivedTokenAsync(longLivedToken).block();
             log.info("✅ Refreshed long-lived token");
             return newToken;
 
@@ -247,6 +216,93 @@ public class InstagramGraphService {
         }
     }
 
+    /**
+     * Refresh long-lived token without blocking
+     */
+    public Mono<String> refreshLongLivedTokenAsync(String longLivedToken) {
+        String url = String.format("%s/refresh_access_token?grant_type=ig_refresh_token&access_token=%s",
+                graphApiUrl, longLivedToken);
+
+        return fetchAccessToken(url, "Failed to refresh token");
+    }
+
+    private Mono<String> fetchAccessToken(String url, String failureMessage) {
+        return webClient.get()
+                .uri(url)
+                .retrieve()
+                .bodyToMono(TokenPayload.class)
+                .filter(payload -> payload.accessToken() != null)
+                .map(TokenPayload::accessToken)
+                .switchIfEmpty(Mono.error(new RuntimeException(failureMessage)));
+    }
+
+    // Graph API payloads - decoded directly from the response stream
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record ProfilePayload(String id,
+                          String username,
+                          String name,
+                          String biography,
+                          @JsonProperty("account_type") String accountType,
+                          @JsonProperty("followers_count") Integer followersCount,
+                          @JsonProperty("follows_count") Integer followsCount,
+                          @JsonProperty("media_count") Integer mediaCount,
+                          @JsonProperty("profile_picture_url") String profilePictureUrl) {
+
+        InstagramProfile toProfile() {
+            if (id == null || username == null) {
+                throw new IllegalStateException("Instagram profile response is missing id/username");
+            }
+            InstagramProfile profile = new InstagramProfile();
+            profile.setInstagramId(id);
+            profile.setUsername(username);
+            profile.setMediaCount(mediaCount != null ? mediaCount : 0);
+            return profile;
+        }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record MediaPage(List<MediaPayload> data) {
+
+        List<InstagramMedia> toMediaList() {
+            List<InstagramMedia> mediaList = new ArrayList<>();
+            if (data != null) {
+                for (MediaPayload item : data) {
+                    mediaList.add(item.toMedia());
+                }
+            }
+            return mediaList;
+        }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record MediaPayload(String id,
+                        String caption,
+                        @JsonProperty("media_type") String mediaType,
+                        @JsonProperty("media_url") String mediaUrl,
+                        @JsonProperty("thumbnail_url") String thumbnailUrl,
+                        String permalink,
+                        String timestamp) {
+
+        InstagramMedia toMedia() {
+            InstagramMedia media = new InstagramMedia();
+            media.setMediaId(id);
+            media.setMediaType(mediaType != null ? mediaType : "IMAGE");
+            media.setMediaUrl(mediaUrl != null ? mediaUrl : "");
+            media.setThumbnailUrl(thumbnailUrl != null ? thumbnailUrl : "");
+            media.setCaption(caption != null ? caption : "");
+            media.setPermalink(permalink != null ? permalink : "");
+            media.setTimestamp(timestamp != null ? timestamp : "");
+            return media;
+        }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record IdPayload(String id) { }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record TokenPayload(@JsonProperty("access_token") String accessToken) { }
+
     // DTO Classes
     public static class InstagramProfile {
         private String instagramId;
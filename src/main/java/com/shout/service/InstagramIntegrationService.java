@@ -13,6 +13,8 @@ import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.Serializable;
+
 @Service
 @Slf4j
 @RequiredArgsConstructor
@@ -82,7 +84,9 @@ public class InstagramIntegrationService {
     @Data
     @NoArgsConstructor
     @AllArgsConstructor(staticName = "of")
-    public static class InstagramProfile {
+    public static class InstagramProfile implements Serializable {
+        private static final long serialVersionUID = 1L;
+
         private String id;
         private String username;
         private String fullName;
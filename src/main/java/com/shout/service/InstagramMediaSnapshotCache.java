@@ -0,0 +1,197 @@
+package com.shout.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.shout.model.User;
+import com.shout.util.RateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Instagram Media Snapshot Cache - short-lived per-user copy of their recent media
+ * Keyed by Instagram user id. Concurrent misses for the same user share one in-flight Graph API call,
+ * failed fetches are not cached. Only real fetches count against the user's RateLimiter budget.
+ * Verification, removal checks and post lookups all read from here - blocking callers included, so
+ * nothing talks to the Graph API's media endpoints around the cache.
+ * Removal is never inferred from a snapshot miss (the post may be newer than the snapshot or linked in
+ * another URL form): a miss triggers a fresh fetch, and only a by-id lookup of a media id seen in an
+ * earlier snapshot can report a post as removed.
+ */
+@Service
+@Slf4j
+public class InstagramMediaSnapshotCache {
+
+    private final InstagramGraphService graphService;
+    private final RateLimiter rateLimiter;
+    private final AsyncCache<String, List<InstagramGraphService.InstagramMedia>> snapshots;
+    private final Cache<String, String> knownMediaIds;
+    private final int mediaLimit;
+
+    // Path segments that precede a post's shortcode in its permalink
+    private static final Set<String> SHORTCODE_PREFIXES = Set.of("p", "reel", "reels", "tv");
+
+    /**
+     * Outcome of a post removal check - only REMOVED may lead to a strike
+     */
+    public enum PostStatus {
+        ACTIVE, REMOVED, UNKNOWN
+    }
+
+    public InstagramMediaSnapshotCache(InstagramGraphService graphService,
+                                       RateLimiter rateLimiter,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${instagram.media-snapshot.ttl:5m}") Duration ttl,
+                                       @Value("${instagram.media-snapshot.max-size:10000}") long maxSize,
+                                       @Value("${instagram.media-snapshot.media-limit:25}") int mediaLimit,
+                                       @Value("${instagram.media-snapshot.known-media-ttl:14d}") Duration knownMediaTtl) {
+        this.graphService = graphService;
+        this.rateLimiter = rateLimiter;
+        this.mediaLimit = mediaLimit;
+        this.snapshots = Caffeine.newBuilder()
+            .expireAfterWrite(ttl)
+            .maximumSize(maxSize)
+            .recordStats()
+            .buildAsync();
+        this.knownMediaIds = Caffeine.newBuilder()
+            .expireAfterWrite(knownMediaTtl)
+            .maximumSize(maxSize * Math.max(mediaLimit, 1))
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, snapshots.synchronous(), "instagramMediaSnapshots");
+        log.info("Instagram media snapshot cache configured (ttl: {}, media limit: {})", ttl, mediaLimit);
+    }
+
+    /**
+     * Recent media of an Instagram user, fetched at most once per TTL
+     */
+    public Mono<List<InstagramGraphService.InstagramMedia>> getRecentMedia(String instagramUserId, String accessToken) {
+        return Mono.fromFuture(() -> snapshots.get(instagramUserId, (key, executor) -> {
+            if (!rateLimiter.allowRequest(key)) {
+                return CompletableFuture.failedFuture(new RateLimitedException(key));
+            }
+            return graphService.fetchUserMediaAsync(accessToken, mediaLimit)
+                .doOnNext(this::rememberMediaIds)
+                .toFuture();
+        }));
+    }
+
+    /**
+     * Blocking variant for non-reactive callers
+     */
+    public List<InstagramGraphService.InstagramMedia> getRecentMedia(User user) {
+        List<InstagramGraphService.InstagramMedia> media =
+            getRecentMedia(snapshotKey(user), user.getInstagramAccessToken()).block();
+        return media != null ? media : List.of();
+    }
+
+    /**
+     * Whether a media item still exists - answered from the snapshot when possible, otherwise by id
+     * Graph API errors other than "no such media" propagate, so callers can tell "gone" from "unknown"
+     */
+    public boolean verifyPostExists(User user, String mediaId) {
+        boolean inSnapshot = getRecentMedia(user).stream()
+            .anyMatch(media -> Objects.equals(media.getMediaId(), mediaId));
+        return inSnapshot
+            || Boolean.TRUE.equals(graphService.verifyPostExistsAsync(mediaId, user.getInstagramAccessToken()).block());
+    }
+
+    /**
+     * Whether a post (by permalink) is still live
+     * A miss in the cached snapshot is re-checked against a fresh fetch; a miss there only counts as
+     * REMOVED if the post's media id is known and the Graph API confirms it no longer exists.
+     */
+    public PostStatus checkPost(User user, String postUrl) {
+        String shortcode = shortcode(postUrl);
+        if (shortcode == null) {
+            return PostStatus.UNKNOWN;
+        }
+        try {
+            if (containsPost(getRecentMedia(user), shortcode)) {
+                return PostStatus.ACTIVE;
+            }
+            invalidate(user);
+            if (containsPost(getRecentMedia(user), shortcode)) {
+                return PostStatus.ACTIVE;
+            }
+
+            String mediaId = knownMediaIds.getIfPresent(shortcode);
+            if (mediaId == null) {
+                log.debug("Post {} of user {} not in recent media and its id is unknown", shortcode, user.getId());
+                return PostStatus.UNKNOWN;
+            }
+            return verifyPostExists(user, mediaId) ? PostStatus.ACTIVE : PostStatus.REMOVED;
+        } catch (Exception e) {
+            // Never strike a user because the Graph API was unavailable
+            log.warn("Could not check post for user {}: {}", user.getId(), e.getMessage());
+            return PostStatus.UNKNOWN;
+        }
+    }
+
+    /**
+     * Drop a user's snapshot (e.g. after they report a new post)
+     */
+    public void invalidate(User user) {
+        snapshots.synchronous().invalidate(snapshotKey(user));
+    }
+
+    private void rememberMediaIds(List<InstagramGraphService.InstagramMedia> media) {
+        for (InstagramGraphService.InstagramMedia item : media) {
+            String shortcode = shortcode(item.getPermalink());
+            if (shortcode != null && item.getMediaId() != null) {
+                knownMediaIds.put(shortcode, item.getMediaId());
+            }
+        }
+    }
+
+    private static boolean containsPost(List<InstagramGraphService.InstagramMedia> media, String shortcode) {
+        return media.stream().anyMatch(item -> shortcode.equals(shortcode(item.getPermalink())));
+    }
+
+    /**
+     * Shortcode of a post permalink, ignoring host, query string, trailing slash and /p/ vs /reel/ form
+     */
+    static String shortcode(String url) {
+        if (url == null || url.isBlank()) {
+            return null;
+        }
+        try {
+            String path = URI.create(url.trim()).getPath();
+            if (path == null) {
+                return null;
+            }
+            String[] segments = path.split("/");
+            for (int i = 0; i < segments.length - 1; i++) {
+                if (SHORTCODE_PREFIXES.contains(segments[i].toLowerCase()) && !segments[i + 1].isEmpty()) {
+                    return segments[i + 1];
+                }
+            }
+            return null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String snapshotKey(User user) {
+        return user.getInstagramId() != null ? user.getInstagramId() : String.valueOf(user.getId());
+    }
+
+    /**
+     * Raised when a snapshot would need a fetch but the user's API budget is used up
+     */
+    public static class RateLimitedException extends RuntimeException {
+        public RateLimitedException(String instagramUserId) {
+            super("Instagram API rate limit reached for " + instagramUserId);
+        }
+    }
+}
@@ -3,109 +3,239 @@ package com.shout.service;
 import com.shout.model.ShoutoutExchange;
 import com.shout.model.User;
 import com.shout.repository.ShoutoutExchangeRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
 
-import java.util.Arrays;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
 
 /**
  * Instagram Verification Service - Automated post verification
- * Runs every 5 minutes to check if users posted their exchanges
+ * Runs every 5 minutes to check if users posted their exchanges.
+ * Each cycle reads every involved user's recent media once from InstagramMediaSnapshotCache
+ * (non-blocking, bounded concurrency, within the user's RateLimiter budget) and checks all of that
+ * user's open exchanges against it.
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class InstagramVerificationService {
-   
+
+    private static final DateTimeFormatter GRAPH_TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssZ");
+
     private final ShoutoutExchangeRepository exchangeRepository;
     private final ShoutoutExchangeService exchangeService;
-   
+    private final InstagramMediaSnapshotCache mediaSnapshotCache;
+
+    private final int concurrency;
+    private final Duration cycleTimeout;
+
+    private final Timer cycleTimer;
+    private final Timer fetchTimer;
+    private final Counter usersChecked;
+    private final Counter postsVerified;
+    private final Counter rateLimited;
+    private final Counter fetchErrors;
+
+    public InstagramVerificationService(ShoutoutExchangeRepository exchangeRepository,
+                                        ShoutoutExchangeService exchangeService,
+                                        InstagramMediaSnapshotCache mediaSnapshotCache,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${instagram.verification.concurrency:8}") int concurrency,
+                                        @Value("${instagram.verification.cycle-timeout:4m}") Duration cycleTimeout) {
+        this.exchangeRepository = exchangeRepository;
+        this.exchangeService = exchangeService;
+        this.mediaSnapshotCache = mediaSnapshotCache;
+        this.concurrency = concurrency;
+        this.cycleTimeout = cycleTimeout;
+
+        this.cycleTimer = Timer.builder("instagram.verification.cycle")
+            .description("Duration of a full verification cycle")
+            .register(meterRegistry);
+        this.fetchTimer = Timer.builder("instagram.verification.fetch")
+            .description("Latency of a recent-media lookup (snapshot hit or Graph API fetch)")
+            .register(meterRegistry);
+        this.usersChecked = Counter.builder("instagram.verification.users")
+            .description("Users whose recent media was checked")
+            .register(meterRegistry);
+        this.postsVerified = Counter.builder("instagram.verification.verified")
+            .description("Exchange posts verified")
+            .register(meterRegistry);
+        this.rateLimited = Counter.builder("instagram.verification.rate_limited")
+            .description("Users skipped this cycle because their API budget is used up")
+            .register(meterRegistry);
+        this.fetchErrors = Counter.builder("instagram.verification.errors")
+            .description("Recent-media lookups that failed")
+            .register(meterRegistry);
+    }
+
+    /**
+     * One side of an exchange still waiting for its post
+     */
+    record PendingCheck(Long exchangeId, boolean requesterSide, String partnerUsername,
+                        String targetUrl, LocalDateTime since) { }
+
+    /**
+     * All open checks of one user - their media is fetched once per cycle
+     */
+    record UserChecks(Long userId, String instagramUserId, String accessToken, List<PendingCheck> checks) { }
+
+    record VerifiedPost(PendingCheck check, String postUrl) { }
+
     /**
      * Verify pending posts - runs every 5 minutes
-     * Checks last 5 minutes of Instagram stories/posts for verification URLs
+     * No transaction is held while the Graph API is called; matches are applied one exchange at a time
      */
-    @Scheduled(fixedDelay = 300000) // 5 minutes
-    @Transactional
+    @Scheduled(fixedDelayString = "${instagram.verification.interval:300000}")
     public void verifyPendingPosts() {
         try {
             log.info("Starting Instagram post verification check...");
-           
-            List<ShoutoutExchange> pending = exchangeRepository
-                .findByStatusIn(Arrays.asList(
-                    ShoutoutExchange.ExchangeStatus.PENDING,
-                    ShoutoutExchange.ExchangeStatus.ACCEPTED
-                ));
-           
-            log.info("Found {} pending exchanges to verify", pending.size());
-           
-            for (ShoutoutExchange exchange : pending) {
-                verifyExchange(exchange);
-            }
-           
+            Timer.Sample cycle = Timer.start();
+
+            List<UserChecks> users = groupByUser(exchangeRepository.findAwaitingVerification());
+
+            List<VerifiedPost> verified = Flux.fromIterable(users)
+                .flatMap(this::verifyUser, concurrency)
+                .collectList()
+                .block(cycleTimeout);
+
+            int applied = apply(verified != null ? verified : List.of());
+            long elapsedNanos = cycle.stop(cycleTimer);
+
+            log.info("Verification cycle done: {} users, {} posts verified in {} ms",
+                users.size(), applied, Duration.ofNanos(elapsedNanos).toMillis());
+
         } catch (Exception e) {
             log.error("Error during Instagram verification check", e);
         }
     }
-   
+
     /**
-     * Verify a single exchange
+     * Group the requester/acceptor side of each exchange under the user who has to post
      */
-    private void verifyExchange(ShoutoutExchange exchange) {
-        try {
-            // Check requester's post
-            if (!exchange.getRequesterPosted()) {
-                boolean requesterVerified = checkInstagramPost(
-                    exchange.getRequester(),
-                    exchange.getPostUrl()
-                );
-                if (requesterVerified) {
-                    exchangeService.markRequesterPosted(exchange, null);
-                    log.info("Requester verified for exchange {}", exchange.getId());
-                }
+    List<UserChecks> groupByUser(List<ShoutoutExchange> exchanges) {
+        Map<Long, UserChecks> byUser = new LinkedHashMap<>();
+
+        for (ShoutoutExchange exchange : exchanges) {
+            if (!Boolean.TRUE.equals(exchange.getRequesterPosted())) {
+                addCheck(byUser, exchange.getRequester(), exchange, true, exchange.getAcceptor());
+            }
+            if (!Boolean.TRUE.equals(exchange.getAcceptorPosted())) {
+                addCheck(byUser, exchange.getAcceptor(), exchange, false, exchange.getRequester());
             }
-           
-            // Check acceptor's post
-            if (!exchange.getAcceptorPosted()) {
-                boolean acceptorVerified = checkInstagramPost(
-                    exchange.getAcceptor(),
-                    exchange.getPostUrl()
-                );
-                if (acceptorVerified) {
-                    exchangeService.markAcceptorPosted(exchange, null);
-                    log.info("Acceptor verified for exchange {}", exchange.getId());
+        }
+        return new ArrayList<>(byUser.values());
+    }
+
+    private void addCheck(Map<Long, UserChecks> byUser, User poster, ShoutoutExchange exchange,
+                          boolean requesterSide, User partner) {
+        if (poster.getInstagramAccessToken() == null || poster.getInstagramAccessToken().isBlank()) {
+            return;
+        }
+        String instagramUserId = poster.getInstagramId() != null ? poster.getInstagramId() : String.valueOf(poster.getId());
+        byUser.computeIfAbsent(poster.getId(),
+                id -> new UserChecks(id, instagramUserId, poster.getInstagramAccessToken(), new ArrayList<>()))
+            .checks()
+            .add(new PendingCheck(exchange.getId(), requesterSide, partnerHandle(partner),
+                exchange.getPostUrl(), exchange.getCreatedAt()));
+    }
+
+    /**
+     * Read the user's recent media once and match every open check against it
+     */
+    private Flux<VerifiedPost> verifyUser(UserChecks user) {
+        Timer.Sample fetch = Timer.start();
+        return mediaSnapshotCache.getRecentMedia(user.instagramUserId(), user.accessToken())
+            .doOnSuccess(media -> {
+                fetch.stop(fetchTimer);
+                usersChecked.increment();
+            })
+            .flatMapIterable(media -> user.checks().stream()
+                .flatMap(check -> findMatchingPost(check, media)
+                    .map(url -> new VerifiedPost(check, url))
+                    .stream())
+                .toList())
+            .onErrorResume(InstagramMediaSnapshotCache.RateLimitedException.class, e -> {
+                rateLimited.increment();
+                log.debug("Skipping verification for user {} this cycle (rate limited)", user.userId());
+                return Flux.empty();
+            })
+            .onErrorResume(e -> {
+                fetchErrors.increment();
+                log.warn("Media fetch failed for user {}: {}", user.userId(), e.getMessage());
+                return Flux.empty();
+            });
+    }
+
+    private int apply(List<VerifiedPost> verified) {
+        int applied = 0;
+        for (VerifiedPost post : verified) {
+            try {
+                if (exchangeService.recordVerifiedPost(post.check().exchangeId(), post.check().requesterSide(), post.postUrl())) {
+                    postsVerified.increment();
+                    applied++;
+                    log.info("{} verified for exchange {}",
+                        post.check().requesterSide() ? "Requester" : "Acceptor", post.check().exchangeId());
                 }
+            } catch (Exception e) {
+                log.error("Error recording verified post for exchange {}", post.check().exchangeId(), e);
             }
-           
-        } catch (Exception e) {
-            log.error("Error verifying exchange {}", exchange.getId(), e);
         }
+        return applied;
     }
-   
+
     /**
-     * Check if user has posted to Instagram recently
-     * TODO: Implement actual Instagram API integration
-     * This is a stub implementation
+     * A media item counts as the exchange post when it was published after the exchange started and
+     * either links the exchanged post or tags the partner
      */
-    private boolean checkInstagramPost(User user, String targetUrl) {
+    static Optional<String> findMatchingPost(PendingCheck check, List<InstagramGraphService.InstagramMedia> media) {
+        for (InstagramGraphService.InstagramMedia item : media) {
+            if (!publishedAfter(item, check.since())) {
+                continue;
+            }
+            String caption = item.getCaption() != null ? item.getCaption().toLowerCase(Locale.ROOT) : "";
+            boolean tagsPartner = check.partnerUsername() != null
+                && caption.contains("@" + check.partnerUsername().toLowerCase(Locale.ROOT));
+            boolean linksTarget = check.targetUrl() != null && !check.targetUrl().isBlank()
+                && (check.targetUrl().equalsIgnoreCase(item.getPermalink())
+                    || caption.contains(check.targetUrl().toLowerCase(Locale.ROOT)));
+
+            if (tagsPartner || linksTarget) {
+                return Optional.of(item.getPermalink());
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static boolean publishedAfter(InstagramGraphService.InstagramMedia item, LocalDateTime since) {
+        if (since == null || item.getTimestamp() == null || item.getTimestamp().isBlank()) {
+            return true;
+        }
         try {
-            // STUB IMPLEMENTATION
-            // In production, this would:
-            // 1. Use user's Instagram access token
-            // 2. Call Instagram Graph API to fetch recent media
-            // 3. Check if targetUrl or matching content appears in recent posts/stories
-            // 4. Return true if found, false otherwise
-           
-            // For now, return false (verification required)
-            log.debug("Checking Instagram post for user {}", user.getUsername());
-            return false;
-           
+            LocalDateTime published = OffsetDateTime.parse(item.getTimestamp(), GRAPH_TIMESTAMP)
+                .atZoneSameInstant(ZoneId.systemDefault())
+                .toLocalDateTime();
+            return !published.isBefore(since);
         } catch (Exception e) {
-            log.error("Error checking Instagram post for user {}", user.getUsername(), e);
-            return false;
+            return true;
         }
     }
-}
\ No newline at end of file
+
+    private static String partnerHandle(User partner) {
+        return partner.getInstagramUsername() != null ? partner.getInstagramUsername() : partner.getUsername();
+    }
+}
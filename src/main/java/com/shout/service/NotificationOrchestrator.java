@@ -7,12 +7,18 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+/**
+ * Notification Orchestrator - in-app notifications and emails for exchange lifecycle events
+ * Everything goes through the transactional outbox (OutboxService), written in the caller's
+ * transaction and delivered by OutboxRelay after commit. Failures to queue propagate and roll the
+ * transaction back rather than committing the business change without its notifications.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class NotificationOrchestrator {
     private final EmailService emailService;
-    private final NotificationService notificationService;
+    private final OutboxService outboxService;
     private final UserRepository userRepository;
 
     /**
@@ -20,26 +26,23 @@ public class NotificationOrchestrator {
      */
     @Transactional
     public void notifyShoutoutRequest(ShoutoutRequest request) {
-        try {
-            // In-app notification
-            notificationService.createNotification(
-                request.getTarget(),
-                "Shoutout Request",
-                request.getRequester().getFullName() + " requested a shoutout",
-                "/shoutouts/" + request.getId()
-            );
-
-            // Email notification (async)
-            emailService.sendShoutoutRequestNotification(
-                request.getRequester(),
-                request.getTarget(),
-                request
-            );
-
-            log.info("Notifications sent for shoutout request {}", request.getId());
-        } catch (Exception e) {
-            log.error("Error sending shoutout request notifications", e);
-        }
+        // In-app notification
+        outboxService.enqueueInApp(
+            "SHOUTOUT_REQUEST",
+            request.getTarget(),
+            "Shoutout Request",
+            request.getRequester().getFullName() + " requested a shoutout",
+            "/shoutouts/" + request.getId()
+        );
+
+        // Email notification (outbox)
+        emailService.sendShoutoutRequestNotification(
+            request.getRequester(),
+            request.getTarget(),
+            request
+        );
+
+        log.info("Notifications queued for shoutout request {}", request.getId());
     }
 
     /**
@@ -47,25 +50,22 @@ public class NotificationOrchestrator {
      */
     @Transactional
     public void notifyShoutoutAccepted(ShoutoutExchange exchange) {
-        try {
-            // In-app notification to requester
-            notificationService.createNotification(
-                exchange.getRequester(),
-                "Shoutout Accepted!",
-                exchange.getAcceptor().getFullName() + " accepted your request",
-                "/shoutouts/" + exchange.getId()
-            );
-
-            // Email notification (async)
-            emailService.sendShoutoutAcceptedNotification(
-                exchange.getAcceptor(),
-                exchange
-            );
-
-            log.info("Notifications sent for shoutout acceptance {}", exchange.getId());
-        } catch (Exception e) {
-            log.error("Error sending shoutout acceptance notifications", e);
-        }
+        // In-app notification to requester
+        outboxService.enqueueInApp(
+            "SHOUTOUT_ACCEPTED",
+            exchange.getRequester(),
+            "Shoutout Accepted!",
+            exchange.getAcceptor().getFullName() + " accepted your request",
+            "/shoutouts/" + exchange.getId()
+        );
+
+        // Email notification (outbox)
+        emailService.sendShoutoutAcceptedNotification(
+            exchange.getAcceptor(),
+            exchange
+        );
+
+        log.info("Notifications queued for shoutout acceptance {}", exchange.getId());
     }
 
     /**
@@ -73,29 +73,27 @@ public class NotificationOrchestrator {
      */
     @Transactional
     public void notifyExchangeCompleted(ShoutoutExchange exchange) {
-        try {
-            // In-app notifications
-            notificationService.createNotification(
-                exchange.getRequester(),
-                "Exchange Complete!",
-                "Time to rate your exchange partner",
-                "/ratings/" + exchange.getId()
-            );
-
-            notificationService.createNotification(
-                exchange.getAcceptor(),
-                "Exchange Complete!",
-                "Time to rate your exchange partner",
-                "/ratings/" + exchange.getId()
-            );
-
-            // Email notifications (async)
-            emailService.sendExchangeCompletedNotification(exchange);
-
-            log.info("Notifications sent for exchange completion {}", exchange.getId());
-        } catch (Exception e) {
-            log.error("Error sending exchange completion notifications", e);
-        }
+        // In-app notifications
+        outboxService.enqueueInApp(
+            "EXCHANGE_COMPLETED",
+            exchange.getRequester(),
+            "Exchange Complete!",
+            "Time to rate your exchange partner",
+            "/ratings/" + exchange.getId()
+        );
+
+        outboxService.enqueueInApp(
+            "EXCHANGE_COMPLETED",
+            exchange.getAcceptor(),
+            "Exchange Complete!",
+            "Time to rate your exchange partner",
+            "/ratings/" + exchange.getId()
+        );
+
+        // Email notifications (outbox)
+        emailService.sendExchangeCompletedNotification(exchange);
+
+        log.info("Notifications queued for exchange completion {}", exchange.getId());
     }
 
     /**
@@ -103,27 +101,24 @@ public class NotificationOrchestrator {
      */
     @Transactional
     public void notifyExchangeFailed(ShoutoutExchange exchange, User violator, String reason) {
-        try {
-            // In-app notification
-            notificationService.createNotification(
-                violator,
-                "Exchange Failed - Strike Added",
-                reason + " (" + violator.getStrikeCount() + "/3 strikes)",
-                "/compliance"
-            );
-
-            // Email notification (async)
-            emailService.sendExchangeFailedNotification(exchange, violator, reason);
-
-            // If banned, send ban notification
-            if (violator.getAccountBanned()) {
-                notifyAccountBanned(violator);
-            }
-
-            log.info("Notifications sent for exchange failure");
-        } catch (Exception e) {
-            log.error("Error sending exchange failure notifications", e);
+        // In-app notification
+        outboxService.enqueueInApp(
+            "EXCHANGE_FAILED",
+            violator,
+            "Exchange Failed - Strike Added",
+            reason + " (" + violator.getStrikeCount() + "/3 strikes)",
+            "/compliance"
+        );
+
+        // Email notification (outbox)
+        emailService.sendExchangeFailedNotification(exchange, violator, reason);
+
+        // If banned, send ban notification
+        if (violator.getAccountBanned()) {
+            notifyAccountBanned(violator);
         }
+
+        log.info("Notifications queued for exchange failure");
     }
 
     /**
@@ -131,14 +126,10 @@ public class NotificationOrchestrator {
      */
     @Transactional
     public void notifyAccountBanned(User user) {
-        try {
-            // Email notification (async)
-            emailService.sendAccountBannedNotification(user);
+        // Email notification (outbox)
+        emailService.sendAccountBannedNotification(user);
 
-            log.warn("Account ban notification sent to {}", user.getUsername());
-        } catch (Exception e) {
-            log.error("Error sending account ban notification", e);
-        }
+        log.warn("Account ban notification queued for {}", user.getUsername());
     }
 
     /**
@@ -146,22 +137,19 @@ public class NotificationOrchestrator {
      */
     @Transactional
     public void notifySubscriptionUpgrade(User user, Subscription subscription) {
-        try {
-            // In-app notification
-            notificationService.createNotification(
-                user,
-                "Welcome to ShoutX Pro!",
-                "You now have access to advanced analytics",
-                "/dashboard"
-            );
-
-            // Email notification (async)
-            emailService.sendSubscriptionUpgradeEmail(user, subscription);
-
-            log.info("Subscription upgrade notifications sent to {}", user.getUsername());
-        } catch (Exception e) {
-            log.error("Error sending subscription upgrade notification", e);
-        }
+        // In-app notification
+        outboxService.enqueueInApp(
+            "SUBSCRIPTION_UPGRADE",
+            user,
+            "Welcome to ShoutX Pro!",
+            "You now have access to advanced analytics",
+            "/dashboard"
+        );
+
+        // Email notification (outbox)
+        emailService.sendSubscriptionUpgradeEmail(user, subscription);
+
+        log.info("Subscription upgrade notifications queued for {}", user.getUsername());
     }
 
     /**
@@ -169,21 +157,18 @@ public class NotificationOrchestrator {
      */
     @Transactional
     public void notifyRatingRequest(User rater, User ratee, ShoutoutExchange exchange) {
-        try {
-            // In-app notification
-            notificationService.createNotification(
-                ratee,
-                "Rate Your Exchange",
-                "Help us build a trustworthy community",
-                "/ratings/" + exchange.getId()
-            );
-
-            // Email notification (async)
-            emailService.sendRatingRequestNotification(rater, ratee, exchange);
-
-            log.info("Rating request notifications sent to {}", ratee.getUsername());
-        } catch (Exception e) {
-            log.error("Error sending rating request notification", e);
-        }
+        // In-app notification
+        outboxService.enqueueInApp(
+            "RATING_REQUEST",
+            ratee,
+            "Rate Your Exchange",
+            "Help us build a trustworthy community",
+            "/ratings/" + exchange.getId()
+        );
+
+        // Email notification (outbox)
+        emailService.sendRatingRequestNotification(rater, ratee, exchange);
+
+        log.info("Rating request notifications queued for {}", ratee.getUsername());
     }
 }
@@ -89,6 +89,7 @@ public class NotificationService {
             .type("GENERAL")
             .title(title)
             .message(message)
+            .actionUrl(actionUrl)
             .isRead(false)
             .createdAt(LocalDateTime.now())
             .build();
@@ -0,0 +1,217 @@
+package com.shout.service;
+
+import com.shout.model.Notification;
+import com.shout.model.OutboxEvent;
+import com.shout.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Outbox Relay - delivers outbox_events to the in-app and email channels
+ * - Claims due PENDING events with FOR UPDATE SKIP LOCKED, so several nodes can share the work
+ * - The claim pushes next_attempt_at out by the lease and commits; delivery runs outside any
+ *   transaction, so a node dying mid-batch only delays its events until the lease runs out
+ * - Failures are retried with exponential backoff; after max-attempts the event is marked FAILED
+ * Delivery is at-least-once. Metrics: outbox.backlog, outbox.dispatch.latency, outbox.dispatched,
+ * outbox.retries, outbox.failed
+ */
+@Service
+@Slf4j
+public class OutboxRelay {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final NotificationService notificationService;
+    private final EmailService emailService;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final int maxAttempts;
+    private final Duration lease;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration retention;
+
+    private final AtomicLong backlog = new AtomicLong();
+    private final Timer dispatchLatency;
+    private final Counter dispatchedCounter;
+    private final Counter retryCounter;
+    private final Counter failedCounter;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       NotificationService notificationService,
+                       EmailService emailService,
+                       TransactionTemplate transactionTemplate,
+                       Clock clock,
+                       MeterRegistry meterRegistry,
+                       @Value("${app.outbox.batch-size:100}") int batchSize,
+                       @Value("${app.outbox.max-batches-per-run:20}") int maxBatchesPerRun,
+                       @Value("${app.outbox.max-attempts:8}") int maxAttempts,
+                       @Value("${app.outbox.lease:5m}") Duration lease,
+                       @Value("${app.outbox.initial-backoff:30s}") Duration initialBackoff,
+                       @Value("${app.outbox.max-backoff:1h}") Duration maxBackoff,
+                       @Value("${app.outbox.retention:7d}") Duration retention) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.notificationService = notificationService;
+        this.emailService = emailService;
+        this.transactionTemplate = transactionTemplate;
+        this.clock = clock;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.maxAttempts = maxAttempts;
+        this.lease = lease;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.retention = retention;
+
+        Gauge.builder("outbox.backlog", backlog, AtomicLong::get)
+            .description("PENDING outbox events, as of the last relay run")
+            .register(meterRegistry);
+        this.dispatchLatency = Timer.builder("outbox.dispatch.latency")
+            .description("Time from an event being written to its delivery")
+            .register(meterRegistry);
+        this.dispatchedCounter = Counter.builder("outbox.dispatched")
+            .description("Outbox events delivered")
+            .register(meterRegistry);
+        this.retryCounter = Counter.builder("outbox.retries")
+            .description("Failed deliveries scheduled for another attempt")
+            .register(meterRegistry);
+        this.failedCounter = Counter.builder("outbox.failed")
+            .description("Outbox events given up on after max attempts")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Drain due events, batch by batch
+     */
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval:2000}")
+    public void relay() {
+        try {
+            int dispatched = drain();
+            if (dispatched > 0) {
+                log.info("📬 Delivered {} outbox events", dispatched);
+            }
+        } catch (Exception e) {
+            log.error("❌ Error draining the outbox", e);
+        }
+    }
+
+    /**
+     * Claim and deliver due events; returns the number delivered
+     */
+    int drain() {
+        int dispatched = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            List<OutboxEvent> claimed = claim();
+            for (OutboxEvent event : claimed) {
+                if (dispatch(event)) {
+                    dispatched++;
+                }
+            }
+            if (claimed.size() < batchSize) {
+                break;
+            }
+        }
+        backlog.set(outboxEventRepository.countByStatus(OutboxEvent.Status.PENDING));
+        return dispatched;
+    }
+
+    /**
+     * Delete delivered events past the retention window
+     */
+    @Scheduled(cron = "${app.outbox.cleanup-cron:0 0 5 * * *}")
+    public void cleanup() {
+        int deleted = outboxEventRepository.deleteSentBefore(LocalDateTime.now(clock).minus(retention));
+        if (deleted > 0) {
+            log.info("🧹 Deleted {} delivered outbox events", deleted);
+        }
+    }
+
+    /**
+     * Claim a batch under a lease, in its own short transaction
+     */
+    private List<OutboxEvent> claim() {
+        List<OutboxEvent> claimed = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now(clock);
+            List<OutboxEvent> events = outboxEventRepository.claimDueBatch(now, batchSize);
+            for (OutboxEvent event : events) {
+                event.setAttempts(event.getAttempts() + 1);
+                event.setNextAttemptAt(now.plus(lease));
+            }
+            return outboxEventRepository.saveAll(events);
+        });
+        return claimed != null ? claimed : List.of();
+    }
+
+    /**
+     * Deliver one event and record the outcome
+     */
+    private boolean dispatch(OutboxEvent event) {
+        try {
+            switch (event.getChannel()) {
+                case IN_APP -> deliverInApp(event);
+                case EMAIL -> emailService.deliver(event.getRecipientEmail(), event.getSubject(), event.getBody());
+            }
+            LocalDateTime now = LocalDateTime.now(clock);
+            outboxEventRepository.markSent(event.getId(), now);
+            dispatchedCounter.increment();
+            dispatchLatency.record(Duration.between(event.getCreatedAt(), now));
+            return true;
+        } catch (Exception e) {
+            String error = truncate(e.getClass().getSimpleName() + ": " + e.getMessage());
+            if (event.getAttempts() >= maxAttempts) {
+                outboxEventRepository.markFailed(event.getId(), error);
+                failedCounter.increment();
+                log.error("❌ Giving up on outbox event {} ({}) after {} attempts: {}",
+                    event.getId(), event.getEventType(), event.getAttempts(), error);
+            } else {
+                outboxEventRepository.reschedule(event.getId(),
+                    LocalDateTime.now(clock).plus(backoff(event.getAttempts())), error);
+                retryCounter.increment();
+                log.warn("⚠️ Outbox event {} ({}) failed, attempt {}/{}: {}",
+                    event.getId(), event.getEventType(), event.getAttempts(), maxAttempts, error);
+            }
+            return false;
+        }
+    }
+
+    private void deliverInApp(OutboxEvent event) {
+        notificationService.saveNotification(Notification.builder()
+            .userId(event.getRecipientUserId())
+            .type("GENERAL")
+            .title(event.getSubject())
+            .message(event.getBody())
+            .actionUrl(event.getActionUrl())
+            .isRead(false)
+            .createdAt(event.getCreatedAt())
+            .build());
+    }
+
+    /**
+     * Exponential backoff after the given attempt: initial, 2x, 4x, ... capped at max-backoff
+     */
+    Duration backoff(int attempts) {
+        Duration delay = initialBackoff.multipliedBy(1L << Math.min(Math.max(attempts - 1, 0), 20));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    private static String truncate(String error) {
+        return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+}
@@ -0,0 +1,66 @@
+package com.shout.service;
+
+import com.shout.model.OutboxEvent;
+import com.shout.model.User;
+import com.shout.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+
+/**
+ * Outbox Service - records notifications and emails in outbox_events
+ * Joins the caller's transaction, so events are only delivered if the business change commits.
+ * Delivery happens later, in OutboxRelay.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final Clock clock;
+
+    /**
+     * Queue an in-app notification
+     */
+    @Transactional
+    public OutboxEvent enqueueInApp(String eventType, User user, String title, String message, String actionUrl) {
+        return enqueue(OutboxEvent.builder()
+            .channel(OutboxEvent.Channel.IN_APP)
+            .eventType(eventType)
+            .recipientUserId(user.getId())
+            .subject(title)
+            .body(message)
+            .actionUrl(actionUrl));
+    }
+
+    /**
+     * Queue an HTML email; skipped when the recipient has no address
+     */
+    @Transactional
+    public OutboxEvent enqueueEmail(String eventType, User user, String subject, String html) {
+        if (user.getEmail() == null || user.getEmail().isBlank()) {
+            log.debug("No email address for user {}, skipping {}", user.getId(), eventType);
+            return null;
+        }
+        return enqueue(OutboxEvent.builder()
+            .channel(OutboxEvent.Channel.EMAIL)
+            .eventType(eventType)
+            .recipientUserId(user.getId())
+            .recipientEmail(user.getEmail())
+            .subject(subject)
+            .body(html));
+    }
+
+    private OutboxEvent enqueue(OutboxEvent.OutboxEventBuilder builder) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        return outboxEventRepository.save(builder
+            .createdAt(now)
+            .nextAttemptAt(now)
+            .build());
+    }
+}
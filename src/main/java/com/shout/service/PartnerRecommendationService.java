@@ -0,0 +1,296 @@
+package com.shout.service;
+
+import com.shout.dto.PartnerCandidateDTO;
+import com.shout.dto.PartnerRecommendationsDTO;
+import com.shout.model.User;
+import com.shout.repository.ShoutoutExchangeRepository;
+import com.shout.repository.UserRepository;
+import com.shout.repository.projection.CompletionCountView;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Partner Recommendation Service - ranked exchange partners, scored offline
+ * - Candidates come from the discovery index: eligible users within a follower-count ratio of the user
+ * - Score mixes follower proximity, category, rating, strikes, completed exchanges and plan compatibility
+ * - Each user's top candidates are stored in the partner_recommendations cache; reads are one lookup
+ * A user's inputs changing (discovery index change, completed exchange) marks them and every user whose
+ * window contains them as dirty; dirty users are re-scored in the background. A nightly full run
+ * catches anything the incremental path missed.
+ */
+@Service
+@Slf4j
+public class PartnerRecommendationService {
+
+    static final String CACHE_NAME = "partner_recommendations";
+
+    private static final double WEIGHT_PROXIMITY = 0.35;
+    private static final double WEIGHT_CATEGORY = 0.20;
+    private static final double WEIGHT_RATING = 0.15;
+    private static final double WEIGHT_STRIKES = 0.10;
+    private static final double WEIGHT_HISTORY = 0.10;
+    private static final double WEIGHT_PLAN = 0.10;
+
+    // Completed exchanges at which the history score reaches one half
+    private static final double HISTORY_HALF_POINT = 5.0;
+
+    private final CreatorDiscoveryIndex discoveryIndex;
+    private final ShoutoutExchangeRepository exchangeRepository;
+    private final UserRepository userRepository;
+    private final Cache cache;
+    private final Clock clock;
+
+    private final double followerRatio;
+    private final int poolSize;
+    private final int maxCandidates;
+    private final int maxStrikes;
+    private final int fanOutLimit;
+
+    private final Timer scoringTimer;
+
+    private final ConcurrentMap<Long, Integer> completions = new ConcurrentHashMap<>();
+    private volatile boolean completionsLoaded;
+    private final Set<Long> dirtyUsers = ConcurrentHashMap.newKeySet();
+    private final Set<Integer> dirtyWindows = ConcurrentHashMap.newKeySet();
+    private final Set<Long> dirtyHistory = ConcurrentHashMap.newKeySet();
+
+    public PartnerRecommendationService(CreatorDiscoveryIndex discoveryIndex,
+                                        ShoutoutExchangeRepository exchangeRepository,
+                                        UserRepository userRepository,
+                                        CacheManager cacheManager,
+                                        Clock clock,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${app.recommendations.follower-ratio:3.0}") double followerRatio,
+                                        @Value("${app.recommendations.pool-size:500}") int poolSize,
+                                        @Value("${app.recommendations.max-candidates:100}") int maxCandidates,
+                                        @Value("${app.recommendations.max-strikes:2}") int maxStrikes,
+                                        @Value("${app.recommendations.fan-out-limit:2000}") int fanOutLimit) {
+        this.discoveryIndex = discoveryIndex;
+        this.exchangeRepository = exchangeRepository;
+        this.userRepository = userRepository;
+        this.cache = cacheManager.getCache(CACHE_NAME);
+        this.clock = clock;
+        this.followerRatio = Math.max(followerRatio, 1.1);
+        this.poolSize = poolSize;
+        this.maxCandidates = maxCandidates;
+        this.maxStrikes = maxStrikes;
+        this.fanOutLimit = fanOutLimit;
+
+        this.scoringTimer = Timer.builder("recommendations.scoring")
+            .description("Time to score one user's partner candidates")
+            .register(meterRegistry);
+        meterRegistry.gauge("recommendations.dirty", dirtyUsers, Set::size);
+    }
+
+    /**
+     * One page of a user's recommended partners - served from the cache, scored on the spot only
+     * if the user has never been scored
+     */
+    public Page<PartnerCandidateDTO> getRecommendations(Long userId, int page, int size) {
+        PartnerRecommendationsDTO recommendations = cache.get(userId, PartnerRecommendationsDTO.class);
+        if (recommendations == null) {
+            recommendations = recompute(userId);
+        }
+
+        List<PartnerCandidateDTO> candidates = recommendations != null ? recommendations.getCandidates() : List.of();
+        int from = Math.min(page * size, candidates.size());
+        int to = Math.min(from + size, candidates.size());
+        return new PageImpl<>(candidates.subList(from, to), PageRequest.of(page, size), candidates.size());
+    }
+
+    /**
+     * Discovery columns changed - the users themselves and everyone whose window holds them need re-scoring
+     */
+    @EventListener
+    public void onCreatorsChanged(CreatorDiscoveryIndex.CreatorsChanged event) {
+        dirtyUsers.addAll(event.userIds());
+        dirtyWindows.addAll(event.followerCounts());
+    }
+
+    /**
+     * An exchange completed - both sides' history changed
+     */
+    public void onExchangeCompleted(Long requesterId, Long acceptorId) {
+        dirtyHistory.add(requesterId);
+        dirtyHistory.add(acceptorId);
+    }
+
+    /**
+     * Incremental mode - re-score dirty users
+     */
+    @Scheduled(fixedDelayString = "${app.recommendations.incremental-interval:60000}",
+               initialDelayString = "${app.recommendations.incremental-interval:60000}")
+    public void recomputeDirty() {
+        if (!discoveryIndex.isReady()) {
+            return;
+        }
+        try {
+            int recomputed = drainDirty();
+            if (recomputed > 0) {
+                log.info("🤝 Re-scored partner recommendations for {} users", recomputed);
+            }
+        } catch (Exception e) {
+            log.error("❌ Error during incremental recommendation update", e);
+        }
+    }
+
+    int drainDirty() {
+        for (Long userId : take(dirtyHistory)) {
+            completions.put(userId, countCompleted(userId));
+            CreatorDiscoveryIndex.Row row = discoveryIndex.find(userId);
+            dirtyUsers.add(userId);
+            if (row != null) {
+                dirtyWindows.add(row.followerCount());
+            }
+        }
+
+        Set<Long> users = new HashSet<>(take(dirtyUsers));
+        for (Integer followers : take(dirtyWindows)) {
+            discoveryIndex.eligibleInRange(lowerBound(followers), upperBound(followers), maxStrikes, fanOutLimit)
+                .forEach(neighbour -> users.add(neighbour.id()));
+        }
+
+        users.forEach(this::recompute);
+        return users.size();
+    }
+
+    /**
+     * Full mode - re-score every eligible user
+     */
+    @Scheduled(cron = "${app.recommendations.full-run-cron:0 30 3 * * *}")
+    public void recomputeAll() {
+        if (!discoveryIndex.isReady()) {
+            return;
+        }
+        try {
+            loadCompletions();
+            List<CreatorDiscoveryIndex.Row> users =
+                discoveryIndex.eligibleInRange(0, Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE);
+            users.forEach(user -> cache.put(user.id(), score(user)));
+            log.info("🤝 Scored partner recommendations for {} users", users.size());
+        } catch (Exception e) {
+            log.error("❌ Error during full recommendation run", e);
+        }
+    }
+
+    /**
+     * Score one user now and store the result; evicts users who can no longer exchange
+     */
+    PartnerRecommendationsDTO recompute(Long userId) {
+        CreatorDiscoveryIndex.Row user = discoveryIndex.find(userId);
+        if (user == null || !user.active() || user.banned()) {
+            cache.evict(userId);
+            return null;
+        }
+        if (!completionsLoaded) {
+            loadCompletions();
+        }
+        PartnerRecommendationsDTO recommendations = score(user);
+        cache.put(userId, recommendations);
+        return recommendations;
+    }
+
+    private PartnerRecommendationsDTO score(CreatorDiscoveryIndex.Row user) {
+        Timer.Sample sample = Timer.start();
+        List<PartnerCandidateDTO> ranked = new ArrayList<>();
+        for (CreatorDiscoveryIndex.Row candidate : discoveryIndex.eligibleInRange(
+                lowerBound(user.followerCount()), upperBound(user.followerCount()), maxStrikes, poolSize)) {
+            if (candidate.id() == user.id()) {
+                continue;
+            }
+            int completed = completions.getOrDefault(candidate.id(), 0);
+            ranked.add(PartnerCandidateDTO.builder()
+                .userId(candidate.id())
+                .name(candidate.name())
+                .username(candidate.username())
+                .profilePicture(candidate.profilePicture())
+                .category(candidate.category())
+                .followerCount(candidate.followerCount())
+                .planType(candidate.planType())
+                .rating(candidate.rating())
+                .completedExchanges(completed)
+                .score(score(user, candidate, completed, followerRatio, maxStrikes))
+                .build());
+        }
+        ranked.sort(Comparator.comparing(PartnerCandidateDTO::getScore).reversed()
+            .thenComparing(PartnerCandidateDTO::getUserId));
+
+        List<PartnerCandidateDTO> top = new ArrayList<>(ranked.subList(0, Math.min(maxCandidates, ranked.size())));
+        sample.stop(scoringTimer);
+        return new PartnerRecommendationsDTO(user.id(), top, LocalDateTime.now(clock));
+    }
+
+    /**
+     * Match score of a candidate for a user, 0-1
+     */
+    static double score(CreatorDiscoveryIndex.Row user, CreatorDiscoveryIndex.Row candidate, int candidateCompletions,
+                        double followerRatio, int maxStrikes) {
+        double distance = Math.abs(Math.log((candidate.followerCount() + 1.0) / (user.followerCount() + 1.0)));
+        double proximity = 1.0 - Math.min(1.0, distance / Math.log(followerRatio));
+        double category = user.category() != null && user.category().equalsIgnoreCase(candidate.category()) ? 1.0 : 0.0;
+        double rating = Math.max(0.0, Math.min(candidate.rating(), 5.0)) / 5.0;
+        double strikes = 1.0 - Math.min(1.0, (double) candidate.strikes() / (maxStrikes + 1));
+        double history = candidateCompletions / (candidateCompletions + HISTORY_HALF_POINT);
+        // Mixed BASIC/PRO pairs can still exchange, but only stories
+        double plan = user.planType() != null && user.planType().equals(candidate.planType()) ? 1.0 : 0.5;
+
+        return WEIGHT_PROXIMITY * proximity
+            + WEIGHT_CATEGORY * category
+            + WEIGHT_RATING * rating
+            + WEIGHT_STRIKES * strikes
+            + WEIGHT_HISTORY * history
+            + WEIGHT_PLAN * plan;
+    }
+
+    private void loadCompletions() {
+        List<CompletionCountView> counts = exchangeRepository.findCompletionCounts();
+        completions.clear();
+        counts.forEach(count -> completions.put(count.getUserId(), count.getCompleted().intValue()));
+        completionsLoaded = true;
+    }
+
+    private int countCompleted(Long userId) {
+        User user = userRepository.getReferenceById(userId);
+        Integer asRequester = exchangeRepository.countCompletedExchangesAsRequester(user);
+        Integer asAcceptor = exchangeRepository.countCompletedExchangesAsAcceptor(user);
+        return (asRequester != null ? asRequester : 0) + (asAcceptor != null ? asAcceptor : 0);
+    }
+
+    private int lowerBound(int followers) {
+        return (int) (followers / followerRatio);
+    }
+
+    private int upperBound(int followers) {
+        return (int) Math.min(Integer.MAX_VALUE, Math.ceil(followers * followerRatio));
+    }
+
+    private static <T> List<T> take(Set<T> source) {
+        List<T> taken = new ArrayList<>();
+        for (T item : source) {
+            if (source.remove(item)) {
+                taken.add(item);
+            }
+        }
+        return taken;
+    }
+}
@@ -1,27 +1,47 @@
 package com.shout.service;
 
+import com.shout.dto.CursorPageDTO;
 import com.shout.model.*;
+import com.shout.repository.UserRatingAggregateRepository;
 import com.shout.repository.UserRatingRepository;
 import com.shout.repository.ShoutoutExchangeRepository;
+import com.shout.repository.UserRepository;
+import com.shout.repository.projection.RatingFeedView;
+import com.shout.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 /**
  * Rating Service - Handles user ratings after exchanges
  * CRITICAL: Updates user average ratings and sends notifications
+ * Averages are never recomputed from user_ratings on the hot path: each new rating adds to running
+ * sum/count columns (users and user_rating_aggregates) in the insert's transaction, and reads come
+ * straight from those columns. The reconcile job rebuilds any user whose aggregates drifted.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class RatingService {
+
+    private static final int FEED_PAGE_SIZE = 20;
+    private static final int FEED_MAX_PAGE_SIZE = 100;
+    private static final int REVIEW_EXCERPT_LENGTH = 280;
+    private static final LocalDateTime CURSOR_EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
    
     private final UserRatingRepository ratingRepository;
+    private final UserRatingAggregateRepository aggregateRepository;
+    private final UserRepository userRepository;
     private final ShoutoutExchangeRepository exchangeRepository;
-    private final NotificationService notificationService;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
    
     /**
      * Rate a user after completing an exchange
@@ -63,12 +83,12 @@ public class RatingService {
        
         UserRating saved = ratingRepository.save(userRating);
        
-        // Update user's average rating
-        updateUserAverageRating(ratee);
+        // Update user's running rating aggregates
+        addToAggregates(ratee, rating, category);
        
-        // Send notification
+        // Send notification (outbox, delivered after commit)
         String message = rater.getName() + " rated you " + rating + " stars";
-        notificationService.createNotification(ratee, "New Rating", message, null);
+        outboxService.enqueueInApp("NEW_RATING", ratee, "New Rating", message, "/ratings/" + exchange.getId());
        
         log.info("User {} rated user {} with {} stars for exchange {}",
             rater.getUsername(), ratee.getUsername(), rating, exchange.getId());
@@ -77,49 +97,102 @@ public class RatingService {
     }
    
     /**
-     * Get all ratings for a user
+     * One page of a user's ratings, newest first - flat rows from a single join, keyset-paginated
      */
-    public List<UserRating> getUserRatings(User user) {
-        return ratingRepository.findByRatee(user);
+    public CursorPageDTO<RatingFeedView> getRatingFeed(Long userId, String cursor, Integer limit) {
+        int pageSize = limit == null || limit <= 0 ? FEED_PAGE_SIZE : Math.min(limit, FEED_MAX_PAGE_SIZE);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        LocalDateTime afterCreatedAt = after != null ? CURSOR_EPOCH.plus(after.value(), ChronoUnit.MICROS) : null;
+        long afterId = after != null ? after.id() : 0L;
+
+        // Fetch one extra row to know whether another page exists
+        List<RatingFeedView> rows = ratingRepository.findFeedForRatee(userId, afterCreatedAt, afterId,
+            REVIEW_EXCERPT_LENGTH, pageSize + 1);
+
+        boolean hasMore = rows.size() > pageSize;
+        List<RatingFeedView> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            RatingFeedView last = page.get(page.size() - 1);
+            // Microseconds keep the cursor as precise as the timestamp column
+            nextCursor = new KeysetCursor(ChronoUnit.MICROS.between(CURSOR_EPOCH, last.getCreatedAt()), last.getId()).encode();
+        }
+        return new CursorPageDTO<>(page, nextCursor, hasMore);
     }
    
     /**
      * Get user's average rating
      */
     public Double getUserAverageRating(User user) {
-        Double avg = ratingRepository.getAverageRating(user);
-        return avg != null ? avg : 0.0;
+        return user.getRating() != null ? user.getRating() : 0.0;
     }
    
     /**
      * Get total rating count for user
      */
     public Integer getUserRatingCount(User user) {
-        Integer count = ratingRepository.getTotalRatingCount(user);
-        return count != null ? count : 0;
+        return user.getTotalRatings() != null ? user.getTotalRatings() : 0;
     }
    
     /**
      * Get average rating by category
      */
     public Double getCategoryAverageRating(User user, UserRating.RatingCategory category) {
-        Double avg = ratingRepository.getAverageRatingByCategory(user, category);
-        return avg != null ? avg : 0.0;
+        return aggregateRepository.findById(new UserRatingAggregate.Key(user.getId(), category))
+            .map(UserRatingAggregate::getAverage)
+            .orElse(0.0);
     }
    
     /**
-     * Update user's average rating (called after new rating)
+     * Add one rating to the ratee's running aggregates (called in the rating's transaction)
      */
-    @Transactional
-    public void updateUserAverageRating(User user) {
-        Double avgRating = ratingRepository.getAverageRating(user);
-        Integer totalRatings = ratingRepository.getTotalRatingCount(user);
-       
-        user.setRating(avgRating != null ? avgRating : 0.0);
-        user.setTotalRatings(totalRatings != null ? totalRatings : 0);
-       
+    private void addToAggregates(User ratee, int rating, UserRating.RatingCategory category) {
+        userRepository.addRating(ratee.getId(), rating);
+        aggregateRepository.addRating(ratee.getId(), category.name(), rating);
+
+        // Mirror the database update on the loaded entity so the response reflects the new rating
+        long sum = (ratee.getRatingSum() != null ? ratee.getRatingSum() : 0L) + rating;
+        int count = (ratee.getTotalRatings() != null ? ratee.getTotalRatings() : 0) + 1;
+        ratee.setRatingSum(sum);
+        ratee.setTotalRatings(count);
+        ratee.setRating((double) sum / count);
+
         log.info("Updated rating for user {}: {} stars from {} ratings",
-            user.getUsername(), user.getRating(), user.getTotalRatings());
+            ratee.getUsername(), ratee.getRating(), ratee.getTotalRatings());
+    }
+   
+    /**
+     * Rebuild one user's rating aggregates from user_ratings, in one transaction
+     */
+    public void reconcileUser(Long userId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            userRepository.lockById(userId);
+            userRepository.rebuildRatingAggregate(userId);
+            aggregateRepository.deleteByUserId(userId);
+            aggregateRepository.rebuildForUser(userId);
+        });
+    }
+   
+    /**
+     * Reconcile job - rebuild aggregates of users whose running values drifted (disabled unless a cron is set)
+     */
+    @Scheduled(cron = "${app.ratings.reconcile-cron:-}")
+    public void reconcileAggregates() {
+        List<Long> userIds = aggregateRepository.findUsersWithDrift();
+        if (userIds.isEmpty()) {
+            return;
+        }
+        log.warn("⭐ Rating aggregates drifted for {} users, rebuilding", userIds.size());
+        int failed = 0;
+        for (Long userId : userIds) {
+            try {
+                reconcileUser(userId);
+            } catch (Exception e) {
+                failed++;
+                log.error("❌ Failed to rebuild rating aggregates for user {}", userId, e);
+            }
+        }
+        log.info("⭐ Rating aggregate reconciliation finished ({} failed)", failed);
     }
    
     /**
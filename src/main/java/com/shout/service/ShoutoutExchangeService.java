@@ -6,7 +6,6 @@ import com.shout.repository.ShoutoutExchangeRepository;
 import com.shout.repository.ShoutoutRequestRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,6 +20,9 @@ public class ShoutoutExchangeService {
     private final ShoutoutRequestRepository requestRepository;
     private final PostAnalyticsRepository analyticsRepository;
     private final ComplianceService complianceService;
+    private final ExchangeDeadlineScheduler deadlineScheduler;
+    private final InstagramMediaSnapshotCache mediaSnapshotCache;
+    private final PartnerRecommendationService partnerRecommendationService;
     private static final int EXCHANGE_WINDOW_HOURS = 24;
 
     /**
@@ -44,6 +46,7 @@ public class ShoutoutExchangeService {
             .build();
 
         ShoutoutExchange saved = exchangeRepository.save(exchange);
+        deadlineScheduler.register(saved.getId(), saved.getExpiresAt());
         log.info("Exchange created: {} <-> {}", request.getRequester().getUsername(), request.getTarget().getUsername());
         return saved;
     }
@@ -84,6 +87,28 @@ public class ShoutoutExchangeService {
         log.info("Acceptor marked as posted for exchange {}", exchange.getId());
     }
 
+    /**
+     * Record a post found by automated verification
+     * Re-reads the exchange so a result computed outside the transaction can't overwrite newer state
+     */
+    @Transactional
+    public boolean recordVerifiedPost(Long exchangeId, boolean requesterSide, String postUrl) {
+        ShoutoutExchange exchange = getExchangeById(exchangeId);
+        if (exchange.getStatus() != ShoutoutExchange.ExchangeStatus.PENDING) {
+            return false;
+        }
+
+        if (requesterSide && !Boolean.TRUE.equals(exchange.getRequesterPosted())) {
+            markRequesterPosted(exchange, postUrl);
+            return true;
+        }
+        if (!requesterSide && !Boolean.TRUE.equals(exchange.getAcceptorPosted())) {
+            markAcceptorPosted(exchange, postUrl);
+            return true;
+        }
+        return false;
+    }
+
     /**
      * Check if exchange is complete (both posted)
      */
@@ -92,55 +117,33 @@ public class ShoutoutExchangeService {
         if (exchange.getRequesterPosted() && exchange.getAcceptorPosted()) {
             exchange.setStatus(ShoutoutExchange.ExchangeStatus.COMPLETED);
             exchangeRepository.save(exchange);
+            deadlineScheduler.cancel(exchange.getId());
+            partnerRecommendationService.onExchangeCompleted(exchange.getRequester().getId(), exchange.getAcceptor().getId());
             log.info("Exchange {} marked as COMPLETED", exchange.getId());
         }
     }
 
     /**
      * Detect and handle post removal violations
+     * Strikes only on a confirmed removal - an unknown status (API down, post not found by id) is skipped
      */
     @Transactional
     public void detectPostRemoval(ShoutoutExchange exchange) {
         // Check if requester removed post
-        if (exchange.getRequesterPosted() && !isPostStillActive(exchange.getRequesterPostUrl())) {
+        if (exchange.getRequesterPosted()
+                && mediaSnapshotCache.checkPost(exchange.getRequester(), exchange.getRequesterPostUrl())
+                    == InstagramMediaSnapshotCache.PostStatus.REMOVED) {
             complianceService.checkPostRemovalViolation(exchange, true);
         }
 
         // Check if acceptor removed post
-        if (exchange.getAcceptorPosted() && !isPostStillActive(exchange.getAcceptorPostUrl())) {
+        if (exchange.getAcceptorPosted()
+                && mediaSnapshotCache.checkPost(exchange.getAcceptor(), exchange.getAcceptorPostUrl())
+                    == InstagramMediaSnapshotCache.PostStatus.REMOVED) {
             complianceService.checkPostRemovalViolation(exchange, false);
         }
     }
 
-    /**
-     * Check if post URL is still active (stub - implement with Instagram API)
-     */
-    private boolean isPostStillActive(String postUrl) {
-        // TODO: Implement Instagram API call to check if post still exists
-        return true;
-    }
-
-    /**
-     * Scheduled task: Mark expired exchanges and apply violations
-     */
-    @Scheduled(fixedDelay = 60000) // Run every minute
-    @Transactional
-    public void processExpiredExchanges() {
-        LocalDateTime now = LocalDateTime.now();
-        List<ShoutoutExchange> expiredExchanges = exchangeRepository.findByExpiresAtBefore(now);
-
-        for (ShoutoutExchange exchange : expiredExchanges) {
-            if (exchange.getStatus() == ShoutoutExchange.ExchangeStatus.PENDING) {
-                exchange.setStatus(ShoutoutExchange.ExchangeStatus.EXPIRED);
-                exchangeRepository.save(exchange);
-
-                // Apply compliance violations
-                complianceService.checkFailedPostings(exchange);
-                log.info("Exchange {} marked as EXPIRED with violations applied", exchange.getId());
-            }
-        }
-    }
-
     /**
      * Get pending exchanges for user
      */
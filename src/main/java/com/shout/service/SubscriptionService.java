@@ -4,25 +4,94 @@ import com.shout.model.*;
 import com.shout.repository.SubscriptionPlanRepository;
 import com.shout.repository.SubscriptionRepository;
 import com.shout.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import com.shout.security.PrincipalCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Clock;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class SubscriptionService {
+
+    // Claim one chunk of due subscriptions, expire them and downgrade their users in a single statement
+    static final String EXPIRE_BATCH_SQL =
+        "WITH due AS (" +
+        "  SELECT id FROM user_subscriptions " +
+        "  WHERE status = 'ACTIVE' AND auto_renew = true AND renewal_date < ? " +
+        "  ORDER BY renewal_date, id LIMIT ? FOR UPDATE SKIP LOCKED), " +
+        "expired AS (" +
+        "  UPDATE user_subscriptions s SET status = 'EXPIRED', updated_at = ? " +
+        "  FROM due WHERE s.id = due.id RETURNING s.user_id), " +
+        "downgraded AS (" +
+        "  UPDATE users u SET plan_type = 'BASIC', updated_at = ? " +
+        "  FROM expired e WHERE u.id = e.user_id AND u.plan_type <> 'BASIC' RETURNING u.id) " +
+        "SELECT user_id FROM expired";
+
     private final SubscriptionRepository subscriptionRepository;
     private final SubscriptionPlanRepository subscriptionPlanRepository;
     private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
+    private final EntitlementService entitlementService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
     private static final int MAX_STRIKES = 3;
 
+    private final int expiryBatchSize;
+    private final int expiryMaxBatchesPerRun;
+
+    private final Timer expiryRunTimer;
+    private final DistributionSummary expiryRunSize;
+    private final Counter expiredCounter;
+
+    public SubscriptionService(SubscriptionRepository subscriptionRepository,
+                               SubscriptionPlanRepository subscriptionPlanRepository,
+                               UserRepository userRepository,
+                               PrincipalCache principalCache,
+                               EntitlementService entitlementService,
+                               JdbcTemplate jdbcTemplate,
+                               TransactionTemplate transactionTemplate,
+                               Clock clock,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.subscriptions.expiry.batch-size:500}") int expiryBatchSize,
+                               @Value("${app.subscriptions.expiry.max-batches-per-run:100}") int expiryMaxBatchesPerRun) {
+        this.subscriptionRepository = subscriptionRepository;
+        this.subscriptionPlanRepository = subscriptionPlanRepository;
+        this.userRepository = userRepository;
+        this.principalCache = principalCache;
+        this.entitlementService = entitlementService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.clock = clock;
+        this.expiryBatchSize = expiryBatchSize;
+        this.expiryMaxBatchesPerRun = expiryMaxBatchesPerRun;
+
+        this.expiryRunTimer = Timer.builder("subscriptions.expiry.run")
+            .description("Duration of a subscription expiry run")
+            .register(meterRegistry);
+        this.expiryRunSize = DistributionSummary.builder("subscriptions.expiry.processed")
+            .description("Subscriptions expired per run")
+            .register(meterRegistry);
+        this.expiredCounter = Counter.builder("subscriptions.expiry.expired")
+            .description("Subscriptions moved from ACTIVE to EXPIRED")
+            .register(meterRegistry);
+    }
+
     /**
      * Initialize subscription plans (BASIC and PRO)
      * Call this once during app startup
@@ -72,6 +141,8 @@ public class SubscriptionService {
             subscriptionPlanRepository.save(pro);
             log.info("✅ PRO subscription plan created");
         }
+
+        entitlementService.refreshPlans();
     }
 
     /**
@@ -110,6 +181,8 @@ public class SubscriptionService {
             .build();
 
         Subscription saved = subscriptionRepository.save(subscription);
+        principalCache.evict(user.getId());
+        entitlementService.evict(user.getId());
         log.info("✅ Subscription created for user: {} with plan: {} ({})",
             user.getUsername(), plan.getName(), cycle);
 
@@ -132,6 +205,8 @@ public class SubscriptionService {
                 existing.setCancelledDate(LocalDateTime.now());
                 existing.setAutoRenew(false);
                 subscriptionRepository.save(existing);
+                principalCache.evict(user.getId());
+                entitlementService.evict(user.getId());
                 log.info("🔄 Cancelled existing subscription for user: {}", user.getUsername());
             }
         }
@@ -153,22 +228,11 @@ public class SubscriptionService {
 
     /**
      * ✅ CRITICAL METHOD: Check if user has PRO subscription
-     * Queries Subscription table (NOT User enum)
-     * This is the source of truth for PRO status
+     * Answered from the cached entitlement snapshot (Subscription table is the source of truth)
      */
     public boolean isProUser(User user) {
-        Optional<Subscription> subscription = subscriptionRepository.findByUser(user);
-
-        if (subscription.isEmpty()) {
-            log.debug("❌ User {} has no subscription (BASIC by default)", user.getUsername());
-            return false;
-        }
-
-        Subscription sub = subscription.get();
-        boolean isPro = sub.getPlan().getPlanType() == SubscriptionPlan.PlanType.PRO
-            && sub.getStatus() == Subscription.SubscriptionStatus.ACTIVE;
-
-        log.debug("✅ User {} is PRO: {}", user.getUsername(), isPro);
+        boolean isPro = entitlementService.get(user.getId()).pro();
+        log.debug("User {} is PRO: {}", user.getUsername(), isPro);
         return isPro;
     }
 
@@ -178,12 +242,7 @@ public class SubscriptionService {
      * POST/REEL: PRO users only
      */
     public boolean canAccessMediaType(User user, ShoutoutRequest.MediaType mediaType) {
-        if (mediaType == ShoutoutRequest.MediaType.STORY) {
-            return true; // Stories available to all users (BASIC and PRO)
-        }
-
-        // Posts and Reels require PRO subscription
-        boolean canAccess = isProUser(user);
+        boolean canAccess = entitlementService.get(user.getId()).canAccess(mediaType);
         if (!canAccess) {
             log.warn("❌ User {} tried to access {} but not PRO", user.getUsername(), mediaType);
         }
@@ -202,25 +261,45 @@ public class SubscriptionService {
         subscription.setCancelledDate(LocalDateTime.now());
         subscription.setAutoRenew(false);
         subscriptionRepository.save(subscription);
+        principalCache.evict(user.getId());
+        entitlementService.evict(user.getId());
 
         log.info("❌ Subscription cancelled for user: {}", user.getUsername());
     }
 
     /**
-     * Process renewal for expired subscriptions
-     * Runs periodically via scheduled task
+     * Expire every ACTIVE auto-renew subscription past its renewal date, chunk by chunk
+     * Each chunk is one statement in its own transaction: claim (SKIP LOCKED, so nodes can share
+     * the work), mark EXPIRED, downgrade users.plan_type; the returned user ids are evicted from
+     * the principal and entitlement caches. Returns the number of subscriptions expired.
      */
-    @Transactional
-    public void processExpiredSubscriptions() {
-        LocalDateTime now = LocalDateTime.now();
-        List<Subscription> expiredSubs = subscriptionRepository.findByAutoRenewAndRenewalDateBefore(true, now);
-
-        for (Subscription sub : expiredSubs) {
-            if (sub.getStatus() == Subscription.SubscriptionStatus.ACTIVE) {
-                sub.setStatus(Subscription.SubscriptionStatus.EXPIRED);
-                subscriptionRepository.save(sub);
-                log.info("⏰ Subscription expired for user: {}", sub.getUser().getUsername());
+    public int processExpiredSubscriptions() {
+        long start = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now(clock);
+        int expired = 0;
+
+        for (int batch = 0; batch < expiryMaxBatchesPerRun; batch++) {
+            List<Long> userIds = transactionTemplate.execute(status -> {
+                List<Long> ids = jdbcTemplate.queryForList(EXPIRE_BATCH_SQL, Long.class,
+                    Timestamp.valueOf(now), expiryBatchSize, Timestamp.valueOf(now), Timestamp.valueOf(now));
+                principalCache.evictAll(ids);
+                entitlementService.evictAll(ids);
+                return ids;
+            });
+            int claimed = userIds != null ? userIds.size() : 0;
+            expired += claimed;
+            if (claimed < expiryBatchSize) {
+                break;
             }
         }
+
+        long elapsed = System.nanoTime() - start;
+        expiryRunTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        expiryRunSize.record(expired);
+        expiredCounter.increment(expired);
+        if (expired > 0) {
+            log.info("⏰ Expired {} subscriptions in {} ms", expired, elapsed / 1_000_000);
+        }
+        return expired;
     }
 }
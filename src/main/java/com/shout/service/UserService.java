@@ -1,17 +1,24 @@
 package com.shout.service;
 
+import com.shout.dto.CursorPageDTO;
 import com.shout.dto.UserMediaDTO;
 import com.shout.dto.UserProfileDTO;
 import com.shout.exception.ResourceNotFoundException;
 import com.shout.model.User;
 import com.shout.repository.UserRepository;
+import com.shout.repository.projection.CreatorCardView;
+import com.shout.security.PrincipalCache;
+import com.shout.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -24,6 +31,15 @@ import java.util.stream.Collectors;
 public class UserService {
    
     private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
+    private final DailyQuotaService dailyQuotaService;
+    private final CreatorDiscoveryIndex discoveryIndex;
+
+    @Value("${app.discovery.page-size:20}")
+    private int discoveryPageSize;
+
+    @Value("${app.discovery.max-page-size:100}")
+    private int discoveryMaxPageSize;
    
     /**
      * Find user by ID (returns Optional)
@@ -54,12 +70,21 @@ public class UserService {
         return userRepository.findByEmail(email);
     }
    
+    /**
+     * Get a lazy reference to a user without loading the row
+     */
+    public User getUserReference(Long userId) {
+        return userRepository.getReferenceById(userId);
+    }
+
     /**
      * Save user
      */
     @Transactional
     public User saveUser(User user) {
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        principalCache.evict(saved.getId());
+        return saved;
     }
    
     /**
@@ -71,15 +96,21 @@ public class UserService {
     }
    
     /**
-     * Search users with filters
+     * Discover creators - category, follower range, rating, text and repost-type eligibility are all
+     * applied in the query; results are paged by keyset on (follower_count DESC, id)
+     * Without a text query the page is answered from the in-memory discovery index once it is loaded.
+     * @param followers "min-max" follower range
+     * @param repostType post/reel are PRO-only, story (or none) is open to everyone
+     * @param minRating minimum average rating, null for any
+     * @param cursor nextCursor of the previous page, null for the first page
      */
-    public List<UserProfileDTO> searchUsers(String query, String genre, String followers) {
-        List<User> users = new ArrayList<>();
-       
+    public CursorPageDTO<CreatorCardView> discoverCreators(String query, String genre, String followers,
+                                                           String repostType, Double minRating,
+                                                           String cursor, Integer limit) {
         // Parse follower range
-        Integer minFollowers = 0;
-        Integer maxFollowers = Integer.MAX_VALUE;
-       
+        int minFollowers = 0;
+        int maxFollowers = Integer.MAX_VALUE;
+
         if (followers != null && !followers.isEmpty()) {
             String[] range = followers.split("-");
             if (range.length == 2) {
@@ -91,26 +122,62 @@ public class UserService {
                 }
             }
         }
-       
-        // Apply filters
-        if (genre != null && !genre.isEmpty()) {
-            users = userRepository.findByCategoryAndFollowerCountRange(genre, minFollowers, maxFollowers);
-        } else {
-            users = userRepository.findByFollowerCountRange(minFollowers, maxFollowers);
+
+        boolean proOnly = "post".equalsIgnoreCase(repostType) || "reel".equalsIgnoreCase(repostType);
+        int pageSize = limit == null || limit <= 0 ? discoveryPageSize : Math.min(limit, discoveryMaxPageSize);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+
+        // Categories match case-insensitively, like the findByCategoryIgnoreCase lookup this replaced
+        String category = genre != null && !genre.isBlank() ? genre.trim().toLowerCase(Locale.ROOT) : null;
+        String pattern = likePattern(query);
+        double ratingFloor = minRating != null ? minRating : 0.0;
+        long afterFollowers = after != null ? after.value() : Integer.MAX_VALUE;
+        long afterId = after != null ? after.id() : 0L;
+
+        // Fetch one extra row to know whether another page exists
+        List<CreatorCardView> rows = pattern == null && discoveryIndex.isReady()
+            ? discoveryIndex.discover(category, minFollowers, maxFollowers, proOnly, ratingFloor,
+                afterFollowers, afterId, pageSize + 1)
+            : userRepository.discoverCreators(minFollowers, maxFollowers, category, pattern, proOnly, ratingFloor,
+                afterFollowers, afterId, pageSize + 1);
+
+        boolean hasMore = rows.size() > pageSize;
+        List<CreatorCardView> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            CreatorCardView last = page.get(page.size() - 1);
+            nextCursor = new KeysetCursor(last.getFollowerCount(), last.getId()).encode();
         }
-       
-        // Filter by query if provided
-        if (query != null && !query.isEmpty()) {
-            String lowerQuery = query.toLowerCase();
-            users = users.stream()
-                .filter(u -> u.getName().toLowerCase().contains(lowerQuery) ||
-                            u.getUsername().toLowerCase().contains(lowerQuery))
-                .collect(Collectors.toList());
+        return new CursorPageDTO<>(page, nextCursor, hasMore);
+    }
+
+    /**
+     * Search-as-you-type over name and username, ranked by prefix match then similarity
+     */
+    public List<CreatorCardView> searchCreators(String query, Integer limit) {
+        if (query == null || query.isBlank()) {
+            return List.of();
         }
-       
-        return users.stream()
-            .map(this::convertToProfileDTO)
-            .collect(Collectors.toList());
+        String normalized = query.trim().toLowerCase();
+        int size = limit == null || limit <= 0 ? discoveryPageSize : Math.min(limit, discoveryMaxPageSize);
+        return userRepository.searchByNameOrUsernameRanked(normalized, escapeLike(normalized) + "%", size);
+    }
+
+    /**
+     * Lower-cased "contains" LIKE pattern with wildcards escaped, or null for no text filter
+     */
+    private static String likePattern(String query) {
+        if (query == null || query.isBlank()) {
+            return null;
+        }
+        return "%" + escapeLike(query.trim().toLowerCase()) + "%";
+    }
+
+    private static String escapeLike(String value) {
+        return value
+            .replace("\\", "\\\\")
+            .replace("%", "\\%")
+            .replace("_", "\\_");
     }
    
     /**
@@ -129,8 +196,9 @@ public class UserService {
         dto.setIsVerified(user.getIsVerified());
         dto.setRating(user.getRating());
         dto.setStrikes(user.getStrikeCount());
-        dto.setDailyRequestsSent(user.getDailyRequestsSent());
-        dto.setDailyRequestsAccepted(user.getDailyRequestsAccepted());
+        LocalDate today = dailyQuotaService.currentDate();
+        dto.setDailyRequestsSent(user.dailyRequestsSentOn(today));
+        dto.setDailyRequestsAccepted(user.dailyRequestsAcceptedOn(today));
        
         // Convert media items
         List<UserMediaDTO> mediaItems = new ArrayList<>();
@@ -178,33 +246,16 @@ public class UserService {
      * Check if user can send requests (daily limit)
      */
     public boolean canSendRequest(User user) {
-        int dailyLimit = "PRO".equals(user.getPlanType()) ? 50 : 10;
-        return user.getDailyRequestsSent() < dailyLimit;
+        return dailyQuotaService.getRemainingSent(user) > 0;
     }
    
     /**
-     * Increment daily request counter
+     * Increment daily request counter (atomic, refuses once the plan limit is reached)
      */
-    @Transactional
-    public void incrementDailyRequests(User user) {
-        user.setDailyRequestsSent(user.getDailyRequestsSent() + 1);
-        userRepository.save(user);
+    public boolean incrementDailyRequests(User user) {
+        return dailyQuotaService.tryConsumeSent(user.getId(), user.getPlanType()).allowed();
     }
    
-    /**
-     * Reset daily counters (scheduled task)
-     */
-    @Transactional
-    public void resetDailyCounters() {
-        List<User> users = userRepository.findAll();
-        users.forEach(user -> {
-            user.setDailyRequestsSent(0);
-            user.setDailyRequestsAccepted(0);
-        });
-        userRepository.saveAll(users);
-        log.info("Reset daily counters for {} users", users.size());
-    }
-    
     /**
      * Check if user exists by email
      */
@@ -0,0 +1,149 @@
+package com.shout.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT Token Engine - shared signing key, parser and verified-token cache
+ * Used by both {@link JwtTokenProvider} and {@link JwtTokenProviderEnhanced}
+ */
+@Component
+@Slf4j
+public class JwtTokenEngine {
+
+    private final SecretKey key;
+    private final JwtParser parser;
+    private final Cache<String, TokenClaims> verifiedTokens;
+
+    public JwtTokenEngine(@Value("${jwt.secret}") String jwtSecret,
+                          @Value("${jwt.verified-cache.max-size:10000}") long maxSize) {
+        this.key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser().verifyWith(key).build();
+        this.verifiedTokens = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfter(new UntilTokenExpiry())
+            .build();
+    }
+
+    /**
+     * Parsed, verified token claims
+     */
+    public record TokenClaims(Long userId, String planType, Instant expiresAt) {
+
+        public boolean isExpired() {
+            return expiresAt != null && !expiresAt.isAfter(Instant.now());
+        }
+    }
+
+    /**
+     * Sign a token for the given user with optional extra claims
+     */
+    public String sign(Long userId, Map<String, Object> extraClaims, long expirationMs) {
+        Date now = new Date();
+        Date expiryDate = new Date(now.getTime() + expirationMs);
+
+        return Jwts.builder()
+                .subject(String.valueOf(userId))
+                .claims(extraClaims)
+                .issuedAt(now)
+                .expiration(expiryDate)
+                .signWith(key, Jwts.SIG.HS512)
+                .compact();
+    }
+
+    /**
+     * Validate token and extract claims in one pass
+     * Recently verified tokens are served from cache until they expire
+     */
+    public Optional<TokenClaims> resolve(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+
+        String tokenHash = hash(token);
+        TokenClaims cached = verifiedTokens.getIfPresent(tokenHash);
+        if (cached != null) {
+            if (!cached.isExpired()) {
+                return Optional.of(cached);
+            }
+            verifiedTokens.invalidate(tokenHash);
+            return Optional.empty();
+        }
+
+        try {
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            Instant expiresAt = claims.getExpiration() != null ? claims.getExpiration().toInstant() : null;
+            TokenClaims resolved = new TokenClaims(
+                Long.valueOf(claims.getSubject()),
+                claims.get("planType", String.class),
+                expiresAt
+            );
+            verifiedTokens.put(tokenHash, resolved);
+            return Optional.of(resolved);
+        } catch (Exception e) {
+            log.debug("JWT validation failed: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * SHA-256 of the token so raw bearer tokens are never kept in memory as keys
+     */
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] bytes = digest.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Cache entries live no longer than the token itself
+     */
+    private static class UntilTokenExpiry implements Expiry<String, TokenClaims> {
+
+        private static final long MAX_LIFETIME_NANOS = Duration.ofHours(24).toNanos();
+
+        @Override
+        public long expireAfterCreate(String key, TokenClaims value, long currentTime) {
+            if (value.expiresAt() == null) {
+                return MAX_LIFETIME_NANOS;
+            }
+            long remaining = TimeUnit.MILLISECONDS.toNanos(
+                value.expiresAt().toEpochMilli() - System.currentTimeMillis());
+            return Math.max(0, Math.min(remaining, MAX_LIFETIME_NANOS));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, TokenClaims value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, TokenClaims value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
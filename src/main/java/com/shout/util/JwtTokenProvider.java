@@ -1,29 +1,25 @@
 package com.shout.util;
 
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 // ✅ FIXED: Changed from javax to jakarta
 import jakarta.servlet.http.HttpServletRequest;
-import javax.crypto.SecretKey;
-import java.nio.charset.StandardCharsets;
-import java.util.Date;
+import java.util.Map;
+import java.util.Optional;
 
 /**
  * JWT Token Provider for authentication
  * Generates and validates JWT tokens
  */
 @Component
+@RequiredArgsConstructor
 @Slf4j
 public class JwtTokenProvider {
- 
-    @Value("${jwt.secret}")
-    private String jwtSecret;
+
+    private final JwtTokenEngine tokenEngine;
  
     @Value("${jwt.expiration:86400000}") // 24 hours default
     private long jwtExpirationMs;
@@ -32,56 +28,44 @@ public class JwtTokenProvider {
      * Generate JWT token from user ID
      */
     public String generateToken(Long userId) {
-        Date now = new Date();
-        Date expiryDate = new Date(now.getTime() + jwtExpirationMs);
- 
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
- 
-        return Jwts.builder()
-                .setSubject(String.valueOf(userId))
-                .setIssuedAt(now)
-                .setExpiration(expiryDate)
-                .signWith(key, SignatureAlgorithm.HS512)
-                .compact();
+        return tokenEngine.sign(userId, Map.of(), jwtExpirationMs);
+    }
+
+    /**
+     * Validate token and extract its claims in a single verification
+     */
+    public Optional<JwtTokenEngine.TokenClaims> resolveClaims(String token) {
+        return tokenEngine.resolve(token);
+    }
+
+    /**
+     * Resolve authenticated user ID for a request
+     * Reuses the ID set by JwtAuthenticationFilter, otherwise verifies the bearer token
+     */
+    public Long resolveUserId(HttpServletRequest request) {
+        Object attribute = request.getAttribute("userId");
+        if (attribute instanceof Long userId) {
+            return userId;
+        }
+        return resolveClaims(getTokenFromRequest(request))
+                .map(JwtTokenEngine.TokenClaims::userId)
+                .orElse(null);
     }
  
     /**
      * Get user ID from JWT token
      */
     public Long getUserIdFromToken(String token) {
-        try {
-            SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-           
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
- 
-            return Long.valueOf(claims.getSubject());
-        } catch (Exception e) {
-            log.error("Error extracting user ID from token", e);
-            return null;
-        }
+        return resolveClaims(token)
+                .map(JwtTokenEngine.TokenClaims::userId)
+                .orElse(null);
     }
  
     /**
      * Validate JWT token
      */
     public boolean validateToken(String token) {
-        try {
-            SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-           
-            Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token);
-           
-            return true;
-        } catch (Exception e) {
-            log.error("JWT validation failed: {}", e.getMessage());
-            return false;
-        }
+        return resolveClaims(token).isPresent();
     }
  
     /**
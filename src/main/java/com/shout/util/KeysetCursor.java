@@ -0,0 +1,33 @@
+package com.shout.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset pagination cursor: the sort value and id of the last row of a page
+ * Encoded as URL-safe base64 so clients treat it as a token, not as parameters to tweak.
+ */
+public record KeysetCursor(long value, long id) {
+
+    public String encode() {
+        String raw = value + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor - null/blank means "first page"
+     * @throws IllegalArgumentException for a malformed cursor
+     */
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            return new KeysetCursor(Long.parseLong(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -1,53 +1,47 @@
 package com.shout.util;
 
+import com.shout.util.ratelimit.BucketStore;
 import io.github.bucket4j.Bandwidth;
 import io.github.bucket4j.Bucket;
-import io.github.bucket4j.Bucket4j;
+import io.github.bucket4j.BucketConfiguration;
 import io.github.bucket4j.Refill;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Component;
 
 import java.time.Duration;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class RateLimiter {
-    private final RedisTemplate<String, Object> redisTemplate;
-    private final ConcurrentMap<String, Bucket> cache = new ConcurrentHashMap<>();
+    private final BucketStore bucketStore;
 
     private static final int REQUESTS_PER_HOUR = 100; // Instagram API limit
 
+    // Users without a linked Instagram account share one bucket, as "rate_limit:null" did before the stores
+    static final String ANONYMOUS_KEY = "anonymous";
+
+    private static final BucketConfiguration INSTAGRAM_BUCKET = BucketConfiguration.builder()
+        .addLimit(Bandwidth.classic(REQUESTS_PER_HOUR, Refill.intervally(REQUESTS_PER_HOUR, Duration.ofHours(1))))
+        .build();
+
     /**
      * Check if request is allowed for user (rate limiting)
      * Instagram Graph API: 100 requests per hour per user
      */
     public boolean allowRequest(String userId) {
         try {
-            String key = "rate_limit:" + userId;
-            Bucket bucket = cache.get(key);
-
-            if (bucket == null) {
-                // Create new bucket with refill every hour
-                Bandwidth limit = Bandwidth.classic(REQUESTS_PER_HOUR, Refill.intervally(REQUESTS_PER_HOUR, Duration.ofHours(1)));
-                bucket = Bucket4j.builder()
-                    .addLimit(limit)
-                    .build();
-                
-                cache.putIfAbsent(key, bucket);
-                bucket = cache.get(key);
-            }
+            Bucket bucket = bucketStore.resolve(key(userId), () -> INSTAGRAM_BUCKET);
 
             boolean allowed = bucket.tryConsume(1);
             
             if (!allowed) {
+                bucketStore.getMetrics().recordRejection();
                 log.warn("Rate limit exceeded for user {}", userId);
             } else {
-                log.debug("Request allowed for user {}. Tokens remaining: {}", userId, bucket.getAvailableTokens());
+                bucketStore.getMetrics().recordHit();
+                log.debug("Request allowed for user {}", userId);
             }
 
             return allowed;
@@ -62,17 +56,28 @@ public class RateLimiter {
      * Get remaining requests for user
      */
     public Long getRemainingRequests(String userId) {
-        String key = "rate_limit:" + userId;
-        Bucket bucket = cache.get(key);
-        return bucket != null ? bucket.getAvailableTokens() : REQUESTS_PER_HOUR;
+        try {
+            return bucketStore.find(key(userId))
+                .map(Bucket::getAvailableTokens)
+                .orElse((long) REQUESTS_PER_HOUR);
+        } catch (Exception e) {
+            log.error("Error reading rate limit", e);
+            return (long) REQUESTS_PER_HOUR;
+        }
     }
 
     /**
      * Reset rate limit for user (admin action)
      */
     public void resetRateLimit(String userId) {
-        String key = "rate_limit:" + userId;
-        cache.remove(key);
+        bucketStore.remove(key(userId));
         log.info("Rate limit reset for user {}", userId);
     }
+
+    /**
+     * Store key for a user - null or blank ids (no linked Instagram account) map to ANONYMOUS_KEY
+     */
+    private static String key(String userId) {
+        return userId == null || userId.isBlank() ? ANONYMOUS_KEY : userId;
+    }
 }
@@ -0,0 +1,102 @@
+package com.shout.util;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hashed timing wheel - O(1) schedule/cancel for many far-apart deadlines
+ * Deadlines longer than one revolution stay in their slot until their absolute tick comes round.
+ * The wheel does not run a thread: the owner calls {@link #advance()} and handles the keys it returns,
+ * so the wheel can be driven deterministically with a fixed or mutable {@link Clock}.
+ */
+public class TimingWheel<K> {
+
+    private final Clock clock;
+    private final long tickMillis;
+    private final List<Map<K, Long>> slots;
+    private final Map<K, Integer> slotIndex = new HashMap<>();
+    private long currentTick;
+
+    public TimingWheel(Clock clock, Duration tick, int wheelSize) {
+        if (tick.toMillis() <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("Tick and wheel size must be positive");
+        }
+        this.clock = clock;
+        this.tickMillis = tick.toMillis();
+        this.slots = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            slots.add(new LinkedHashMap<>());
+        }
+        this.currentTick = clock.millis() / tickMillis;
+    }
+
+    /**
+     * Schedule (or reschedule) a key; past deadlines fire on the next tick
+     */
+    public synchronized void schedule(K key, Instant deadline) {
+        cancel(key);
+        long deadlineTick = Math.max(-Math.floorDiv(-deadline.toEpochMilli(), tickMillis), currentTick + 1);
+        int slot = (int) (deadlineTick % slots.size());
+        slots.get(slot).put(key, deadlineTick);
+        slotIndex.put(key, slot);
+    }
+
+    /**
+     * Remove a scheduled key, returns false if it was not scheduled
+     */
+    public synchronized boolean cancel(K key) {
+        Integer slot = slotIndex.remove(key);
+        return slot != null && slots.get(slot).remove(key) != null;
+    }
+
+    /**
+     * Move the wheel up to the clock's current time and return every key that became due
+     */
+    public synchronized List<K> advance() {
+        long targetTick = clock.millis() / tickMillis;
+        if (targetTick <= currentTick) {
+            return List.of();
+        }
+
+        List<K> due = new ArrayList<>();
+        long steps = Math.min(targetTick - currentTick, slots.size());
+        for (long step = 1; step <= steps; step++) {
+            collectDue(slots.get((int) ((currentTick + step) % slots.size())), targetTick, due);
+        }
+        currentTick = targetTick;
+        return due;
+    }
+
+    /**
+     * Whether a key is currently scheduled
+     */
+    public synchronized boolean contains(K key) {
+        return slotIndex.containsKey(key);
+    }
+
+    /**
+     * Number of scheduled keys
+     */
+    public synchronized int size() {
+        return slotIndex.size();
+    }
+
+    private void collectDue(Map<K, Long> slot, long targetTick, List<K> due) {
+        Iterator<Map.Entry<K, Long>> entries = slot.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<K, Long> entry = entries.next();
+            if (entry.getValue() <= targetTick) {
+                due.add(entry.getKey());
+                slotIndex.remove(entry.getKey());
+                entries.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.shout.util.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Broadcasts L1 invalidations over Redis pub/sub and applies the ones sent by other nodes
+ * Message format: nodeId \n cacheName [\n key] - no key means "clear the whole cache".
+ * Publishing is best effort: if Redis is down, other nodes' L1 copies expire with their L1 TTL.
+ */
+@Slf4j
+public class CacheInvalidationBus implements MessageListener {
+
+    /**
+     * Receives invalidations from other nodes - key is null for a full clear
+     */
+    public interface Listener {
+        void onRemoteInvalidation(String cacheName, String key);
+    }
+
+    private static final String SEPARATOR = "\n";
+
+    private final StringRedisTemplate redisTemplate;
+    private final String channel;
+    private final String nodeId = UUID.randomUUID().toString();
+    private volatile Listener listener;
+
+    public CacheInvalidationBus(StringRedisTemplate redisTemplate, String channel) {
+        this.redisTemplate = redisTemplate;
+        this.channel = channel;
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    public void publishEvict(String cacheName, String key) {
+        publish(nodeId + SEPARATOR + cacheName + SEPARATOR + key);
+    }
+
+    public void publishClear(String cacheName) {
+        publish(nodeId + SEPARATOR + cacheName);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split(SEPARATOR, 3);
+        if (parts.length < 2 || nodeId.equals(parts[0]) || listener == null) {
+            return;
+        }
+        listener.onRemoteInvalidation(parts[1], parts.length == 3 ? parts[2] : null);
+    }
+
+    private void publish(String message) {
+        try {
+            redisTemplate.convertAndSend(channel, message);
+        } catch (Exception e) {
+            log.warn("Could not broadcast cache invalidation: {}", e.getMessage());
+        }
+    }
+}
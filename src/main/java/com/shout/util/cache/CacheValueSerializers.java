@@ -0,0 +1,23 @@
+package com.shout.util.cache;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.Locale;
+
+/**
+ * Picks the Redis value serializer configured under app.cache.serialization.format
+ */
+public final class CacheValueSerializers {
+
+    private CacheValueSerializers() {
+    }
+
+    public static RedisSerializer<Object> create(TwoLevelCacheProperties.Serialization settings) {
+        return switch (settings.getFormat().toLowerCase(Locale.ROOT)) {
+            case "jdk" -> RedisSerializer.java();
+            case "json" -> RedisSerializer.json();
+            case "smile" -> new SmileRedisSerializer(settings.getCompressionThreshold(), settings.getAllowedPackages());
+            default -> throw new IllegalArgumentException("Unknown cache serialization format: " + settings.getFormat());
+        };
+    }
+}
@@ -0,0 +1,136 @@
+package com.shout.util.cache;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compact binary Redis value serializer: Jackson Smile, LZ4-compressed above a size threshold
+ * Layout: [flags:1][type length:2][type name][raw length:4, only if compressed][payload]
+ * The root type is written once as a class name, so cache values must be concrete DTO types from an
+ * allowed package. JPA entities are rejected - cache a DTO projection instead, so lazy associations
+ * never leak into the payload and the format stays stable across entity changes.
+ */
+public class SmileRedisSerializer implements RedisSerializer<Object> {
+
+    private static final byte FLAG_LZ4 = 0x01;
+    private static final String ENTITY_PACKAGE = "com.shout.model.";
+
+    private final ObjectMapper mapper;
+    private final int compressionThreshold;
+    private final List<String> allowedPackages;
+    private final Map<String, Class<?>> resolvedTypes = new ConcurrentHashMap<>();
+
+    private final LZ4Compressor compressor = LZ4Factory.fastestInstance().fastCompressor();
+    private final LZ4FastDecompressor decompressor = LZ4Factory.fastestInstance().fastDecompressor();
+
+    /**
+     * @param compressionThreshold payloads of at least this many bytes are LZ4-compressed; 0 or less disables
+     * @param allowedPackages package prefixes whose types may be cached
+     */
+    public SmileRedisSerializer(int compressionThreshold, List<String> allowedPackages) {
+        this.compressionThreshold = compressionThreshold;
+        this.allowedPackages = List.copyOf(allowedPackages);
+        this.mapper = new ObjectMapper(new SmileFactory())
+            .registerModule(new JavaTimeModule())
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+
+        String typeName = value.getClass().getName();
+        checkAllowed(typeName);
+        try {
+            byte[] payload = mapper.writeValueAsBytes(value);
+            byte[] type = typeName.getBytes(StandardCharsets.UTF_8);
+
+            byte[] compressed = null;
+            if (compressionThreshold > 0 && payload.length >= compressionThreshold) {
+                byte[] candidate = compressor.compress(payload);
+                // Only worth it if it actually saves space
+                compressed = candidate.length + Integer.BYTES < payload.length ? candidate : null;
+            }
+
+            byte[] body = compressed != null ? compressed : payload;
+            ByteBuffer buffer = ByteBuffer.allocate(1 + Short.BYTES + type.length
+                + (compressed != null ? Integer.BYTES : 0) + body.length);
+            buffer.put(compressed != null ? FLAG_LZ4 : 0);
+            buffer.putShort((short) type.length);
+            buffer.put(type);
+            if (compressed != null) {
+                buffer.putInt(payload.length);
+            }
+            buffer.put(body);
+            return buffer.array();
+        } catch (SerializationException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new SerializationException("Could not write cache value of type " + typeName, e);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            byte flags = buffer.get();
+            byte[] type = new byte[buffer.getShort()];
+            buffer.get(type);
+            Class<?> valueType = resolve(new String(type, StandardCharsets.UTF_8));
+
+            byte[] payload;
+            if ((flags & FLAG_LZ4) != 0) {
+                int rawLength = buffer.getInt();
+                payload = decompressor.decompress(bytes, buffer.position(), rawLength);
+            } else {
+                payload = new byte[buffer.remaining()];
+                buffer.get(payload);
+            }
+            return mapper.readValue(payload, valueType);
+        } catch (SerializationException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new SerializationException("Could not read cache value", e);
+        }
+    }
+
+    private Class<?> resolve(String typeName) {
+        return resolvedTypes.computeIfAbsent(typeName, name -> {
+            checkAllowed(name);
+            try {
+                return Class.forName(name, false, SmileRedisSerializer.class.getClassLoader());
+            } catch (ClassNotFoundException e) {
+                throw new SerializationException("Unknown cache value type " + name, e);
+            }
+        });
+    }
+
+    private void checkAllowed(String typeName) {
+        if (typeName.startsWith(ENTITY_PACKAGE)) {
+            throw new SerializationException("Refusing to cache JPA entity " + typeName + " - cache a DTO instead");
+        }
+        if (allowedPackages.stream().noneMatch(typeName::startsWith)) {
+            throw new SerializationException("Cache value type " + typeName + " is not in an allowed package");
+        }
+    }
+}
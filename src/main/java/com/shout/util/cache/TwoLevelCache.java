@@ -0,0 +1,158 @@
+package com.shout.util.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Two-level cache: per-node Caffeine L1 in front of the shared Redis L2
+ * Reads go L1 -> L2 (and populate L1). Writes and evictions go to both levels and are broadcast
+ * so other nodes drop their L1 copy. L1 keys are the String form of the cache key, the same form
+ * RedisCache uses for its keys, so a key can be evicted on a node that never saw the key object.
+ * Null values are not cached (matches the L2 configuration).
+ */
+public class TwoLevelCache implements Cache {
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> l1;
+    private final Cache l2;
+    private final CacheInvalidationBus invalidationBus;
+
+    public TwoLevelCache(String name,
+                         com.github.benmanes.caffeine.cache.Cache<String, Object> l1,
+                         Cache l2,
+                         CacheInvalidationBus invalidationBus) {
+        this.name = name;
+        this.l1 = l1;
+        this.l2 = l2;
+        this.invalidationBus = invalidationBus;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return l1;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String l1Key = keyOf(key);
+        Object local = l1.getIfPresent(l1Key);
+        if (local != null) {
+            return new SimpleValueWrapper(local);
+        }
+
+        ValueWrapper remote = l2.get(key);
+        if (remote != null && remote.get() != null) {
+            l1.put(l1Key, remote.get());
+        }
+        return remote;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String l1Key = keyOf(key);
+        Object local = l1.getIfPresent(l1Key);
+        if (local != null) {
+            return (T) local;
+        }
+
+        // RedisCache serialises concurrent loads of the same key on this node
+        T value = l2.get(key, valueLoader);
+        if (value != null) {
+            l1.put(l1Key, value);
+        }
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value == null) {
+            evict(key);
+            return;
+        }
+        l2.put(key, value);
+        l1.put(keyOf(key), value);
+        invalidationBus.publishEvict(name, keyOf(key));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        if (value == null) {
+            return get(key);
+        }
+        ValueWrapper existing = l2.putIfAbsent(key, value);
+        if (existing == null) {
+            l1.put(keyOf(key), value);
+            invalidationBus.publishEvict(name, keyOf(key));
+        } else if (existing.get() != null) {
+            l1.put(keyOf(key), existing.get());
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        l2.evict(key);
+        l1.invalidate(keyOf(key));
+        invalidationBus.publishEvict(name, keyOf(key));
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean present = l2.evictIfPresent(key);
+        l1.invalidate(keyOf(key));
+        invalidationBus.publishEvict(name, keyOf(key));
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        l2.clear();
+        l1.invalidateAll();
+        invalidationBus.publishClear(name);
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean hadEntries = l2.invalidate();
+        l1.invalidateAll();
+        invalidationBus.publishClear(name);
+        return hadEntries;
+    }
+
+    /**
+     * Drop an L1 entry after another node changed it
+     */
+    void evictLocal(String l1Key) {
+        l1.invalidate(l1Key);
+    }
+
+    /**
+     * Drop all L1 entries after another node cleared the cache
+     */
+    void clearLocal() {
+        l1.invalidateAll();
+    }
+
+    static String keyOf(Object key) {
+        return String.valueOf(key);
+    }
+}
@@ -0,0 +1,75 @@
+package com.shout.util.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Cache manager handing out TwoLevelCache instances, created on first use
+ * L1 size/TTL come from TwoLevelCacheProperties; the L2 manager is expected to carry the matching L2 TTLs.
+ */
+@Slf4j
+public class TwoLevelCacheManager implements CacheManager, CacheInvalidationBus.Listener {
+
+    private final CacheManager l2Manager;
+    private final TwoLevelCacheProperties properties;
+    private final CacheInvalidationBus invalidationBus;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    public TwoLevelCacheManager(CacheManager l2Manager,
+                                TwoLevelCacheProperties properties,
+                                CacheInvalidationBus invalidationBus,
+                                MeterRegistry meterRegistry) {
+        this.l2Manager = l2Manager;
+        this.properties = properties;
+        this.invalidationBus = invalidationBus;
+        this.meterRegistry = meterRegistry;
+        invalidationBus.setListener(this);
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    @Override
+    public void onRemoteInvalidation(String cacheName, String key) {
+        TwoLevelCache cache = caches.get(cacheName);
+        if (cache == null) {
+            return;
+        }
+        if (key == null) {
+            cache.clearLocal();
+        } else {
+            cache.evictLocal(key);
+        }
+    }
+
+    private TwoLevelCache createCache(String name) {
+        TwoLevelCacheProperties.Policy policy = properties.policyFor(name);
+        com.github.benmanes.caffeine.cache.Cache<String, Object> l1 = Caffeine.newBuilder()
+            .maximumSize(policy.getL1MaxSize())
+            .expireAfterWrite(policy.getL1Ttl())
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, l1, name);
+
+        log.info("Cache '{}' configured (L1 max {}, L1 ttl {}, L2 ttl {})",
+            name, policy.getL1MaxSize(), policy.getL1Ttl(), policy.getL2Ttl());
+        return new TwoLevelCache(name, l1, l2Manager.getCache(name), invalidationBus);
+    }
+}
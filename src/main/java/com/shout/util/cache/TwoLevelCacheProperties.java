@@ -0,0 +1,83 @@
+package com.shout.util.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * app.cache.* - per-cache L1 (Caffeine) and L2 (Redis) policies
+ * Caches without an entry under app.cache.caches use app.cache.defaults; a cache entry only needs
+ * the fields it overrides.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.cache")
+public class TwoLevelCacheProperties {
+
+    /**
+     * Redis pub/sub channel used to evict L1 copies on other nodes
+     */
+    private String invalidationChannel = "cache:invalidate";
+
+    private Policy defaults = new Policy(10_000L, Duration.ofMinutes(1), Duration.ofHours(1));
+
+    private Map<String, Policy> caches = new HashMap<>();
+
+    private Serialization serialization = new Serialization();
+
+    @Data
+    public static class Policy {
+        private Long l1MaxSize;
+        private Duration l1Ttl;
+        private Duration l2Ttl;
+
+        public Policy() {
+        }
+
+        public Policy(Long l1MaxSize, Duration l1Ttl, Duration l2Ttl) {
+            this.l1MaxSize = l1MaxSize;
+            this.l1Ttl = l1Ttl;
+            this.l2Ttl = l2Ttl;
+        }
+    }
+
+    /**
+     * How L2 values are encoded in Redis
+     */
+    @Data
+    public static class Serialization {
+        /**
+         * jdk | json | smile
+         */
+        private String format = "smile";
+
+        /**
+         * Smile payloads of at least this many bytes are LZ4-compressed (0 disables)
+         */
+        private int compressionThreshold = 1024;
+
+        /**
+         * Package prefixes whose types may be written by the smile serializer
+         */
+        private List<String> allowedPackages = new ArrayList<>(List.of(
+            "com.shout.dto.", "com.shout.service.", "java.lang.", "java.util.", "java.time."));
+    }
+
+    /**
+     * Effective policy of a cache: its own settings, falling back to the defaults field by field
+     */
+    public Policy policyFor(String cacheName) {
+        Policy own = caches.get(cacheName);
+        if (own == null) {
+            return defaults;
+        }
+        return new Policy(
+            own.getL1MaxSize() != null ? own.getL1MaxSize() : defaults.getL1MaxSize(),
+            own.getL1Ttl() != null ? own.getL1Ttl() : defaults.getL1Ttl(),
+            own.getL2Ttl() != null ? own.getL2Ttl() : defaults.getL2Ttl());
+    }
+}
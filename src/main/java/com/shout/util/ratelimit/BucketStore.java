@@ -0,0 +1,39 @@
+package com.shout.util.ratelimit;
+
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Bucket Store - where RateLimiter keeps its per-key Bucket4j buckets
+ * Selected with rate-limit.store (local | redis)
+ */
+public interface BucketStore {
+
+    /**
+     * Get the bucket for a key, creating it from the configuration if absent
+     */
+    Bucket resolve(String key, Supplier<BucketConfiguration> configuration);
+
+    /**
+     * Get the bucket for a key without creating one
+     */
+    Optional<Bucket> find(String key);
+
+    /**
+     * Drop the bucket for a key (next request starts with a full bucket)
+     */
+    void remove(String key);
+
+    /**
+     * Store name used as the metrics tag
+     */
+    String name();
+
+    /**
+     * Hit/rejection/eviction counters for this store
+     */
+    BucketStoreMetrics getMetrics();
+}
@@ -0,0 +1,44 @@
+package com.shout.util.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Per-store rate limit counters, tagged with the store name
+ * ratelimit.store.hits - requests allowed by a bucket
+ * ratelimit.store.rejections - requests refused by a bucket
+ * ratelimit.store.evictions - buckets dropped by the store (size/idle eviction or reset)
+ */
+public class BucketStoreMetrics {
+
+    private final Counter hits;
+    private final Counter rejections;
+    private final Counter evictions;
+
+    public BucketStoreMetrics(MeterRegistry meterRegistry, String store) {
+        this.hits = Counter.builder("ratelimit.store.hits")
+            .description("Requests allowed by the rate limiter")
+            .tag("store", store)
+            .register(meterRegistry);
+        this.rejections = Counter.builder("ratelimit.store.rejections")
+            .description("Requests rejected by the rate limiter")
+            .tag("store", store)
+            .register(meterRegistry);
+        this.evictions = Counter.builder("ratelimit.store.evictions")
+            .description("Buckets evicted from the store")
+            .tag("store", store)
+            .register(meterRegistry);
+    }
+
+    public void recordHit() {
+        hits.increment();
+    }
+
+    public void recordRejection() {
+        rejections.increment();
+    }
+
+    public void recordEviction() {
+        evictions.increment();
+    }
+}
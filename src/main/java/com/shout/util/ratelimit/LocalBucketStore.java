@@ -0,0 +1,63 @@
+package com.shout.util.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Local Bucket Store - in-process buckets bounded by size and idle time
+ * Limits are enforced per node; use RedisBucketStore when running several replicas
+ */
+@Slf4j
+public class LocalBucketStore implements BucketStore {
+
+    private final Cache<String, Bucket> buckets;
+
+    @Getter
+    private final BucketStoreMetrics metrics;
+
+    public LocalBucketStore(long maxSize, Duration idleTimeout, MeterRegistry meterRegistry) {
+        this.metrics = new BucketStoreMetrics(meterRegistry, name());
+        this.buckets = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterAccess(idleTimeout)
+            .removalListener((String key, Bucket bucket, RemovalCause cause) -> {
+                if (cause.wasEvicted() || cause == RemovalCause.EXPLICIT) {
+                    metrics.recordEviction();
+                }
+            })
+            .build();
+        log.info("Local rate limit store configured (max size: {}, idle timeout: {})", maxSize, idleTimeout);
+    }
+
+    @Override
+    public Bucket resolve(String key, Supplier<BucketConfiguration> configuration) {
+        return buckets.get(key, k -> Bucket.builder()
+            .withConfiguration(configuration.get())
+            .build());
+    }
+
+    @Override
+    public Optional<Bucket> find(String key) {
+        return Optional.ofNullable(buckets.getIfPresent(key));
+    }
+
+    @Override
+    public void remove(String key) {
+        buckets.invalidate(key);
+    }
+
+    @Override
+    public String name() {
+        return "local";
+    }
+}
@@ -0,0 +1,67 @@
+package com.shout.util.ratelimit;
+
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.ExpirationAfterWriteStrategy;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.github.bucket4j.redis.jedis.cas.JedisBasedProxyManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import redis.clients.jedis.JedisPool;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Redis Bucket Store - bucket state lives in Redis so limits are enforced cluster-wide
+ * Keys expire once the bucket would have refilled, so Redis does the idle eviction
+ */
+@Slf4j
+public class RedisBucketStore implements BucketStore {
+
+    private final ProxyManager<byte[]> proxyManager;
+    private final String keyPrefix;
+
+    @Getter
+    private final BucketStoreMetrics metrics;
+
+    public RedisBucketStore(JedisPool jedisPool, String keyPrefix, Duration keepAfterRefill,
+                            MeterRegistry meterRegistry) {
+        this.keyPrefix = keyPrefix;
+        this.metrics = new BucketStoreMetrics(meterRegistry, name());
+        this.proxyManager = JedisBasedProxyManager.builderFor(jedisPool)
+            .withExpirationStrategy(ExpirationAfterWriteStrategy.basedOnTimeForRefillingBucketUpToMax(keepAfterRefill))
+            .build();
+        log.info("Redis rate limit store configured (key prefix: {})", keyPrefix);
+    }
+
+    @Override
+    public Bucket resolve(String key, Supplier<BucketConfiguration> configuration) {
+        return proxyManager.builder().build(redisKey(key), configuration);
+    }
+
+    @Override
+    public Optional<Bucket> find(String key) {
+        byte[] redisKey = redisKey(key);
+        return proxyManager.getProxyConfiguration(redisKey)
+            .map(configuration -> proxyManager.builder().build(redisKey, () -> configuration));
+    }
+
+    @Override
+    public void remove(String key) {
+        proxyManager.removeProxy(redisKey(key));
+        metrics.recordEviction();
+    }
+
+    @Override
+    public String name() {
+        return "redis";
+    }
+
+    private byte[] redisKey(String key) {
+        return (keyPrefix + key).getBytes(StandardCharsets.UTF_8);
+    }
+}
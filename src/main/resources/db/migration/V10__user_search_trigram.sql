@@ -0,0 +1,17 @@
+-- ===== DATABASE MIGRATION V10: USER SEARCH TRIGRAM INDEXES =====
+-- Name/username search uses pg_trgm: GIN indexes serve similarity (%) and '%q%' / 'q%' LIKE,
+-- btree text_pattern_ops serves 1-2 character prefixes, which have no trigrams to look up
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_users_username_trgm
+    ON users USING gin (LOWER(username) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_users_name_trgm
+    ON users USING gin (LOWER(name) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_users_username_prefix
+    ON users (LOWER(username) text_pattern_ops);
+
+CREATE INDEX IF NOT EXISTS idx_users_name_prefix
+    ON users (LOWER(name) text_pattern_ops);
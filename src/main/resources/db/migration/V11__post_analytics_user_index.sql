@@ -0,0 +1,5 @@
+-- ===== DATABASE MIGRATION V11: POST ANALYTICS PER-USER INDEX =====
+-- Dashboard aggregates read one user's rows, optionally within a month
+
+CREATE INDEX IF NOT EXISTS idx_post_analytics_user_created
+    ON post_analytics(user_id, created_at);
@@ -0,0 +1,95 @@
+-- ===== DATABASE MIGRATION V12: ANALYTICS ROLLUPS =====
+-- Per-user analytics pre-aggregated by (period, media type) so dashboards never scan post_analytics.
+-- A trigger applies the delta of every insert/update/delete of post_analytics, whichever code path
+-- wrote it (JPA, the analytics cache upsert, the bulk refresh batch update).
+
+CREATE TABLE IF NOT EXISTS analytics_rollups (
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    period_type VARCHAR(10) NOT NULL,          -- DAY, MONTH, ALL
+    period_start DATE NOT NULL,                -- first day of the period; 1970-01-01 for ALL
+    media_type VARCHAR(50) NOT NULL,
+    posts BIGINT NOT NULL DEFAULT 0,
+    impressions BIGINT NOT NULL DEFAULT 0,
+    clicks BIGINT NOT NULL DEFAULT 0,
+    profile_visits BIGINT NOT NULL DEFAULT 0,
+    engagement_rate_sum DOUBLE PRECISION NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (user_id, period_type, period_start, media_type)
+);
+
+-- Add a (signed) delta to the day, month and all-time rows of a post
+CREATE OR REPLACE FUNCTION apply_analytics_rollup(p_user_id BIGINT, p_created_at TIMESTAMP, p_media_type VARCHAR,
+                                                  p_posts BIGINT, p_impressions BIGINT, p_clicks BIGINT,
+                                                  p_profile_visits BIGINT, p_engagement DOUBLE PRECISION)
+RETURNS VOID AS $$
+BEGIN
+    INSERT INTO analytics_rollups (user_id, period_type, period_start, media_type, posts, impressions, clicks,
+                                   profile_visits, engagement_rate_sum, updated_at)
+    VALUES
+        (p_user_id, 'DAY', CAST(p_created_at AS DATE), p_media_type,
+         p_posts, p_impressions, p_clicks, p_profile_visits, p_engagement, CURRENT_TIMESTAMP),
+        (p_user_id, 'MONTH', CAST(date_trunc('month', p_created_at) AS DATE), p_media_type,
+         p_posts, p_impressions, p_clicks, p_profile_visits, p_engagement, CURRENT_TIMESTAMP),
+        (p_user_id, 'ALL', DATE '1970-01-01', p_media_type,
+         p_posts, p_impressions, p_clicks, p_profile_visits, p_engagement, CURRENT_TIMESTAMP)
+    ON CONFLICT (user_id, period_type, period_start, media_type) DO UPDATE SET
+        posts = analytics_rollups.posts + EXCLUDED.posts,
+        impressions = analytics_rollups.impressions + EXCLUDED.impressions,
+        clicks = analytics_rollups.clicks + EXCLUDED.clicks,
+        profile_visits = analytics_rollups.profile_visits + EXCLUDED.profile_visits,
+        engagement_rate_sum = analytics_rollups.engagement_rate_sum + EXCLUDED.engagement_rate_sum,
+        updated_at = CURRENT_TIMESTAMP;
+END;
+$$ language 'plpgsql';
+
+CREATE OR REPLACE FUNCTION post_analytics_rollup()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'UPDATE' AND NEW.user_id = OLD.user_id AND NEW.created_at = OLD.created_at
+            AND NEW.media_type = OLD.media_type THEN
+        -- Same rollup rows: apply the difference once (refreshes usually land here)
+        IF (NEW.impressions, NEW.clicks, NEW.profile_visits, NEW.engagement_rate)
+                IS NOT DISTINCT FROM (OLD.impressions, OLD.clicks, OLD.profile_visits, OLD.engagement_rate) THEN
+            RETURN NULL;
+        END IF;
+        PERFORM apply_analytics_rollup(NEW.user_id, NEW.created_at, NEW.media_type, 0,
+            COALESCE(NEW.impressions, 0) - COALESCE(OLD.impressions, 0),
+            COALESCE(NEW.clicks, 0) - COALESCE(OLD.clicks, 0),
+            COALESCE(NEW.profile_visits, 0) - COALESCE(OLD.profile_visits, 0),
+            COALESCE(NEW.engagement_rate, 0) - COALESCE(OLD.engagement_rate, 0));
+        RETURN NULL;
+    END IF;
+
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        PERFORM apply_analytics_rollup(OLD.user_id, OLD.created_at, OLD.media_type, -1,
+            -COALESCE(OLD.impressions, 0), -COALESCE(OLD.clicks, 0), -COALESCE(OLD.profile_visits, 0),
+            -COALESCE(OLD.engagement_rate, 0));
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        PERFORM apply_analytics_rollup(NEW.user_id, NEW.created_at, NEW.media_type, 1,
+            COALESCE(NEW.impressions, 0), COALESCE(NEW.clicks, 0), COALESCE(NEW.profile_visits, 0),
+            COALESCE(NEW.engagement_rate, 0));
+    END IF;
+    RETURN NULL;
+END;
+$$ language 'plpgsql';
+
+DROP TRIGGER IF EXISTS post_analytics_rollup ON post_analytics;
+CREATE TRIGGER post_analytics_rollup
+    AFTER INSERT OR DELETE OR UPDATE OF user_id, created_at, media_type, impressions, clicks, profile_visits, engagement_rate
+    ON post_analytics
+    FOR EACH ROW EXECUTE FUNCTION post_analytics_rollup();
+
+-- Backfill from existing rows
+INSERT INTO analytics_rollups (user_id, period_type, period_start, media_type, posts, impressions, clicks,
+                               profile_visits, engagement_rate_sum, updated_at)
+SELECT pa.user_id, p.period_type, p.period_start, pa.media_type, COUNT(*),
+       COALESCE(SUM(pa.impressions), 0), COALESCE(SUM(pa.clicks), 0), COALESCE(SUM(pa.profile_visits), 0),
+       COALESCE(SUM(pa.engagement_rate), 0), CURRENT_TIMESTAMP
+FROM post_analytics pa
+CROSS JOIN LATERAL (VALUES
+    ('DAY', CAST(pa.created_at AS DATE)),
+    ('MONTH', CAST(date_trunc('month', pa.created_at) AS DATE)),
+    ('ALL', DATE '1970-01-01')) AS p(period_type, period_start)
+GROUP BY pa.user_id, p.period_type, p.period_start, pa.media_type
+ON CONFLICT (user_id, period_type, period_start, media_type) DO NOTHING;
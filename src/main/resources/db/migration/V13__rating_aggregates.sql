@@ -0,0 +1,30 @@
+-- ===== DATABASE MIGRATION V13: RUNNING RATING AGGREGATES =====
+-- users.rating / total_ratings become a running average kept next to a running sum, and
+-- per-category sums/counts live in user_rating_aggregates; both are updated in the rating's transaction
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS rating_sum BIGINT NOT NULL DEFAULT 0;
+UPDATE users SET total_ratings = 0 WHERE total_ratings IS NULL;
+ALTER TABLE users ALTER COLUMN total_ratings SET NOT NULL;
+
+CREATE TABLE IF NOT EXISTS user_rating_aggregates (
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    category VARCHAR(50) NOT NULL,
+    rating_sum BIGINT NOT NULL DEFAULT 0,
+    rating_count INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (user_id, category)
+);
+
+-- Backfill from existing ratings
+UPDATE users u
+SET rating_sum = a.rating_sum,
+    total_ratings = a.rating_count,
+    rating = CAST(a.rating_sum AS DOUBLE PRECISION) / a.rating_count
+FROM (SELECT ratee_id, SUM(rating) AS rating_sum, COUNT(*) AS rating_count
+      FROM user_ratings GROUP BY ratee_id) a
+WHERE a.ratee_id = u.id;
+
+INSERT INTO user_rating_aggregates (user_id, category, rating_sum, rating_count)
+SELECT ratee_id, category, SUM(rating), COUNT(*)
+FROM user_ratings
+GROUP BY ratee_id, category
+ON CONFLICT (user_id, category) DO NOTHING;
@@ -0,0 +1,5 @@
+-- ===== DATABASE MIGRATION V14: RATING FEED INDEX =====
+-- Serves the keyset-paginated rating feed (ratee, newest first) as an index range scan
+
+CREATE INDEX IF NOT EXISTS idx_user_ratings_ratee_created
+    ON user_ratings (ratee_id, created_at DESC, id DESC);
@@ -0,0 +1,6 @@
+-- ===== DATABASE MIGRATION V15: SUBSCRIPTION EXPIRY INDEX =====
+-- Lets the chunked expiry job claim due subscriptions in (renewal_date, id) order without a table scan
+
+CREATE INDEX IF NOT EXISTS idx_user_subscriptions_due
+    ON user_subscriptions (renewal_date, id)
+    WHERE status = 'ACTIVE' AND auto_renew = true;
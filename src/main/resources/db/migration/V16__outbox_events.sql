@@ -0,0 +1,25 @@
+-- ===== DATABASE MIGRATION V16: TRANSACTIONAL OUTBOX =====
+-- Notifications and emails are written here in the business transaction and delivered by OutboxRelay,
+-- so a rollback sends nothing and a node crash loses nothing
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGSERIAL PRIMARY KEY,
+    channel VARCHAR(20) NOT NULL,           -- IN_APP, EMAIL
+    event_type VARCHAR(100) NOT NULL,
+    recipient_user_id BIGINT,
+    recipient_email VARCHAR(255),
+    subject VARCHAR(500),
+    body TEXT,
+    action_url VARCHAR(500),
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',   -- PENDING, SENT, FAILED
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_error TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    dispatched_at TIMESTAMP
+);
+
+-- The relay claims due PENDING rows in (next_attempt_at, id) order
+CREATE INDEX IF NOT EXISTS idx_outbox_events_pending
+    ON outbox_events (next_attempt_at, id)
+    WHERE status = 'PENDING';
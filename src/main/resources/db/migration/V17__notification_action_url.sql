@@ -0,0 +1,4 @@
+-- ===== DATABASE MIGRATION V17: NOTIFICATION ACTION URL =====
+-- In-app notifications delivered from the outbox keep the link they were queued with
+
+ALTER TABLE notifications ADD COLUMN IF NOT EXISTS action_url VARCHAR(500);
@@ -0,0 +1,8 @@
+-- ===== DATABASE MIGRATION V18: CASE-INSENSITIVE DISCOVERY CATEGORY INDEX =====
+-- Category pages match LOWER(category); the exact-case index from V9 is replaced
+
+DROP INDEX IF EXISTS idx_users_discovery_category;
+
+CREATE INDEX IF NOT EXISTS idx_users_discovery_category_lower
+    ON users(LOWER(category), follower_count DESC, id)
+    WHERE is_active = true AND account_banned = false;
@@ -0,0 +1,10 @@
+-- ===== DATABASE MIGRATION V6: DATE-KEYED DAILY COUNTERS =====
+-- daily_requests_sent / daily_requests_accepted are only valid for daily_counter_date.
+-- A counter whose date is not today (UTC) reads as 0, so no nightly reset is needed.
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS daily_counter_date DATE;
+
+UPDATE users
+SET daily_counter_date = (NOW() AT TIME ZONE 'UTC')::date
+WHERE daily_counter_date IS NULL
+  AND (COALESCE(daily_requests_sent, 0) <> 0 OR COALESCE(daily_requests_accepted, 0) <> 0);
@@ -0,0 +1,11 @@
+-- ===== DATABASE MIGRATION V7: EXCHANGE EXPIRY ENGINE =====
+-- 1. reminder_sent_at makes expiration reminders send once per exchange
+-- 2. (status, expires_at, id) lets the expiry engine page in keyset order without a sort
+
+ALTER TABLE shoutout_exchanges ADD COLUMN IF NOT EXISTS reminder_sent_at TIMESTAMP;
+
+CREATE INDEX IF NOT EXISTS idx_exchange_expiry_keyset
+    ON shoutout_exchanges(status, expires_at, id);
+
+-- Superseded by idx_exchange_expiry_keyset (same leading columns)
+DROP INDEX IF EXISTS idx_exchange_expiry;
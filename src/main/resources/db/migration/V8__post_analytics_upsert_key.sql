@@ -0,0 +1,12 @@
+-- ===== DATABASE MIGRATION V8: POST ANALYTICS UPSERT KEY =====
+-- Analytics cache misses upsert on (shoutout_exchange_id, instagram_post_id) instead of inserting a new row
+
+-- Keep only the most recent row per exchange/post
+DELETE FROM post_analytics pa
+USING post_analytics newer
+WHERE pa.shoutout_exchange_id = newer.shoutout_exchange_id
+  AND pa.instagram_post_id = newer.instagram_post_id
+  AND pa.id < newer.id;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_post_analytics_exchange_post
+    ON post_analytics(shoutout_exchange_id, instagram_post_id);
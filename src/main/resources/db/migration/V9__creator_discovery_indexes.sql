@@ -0,0 +1,10 @@
+-- ===== DATABASE MIGRATION V9: CREATOR DISCOVERY INDEXES =====
+-- Discovery pages in (follower_count DESC, id) keyset order over active, non-banned users
+
+CREATE INDEX IF NOT EXISTS idx_users_discovery
+    ON users(follower_count DESC, id)
+    WHERE is_active = true AND account_banned = false;
+
+CREATE INDEX IF NOT EXISTS idx_users_discovery_category
+    ON users(category, follower_count DESC, id)
+    WHERE is_active = true AND account_banned = false;
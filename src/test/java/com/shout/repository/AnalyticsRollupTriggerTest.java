@@ -0,0 +1,155 @@
+package com.shout.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the V12 rollup trigger, its backfill and the rebuild query against a real Postgres
+ * Only the columns the rollups read are created; skipped when Docker is unavailable
+ */
+@Testcontainers(disabledWithoutDocker = true)
+public class AnalyticsRollupTriggerTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setup() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(postgres.getJdbcUrl(), postgres.getUsername(),
+            postgres.getPassword()));
+        jdbcTemplate.execute("DROP SCHEMA public CASCADE; CREATE SCHEMA public");
+        jdbcTemplate.execute("CREATE TABLE users (id BIGINT PRIMARY KEY)");
+        jdbcTemplate.execute("CREATE TABLE post_analytics (id BIGSERIAL PRIMARY KEY, " +
+            "user_id BIGINT NOT NULL REFERENCES users(id), created_at TIMESTAMP NOT NULL, " +
+            "media_type VARCHAR(50) NOT NULL, impressions BIGINT DEFAULT 0, clicks BIGINT DEFAULT 0, " +
+            "profile_visits BIGINT DEFAULT 0, engagement_rate DOUBLE PRECISION DEFAULT 0)");
+        jdbcTemplate.update("INSERT INTO users (id) VALUES (1), (2)");
+    }
+
+    @Test
+    public void testBackfillAggregatesExistingRows() throws Exception {
+        post(1L, "2024-01-05T10:00:00", "POST", 100, 5, 10, 15.0);
+        post(1L, "2024-01-05T18:00:00", "POST", 300, 10, 20, 10.0);
+        post(1L, "2024-02-10T09:00:00", "REEL", 50, 1, 2, 6.0);
+        post(2L, "2024-01-05T12:00:00", "POST", 7, 0, 0, 0.0);
+
+        migrate();
+
+        assertArrayEquals(new long[] {2, 400, 15, 30}, rollup(1L, "DAY", "2024-01-05", "POST"));
+        assertArrayEquals(new long[] {2, 400, 15, 30}, rollup(1L, "MONTH", "2024-01-01", "POST"));
+        assertArrayEquals(new long[] {1, 50, 1, 2}, rollup(1L, "MONTH", "2024-02-01", "REEL"));
+        assertArrayEquals(new long[] {2, 400, 15, 30}, rollup(1L, "ALL", "1970-01-01", "POST"));
+        assertArrayEquals(new long[] {1, 7, 0, 0}, rollup(2L, "ALL", "1970-01-01", "POST"));
+        assertEquals(25.0, engagementSum(1L, "ALL", "1970-01-01", "POST"), 1e-9);
+    }
+
+    @Test
+    public void testTriggerAppliesInsertUpdateAndDeleteDeltas() throws Exception {
+        migrate();
+
+        long id = post(1L, "2024-01-05T10:00:00", "POST", 100, 5, 10, 15.0);
+        post(1L, "2024-01-20T10:00:00", "POST", 10, 1, 1, 20.0);
+        assertArrayEquals(new long[] {2, 110, 6, 11}, rollup(1L, "MONTH", "2024-01-01", "POST"));
+
+        // A refresh only changes metrics: one delta on the same rows
+        jdbcTemplate.update("UPDATE post_analytics SET impressions = 250, clicks = 8 WHERE id = ?", id);
+        assertArrayEquals(new long[] {1, 250, 8, 10}, rollup(1L, "DAY", "2024-01-05", "POST"));
+        assertArrayEquals(new long[] {2, 260, 9, 11}, rollup(1L, "ALL", "1970-01-01", "POST"));
+
+        // Moving a post to another month leaves the old period and joins the new one
+        jdbcTemplate.update("UPDATE post_analytics SET created_at = ? WHERE id = ?",
+            Timestamp.valueOf(LocalDateTime.parse("2024-03-02T10:00:00")), id);
+        assertArrayEquals(new long[] {1, 10, 1, 1}, rollup(1L, "MONTH", "2024-01-01", "POST"));
+        assertArrayEquals(new long[] {1, 250, 8, 10}, rollup(1L, "MONTH", "2024-03-01", "POST"));
+        assertArrayEquals(new long[] {0, 0, 0, 0}, rollup(1L, "DAY", "2024-01-05", "POST"));
+        assertArrayEquals(new long[] {2, 260, 9, 11}, rollup(1L, "ALL", "1970-01-01", "POST"));
+
+        jdbcTemplate.update("DELETE FROM post_analytics WHERE id = ?", id);
+        assertArrayEquals(new long[] {1, 10, 1, 1}, rollup(1L, "ALL", "1970-01-01", "POST"));
+        assertEquals(20.0, engagementSum(1L, "ALL", "1970-01-01", "POST"), 1e-9);
+    }
+
+    @Test
+    public void testRebuildRepairsDriftedRollups() throws Exception {
+        migrate();
+        post(1L, "2024-01-05T10:00:00", "POST", 100, 5, 10, 15.0);
+        post(1L, "2024-02-10T09:00:00", "REEL", 50, 1, 2, 6.0);
+        post(2L, "2024-01-05T12:00:00", "POST", 7, 0, 0, 0.0);
+        jdbcTemplate.update("UPDATE analytics_rollups SET impressions = 999, posts = 9 WHERE user_id = 1");
+        jdbcTemplate.update("INSERT INTO analytics_rollups (user_id, period_type, period_start, media_type, posts) " +
+            "VALUES (1, 'DAY', DATE '2023-12-31', 'STORY', 3)");
+
+        NamedParameterJdbcTemplate named = new NamedParameterJdbcTemplate(jdbcTemplate);
+        Map<String, Object> params = Map.of("userId", 1L);
+        named.update(query("deleteByUserId"), params);
+        named.update(query("rebuildForUser"), params);
+
+        assertArrayEquals(new long[] {1, 100, 5, 10}, rollup(1L, "ALL", "1970-01-01", "POST"));
+        assertArrayEquals(new long[] {1, 50, 1, 2}, rollup(1L, "ALL", "1970-01-01", "REEL"));
+        assertArrayEquals(new long[] {0, 0, 0, 0}, rollup(1L, "DAY", "2023-12-31", "STORY"));
+        // Other users are left alone
+        assertArrayEquals(new long[] {1, 7, 0, 0}, rollup(2L, "ALL", "1970-01-01", "POST"));
+        assertEquals(List.of(1L, 2L), jdbcTemplate.queryForList(
+            "SELECT user_id FROM (" + query("findUserIdsWithAnalytics") + ") u ORDER BY user_id", Long.class));
+    }
+
+    private void migrate() throws Exception {
+        // One multi-statement execute, so the plpgsql bodies are not split on ';'
+        jdbcTemplate.execute(new ClassPathResource("db/migration/V12__analytics_rollups.sql")
+            .getContentAsString(StandardCharsets.UTF_8));
+    }
+
+    private long post(Long userId, String createdAt, String mediaType, long impressions, long clicks,
+                      long profileVisits, double engagementRate) {
+        return jdbcTemplate.queryForObject("INSERT INTO post_analytics (user_id, created_at, media_type, impressions, " +
+                "clicks, profile_visits, engagement_rate) VALUES (?, ?, ?, ?, ?, ?, ?) RETURNING id", Long.class,
+            userId, Timestamp.valueOf(LocalDateTime.parse(createdAt)), mediaType, impressions, clicks, profileVisits,
+            engagementRate);
+    }
+
+    /**
+     * posts, impressions, clicks, profile_visits of one rollup row; zeros if the row is missing
+     */
+    private long[] rollup(Long userId, String periodType, String periodStart, String mediaType) {
+        List<long[]> rows = jdbcTemplate.query("SELECT posts, impressions, clicks, profile_visits FROM analytics_rollups " +
+                "WHERE user_id = ? AND period_type = ? AND period_start = ? AND media_type = ?",
+            (rs, rowNum) -> new long[] { rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4) },
+            userId, periodType, Date.valueOf(LocalDate.parse(periodStart)), mediaType);
+        return rows.isEmpty() ? new long[4] : rows.get(0);
+    }
+
+    private double engagementSum(Long userId, String periodType, String periodStart, String mediaType) {
+        return jdbcTemplate.queryForObject("SELECT engagement_rate_sum FROM analytics_rollups " +
+                "WHERE user_id = ? AND period_type = ? AND period_start = ? AND media_type = ?", Double.class,
+            userId, periodType, Date.valueOf(LocalDate.parse(periodStart)), mediaType);
+    }
+
+    private static String query(String method) {
+        for (var candidate : AnalyticsRollupRepository.class.getMethods()) {
+            if (candidate.getName().equals(method)) {
+                return candidate.getAnnotation(Query.class).value();
+            }
+        }
+        throw new IllegalArgumentException(method);
+    }
+}
@@ -0,0 +1,158 @@
+package com.shout.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shout.repository.PostAnalyticsRepository;
+import com.shout.repository.projection.StaleAnalyticsView;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the bulk refresh against a local stub of the Graph API batch endpoint
+ */
+public class AnalyticsRefreshEngineTest {
+    @Mock
+    private PostAnalyticsRepository analyticsRepository;
+
+    @Mock
+    private AnalyticsCacheService analyticsCache;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicInteger roundTrips = new AtomicInteger();
+    private HttpServer graphStub;
+    private AnalyticsRefreshEngine refreshEngine;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        MockitoAnnotations.openMocks(this);
+
+        graphStub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        graphStub.createContext("/v17.0", exchange -> {
+            roundTrips.incrementAndGet();
+            String form = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            byte[] body = batchResponse(form).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        graphStub.start();
+
+        Clock clock = Clock.fixed(Instant.parse("2024-01-01T12:00:00Z"), ZoneOffset.UTC);
+        refreshEngine = new AnalyticsRefreshEngine(analyticsRepository, analyticsCache, jdbcTemplate, WebClient.create(), objectMapper,
+            clock, new SimpleMeterRegistry(), "http://127.0.0.1:" + graphStub.getAddress().getPort() + "/v17.0",
+            "app-token", 2, 2, 100, Duration.ofHours(6), Duration.ofMinutes(5), Duration.ofSeconds(10));
+
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            List<?> args = invocation.getArgument(1);
+            int[] counts = new int[args.size()];
+            Arrays.fill(counts, 1);
+            return counts;
+        });
+    }
+
+    @AfterEach
+    public void tearDown() {
+        graphStub.stop(0);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRefreshesInBatchesAndWritesOnce() {
+        // p3 fails on the Graph side and must keep its old values
+        List<StaleAnalyticsView> rows = List.of(row(1L, "p1"), row(2L, "p2"), row(3L, "p3"));
+
+        int refreshed = refreshEngine.refresh(rows);
+
+        assertEquals(2, refreshed);
+        assertEquals(2, roundTrips.get());
+
+        ArgumentCaptor<List<Object[]>> args = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(eq(AnalyticsRefreshEngine.UPDATE_SQL), args.capture());
+        List<Long> ids = args.getValue().stream().map(values -> (Long) values[6]).sorted().toList();
+        assertEquals(List.of(1L, 2L), ids);
+
+        Object[] first = args.getValue().stream().filter(values -> values[6].equals(1L)).findFirst().orElseThrow();
+        assertEquals(100L, first[0]);
+        assertEquals(5L, first[1]);
+        assertEquals(15L, first[2]);
+        assertEquals(20.0, (Double) first[3], 0.001);
+
+        // Only the rewritten rows leave the analytics cache
+        ArgumentCaptor<List<Long>> evicted = ArgumentCaptor.forClass(List.class);
+        verify(analyticsCache).evictAnalytics(evicted.capture());
+        assertEquals(List.of(1L, 2L), evicted.getValue().stream().sorted().toList());
+    }
+
+    @Test
+    public void testNothingStaleMakesNoCalls() {
+        when(analyticsRepository.findStaleAnalyticsForUser(eq(7L), any(), any())).thenReturn(List.of());
+
+        assertEquals(0, refreshEngine.refreshForUser(7L));
+        assertEquals(0, roundTrips.get());
+        verifyNoInteractions(jdbcTemplate, analyticsCache);
+    }
+
+    private String batchResponse(String form) throws IOException {
+        String batchJson = null;
+        for (String pair : form.split("&")) {
+            if (pair.startsWith("batch=")) {
+                batchJson = URLDecoder.decode(pair.substring("batch=".length()), StandardCharsets.UTF_8);
+            }
+        }
+        List<String> items = new ArrayList<>();
+        for (JsonNode request : objectMapper.readTree(batchJson)) {
+            String postId = request.get("relative_url").asText().replaceAll("/.*", "");
+            if (postId.equals("p3")) {
+                items.add("{\"code\":400,\"body\":\"{\\\"error\\\":{\\\"message\\\":\\\"bad\\\"}}\"}");
+            } else {
+                String insights = "{\"data\":[" +
+                    "{\"name\":\"impressions\",\"values\":[{\"value\":100}]}," +
+                    "{\"name\":\"website_clicks\",\"values\":[{\"value\":5}]}," +
+                    "{\"name\":\"profile_visits\",\"values\":[{\"value\":15}]}]}";
+                items.add("{\"code\":200,\"body\":" + objectMapper.writeValueAsString(insights) + "}");
+            }
+        }
+        return "[" + String.join(",", items) + "]";
+    }
+
+    private static StaleAnalyticsView row(Long id, String postId) {
+        StaleAnalyticsView row = mock(StaleAnalyticsView.class);
+        when(row.getId()).thenReturn(id);
+        when(row.getInstagramPostId()).thenReturn(postId);
+        when(row.getImpressions()).thenReturn(0L);
+        when(row.getClicks()).thenReturn(0L);
+        when(row.getProfileVisits()).thenReturn(0L);
+        return row;
+    }
+}
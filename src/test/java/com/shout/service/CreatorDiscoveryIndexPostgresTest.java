@@ -0,0 +1,98 @@
+package com.shout.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the discovery index's watermark and consistency check against a real Postgres
+ * Only the indexed users columns and the updated_at trigger are created; skipped when Docker is unavailable
+ */
+@Testcontainers(disabledWithoutDocker = true)
+public class CreatorDiscoveryIndexPostgresTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    private JdbcTemplate jdbcTemplate;
+    private CreatorDiscoveryIndex index;
+
+    @BeforeEach
+    public void setup() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(postgres.getJdbcUrl(), postgres.getUsername(),
+            postgres.getPassword()));
+        jdbcTemplate.execute("DROP SCHEMA public CASCADE; CREATE SCHEMA public");
+        jdbcTemplate.execute("CREATE TABLE users (id BIGINT PRIMARY KEY, name VARCHAR(255), username VARCHAR(255), " +
+            "profile_picture VARCHAR(500), plan_type VARCHAR(50), follower_count INTEGER DEFAULT 0, " +
+            "account_type VARCHAR(50), category VARCHAR(100), is_verified BOOLEAN DEFAULT false, " +
+            "rating DOUBLE PRECISION DEFAULT 0, strike_count INTEGER DEFAULT 0 NOT NULL, is_active BOOLEAN DEFAULT true, " +
+            "account_banned BOOLEAN DEFAULT false NOT NULL, updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)");
+        jdbcTemplate.execute("CREATE FUNCTION update_updated_at_column() RETURNS TRIGGER AS $$ " +
+            "BEGIN NEW.updated_at = CURRENT_TIMESTAMP; RETURN NEW; END; $$ language 'plpgsql'");
+        jdbcTemplate.execute("CREATE TRIGGER update_users_updated_at BEFORE UPDATE ON users " +
+            "FOR EACH ROW EXECUTE FUNCTION update_updated_at_column()");
+        jdbcTemplate.update("INSERT INTO users (id, name, username, profile_picture, plan_type, follower_count, " +
+            "account_type, category, is_verified, rating, strike_count, is_active, account_banned) VALUES " +
+            "(1, 'Zoë Café', 'zoe', 'https://cdn.example.com/zoe.jpg', 'PRO', 50000, 'Creator', 'fitness', true, 4.7, 0, true, false), " +
+            "(2, 'Bob', 'bob', NULL, 'BASIC', 20000, 'Business', 'food', false, 14.0 / 3, 1, true, false), " +
+            "(3, NULL, 'carol', NULL, 'PRO', 7000, NULL, NULL, false, 0.1::float8 + 0.2::float8, 3, false, true)");
+
+        index = new CreatorDiscoveryIndex(jdbcTemplate, event -> { }, new SimpleMeterRegistry(), true,
+            Duration.ofMillis(100));
+        index.reload();
+    }
+
+    @Test
+    public void testIndexChecksumMatchesTheDatabase() {
+        long[] expected = jdbcTemplate.queryForObject(CreatorDiscoveryIndex.CHECK_SQL, (rs, rowNum) -> new long[] {
+            rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4), rs.getLong(5), rs.getLong(6), rs.getLong(7)
+        });
+
+        assertArrayEquals(expected, index.checksum());
+        assertTrue(index.checkConsistency());
+    }
+
+    @Test
+    public void testChangesMissedByThePollAreRepaired() {
+        // A category change that never reached the poll: counts and sums are unchanged
+        jdbcTemplate.execute("ALTER TABLE users DISABLE TRIGGER update_users_updated_at");
+        jdbcTemplate.update("UPDATE users SET category = 'travel', updated_at = TIMESTAMP '2000-01-01' WHERE id = 2");
+
+        assertFalse(index.checkConsistency());
+        assertEquals("travel", index.find(2L).category());
+        assertTrue(index.checkConsistency());
+    }
+
+    @Test
+    public void testLongTransactionIsPickedUpAfterItCommits() throws Exception {
+        try (Connection writer = DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(),
+                postgres.getPassword());
+             Statement statement = writer.createStatement()) {
+            writer.setAutoCommit(false);
+            // updated_at is the transaction start; it commits well after the poll overlap
+            statement.executeUpdate("UPDATE users SET follower_count = 60000 WHERE id = 2");
+            Thread.sleep(500);
+            index.pollChanges();
+            assertEquals(20_000, index.find(2L).followerCount());
+
+            Thread.sleep(500);
+            index.pollChanges();
+            writer.commit();
+        }
+
+        index.pollChanges();
+        assertEquals(60_000, index.find(2L).followerCount());
+    }
+}
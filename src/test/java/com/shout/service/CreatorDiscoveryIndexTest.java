@@ -0,0 +1,190 @@
+package com.shout.service;
+
+import com.shout.repository.projection.CreatorCardView;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class CreatorDiscoveryIndexTest {
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private CreatorDiscoveryIndex index;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        when(jdbcTemplate.query(eq(CreatorDiscoveryIndex.SELECT_SQL), any(RowMapper.class))).thenReturn(List.of(
+            row(1, "fitness", "PRO", 50_000, 4.5, true, false),
+            row(2, "fitness", "BASIC", 20_000, 3.0, true, false),
+            row(3, "food", "PRO", 20_000, 5.0, true, false),
+            row(4, "fitness", "PRO", 20_000, 4.0, true, false),
+            row(5, "fitness", "PRO", 90_000, 4.9, true, true),
+            row(6, "fitness", "BASIC", 5_000, 2.0, false, false)));
+
+        when(jdbcTemplate.queryForObject(CreatorDiscoveryIndex.WATERMARK_SQL, Timestamp.class))
+            .thenReturn(Timestamp.valueOf("2024-01-01 00:00:00"));
+
+        index = new CreatorDiscoveryIndex(jdbcTemplate, event -> { }, new SimpleMeterRegistry(), true, Duration.ofSeconds(2));
+        index.reload();
+    }
+
+    @Test
+    public void testCategoryOrderAndEligibility() {
+        // Banned (5) and inactive (6) never show up; ties on followers break by id
+        assertEquals(List.of(1L, 2L, 4L), ids(index.discover("fitness", 0, Integer.MAX_VALUE, false, 0.0,
+            Integer.MAX_VALUE, 0L, 10)));
+        assertEquals(List.of(1L, 2L, 3L, 4L), ids(index.discover(null, 0, Integer.MAX_VALUE, false, 0.0,
+            Integer.MAX_VALUE, 0L, 10)));
+        assertTrue(index.discover("travel", 0, Integer.MAX_VALUE, false, 0.0, Integer.MAX_VALUE, 0L, 10).isEmpty());
+    }
+
+    @Test
+    public void testRangePlanAndRatingFilters() {
+        assertEquals(List.of(2L, 4L), ids(index.discover("fitness", 10_000, 30_000, false, 0.0,
+            Integer.MAX_VALUE, 0L, 10)));
+        assertEquals(List.of(1L, 4L), ids(index.discover("fitness", 0, Integer.MAX_VALUE, true, 0.0,
+            Integer.MAX_VALUE, 0L, 10)));
+        assertEquals(List.of(1L, 3L), ids(index.discover(null, 0, Integer.MAX_VALUE, false, 4.5,
+            Integer.MAX_VALUE, 0L, 10)));
+    }
+
+    @Test
+    public void testKeysetContinuation() {
+        List<CreatorCardView> first = index.discover(null, 0, Integer.MAX_VALUE, false, 0.0, Integer.MAX_VALUE, 0L, 2);
+        CreatorCardView last = first.get(first.size() - 1);
+
+        assertEquals(List.of(1L, 2L), ids(first));
+        assertEquals(List.of(3L, 4L), ids(index.discover(null, 0, Integer.MAX_VALUE, false, 0.0,
+            last.getFollowerCount(), last.getId(), 2)));
+    }
+
+    @Test
+    public void testChangesMoveRowsBetweenSegments() {
+        index.apply(List.of(row(2, "food", "BASIC", 60_000, 3.0, true, false)), LocalDateTime.now());
+
+        assertEquals(List.of(1L, 4L), ids(index.discover("fitness", 0, Integer.MAX_VALUE, false, 0.0,
+            Integer.MAX_VALUE, 0L, 10)));
+        assertEquals(List.of(2L, 3L), ids(index.discover("food", 0, Integer.MAX_VALUE, false, 0.0,
+            Integer.MAX_VALUE, 0L, 10)));
+        assertEquals(2L, index.discover(null, 0, Integer.MAX_VALUE, false, 0.0, Integer.MAX_VALUE, 0L, 1).get(0).getId());
+    }
+
+    @Test
+    public void testCategoryMatchesIgnoreCase() {
+        index.apply(List.of(row(7, "Fitness", "BASIC", 1_000, 4.0, true, false)), LocalDateTime.now());
+
+        List<Long> expected = List.of(1L, 2L, 4L, 7L);
+        assertEquals(expected, ids(index.discover("fitness", 0, Integer.MAX_VALUE, false, 0.0, Integer.MAX_VALUE, 0L, 10)));
+        assertEquals(expected, ids(index.discover("FITNESS", 0, Integer.MAX_VALUE, false, 0.0, Integer.MAX_VALUE, 0L, 10)));
+        // Cards keep the stored spelling
+        assertEquals("Fitness", index.discover("fitness", 0, 1_000, false, 0.0, Integer.MAX_VALUE, 0L, 10)
+            .get(0).getCategory());
+    }
+
+    @Test
+    public void testRatingBoundaryKeepsDoublePrecision() {
+        // 4.7 is not exact in binary; as a float it would read 4.69999980... and fail >= 4.7
+        index.apply(List.of(row(7, "travel", "BASIC", 1_000, 4.7, true, false)), LocalDateTime.now());
+
+        assertEquals(List.of(7L), ids(index.discover("travel", 0, Integer.MAX_VALUE, false, 4.7,
+            Integer.MAX_VALUE, 0L, 10)));
+        assertTrue(index.discover("travel", 0, Integer.MAX_VALUE, false, 4.7000001,
+            Integer.MAX_VALUE, 0L, 10).isEmpty());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testMergedSegmentsMatchAFullRebuild() {
+        index.apply(List.of(
+            row(1, "fitness", "PRO", 20_000, 4.5, true, false),   // moves down, ties with 2 and 4
+            row(3, "fitness", "PRO", 20_000, 5.0, true, false),   // leaves food, which becomes empty
+            row(8, null, "BASIC", 70_000, 3.5, true, false),      // new, no category
+            row(8, null, "BASIC", 75_000, 3.5, true, false)), LocalDateTime.now());
+
+        assertEquals(List.of(8L, 1L, 2L, 3L, 4L), ids(index.discover(null, 0, Integer.MAX_VALUE, false, 0.0,
+            Integer.MAX_VALUE, 0L, 10)));
+        assertEquals(List.of(1L, 2L, 3L, 4L), ids(index.discover("fitness", 0, Integer.MAX_VALUE, false, 0.0,
+            Integer.MAX_VALUE, 0L, 10)));
+        assertTrue(index.discover("food", 0, Integer.MAX_VALUE, false, 0.0, Integer.MAX_VALUE, 0L, 10).isEmpty());
+        assertEquals(75_000, index.discover(null, 0, Integer.MAX_VALUE, false, 0.0, Integer.MAX_VALUE, 0L, 1)
+            .get(0).getFollowerCount());
+
+        // Same answers as an index loaded from scratch with those rows
+        when(jdbcTemplate.query(eq(CreatorDiscoveryIndex.SELECT_SQL), any(RowMapper.class))).thenReturn(List.of(
+            row(1, "fitness", "PRO", 20_000, 4.5, true, false),
+            row(2, "fitness", "BASIC", 20_000, 3.0, true, false),
+            row(3, "fitness", "PRO", 20_000, 5.0, true, false),
+            row(4, "fitness", "PRO", 20_000, 4.0, true, false),
+            row(5, "fitness", "PRO", 90_000, 4.9, true, true),
+            row(6, "fitness", "BASIC", 5_000, 2.0, false, false),
+            row(8, null, "BASIC", 75_000, 3.5, true, false)));
+        CreatorDiscoveryIndex rebuilt = new CreatorDiscoveryIndex(jdbcTemplate, event -> { }, new SimpleMeterRegistry(),
+            true, Duration.ofSeconds(2));
+        rebuilt.reload();
+        for (String category : new String[] { null, "fitness", "food" }) {
+            assertEquals(ids(rebuilt.discover(category, 0, Integer.MAX_VALUE, false, 0.0, Integer.MAX_VALUE, 0L, 10)),
+                ids(index.discover(category, 0, Integer.MAX_VALUE, false, 0.0, Integer.MAX_VALUE, 0L, 10)));
+        }
+        assertEquals(rebuilt.eligibleInRange(0, Integer.MAX_VALUE, 3, 10), index.eligibleInRange(0, Integer.MAX_VALUE, 3, 10));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testConsistencyCheckReloadsOnMismatch() {
+        long[] matching = index.checksum();
+        when(jdbcTemplate.queryForObject(anyString(), any(RowMapper.class))).thenReturn(matching);
+        assertTrue(index.checkConsistency());
+
+        // A row deleted behind the poll's back
+        when(jdbcTemplate.queryForObject(anyString(), any(RowMapper.class)))
+            .thenReturn(new long[] { matching[0] - 1, matching[1], matching[2], matching[3], matching[4], matching[5],
+                matching[6] });
+        assertFalse(index.checkConsistency());
+        verify(jdbcTemplate, times(2)).query(eq(CreatorDiscoveryIndex.SELECT_SQL), any(RowMapper.class));
+    }
+
+    @Test
+    public void testChecksumCoversEveryIndexedColumn() {
+        long[] before = index.checksum();
+
+        // Same counts and sums, only a display column or the rating changed
+        index.apply(List.of(new CreatorDiscoveryIndex.Row(2, "User 2", "user2", null, "BASIC", 20_000, "Creator",
+            "Fitness", false, 3.0, 0, true, false)), LocalDateTime.now());
+        long[] recategorised = index.checksum();
+        assertArrayEquals(Arrays.copyOf(before, 6), Arrays.copyOf(recategorised, 6));
+        assertNotEquals(before[6], recategorised[6]);
+
+        index.apply(List.of(row(4, "fitness", "PRO", 20_000, 4.25, true, false)), LocalDateTime.now());
+        assertEquals(recategorised[5] + 250_000, index.checksum()[5]);
+
+        index.apply(List.of(new CreatorDiscoveryIndex.Row(3, "User 3", "renamed", null, "PRO", 20_000, "Creator",
+            "food", false, 5.0, 0, true, false)), LocalDateTime.now());
+        assertNotEquals(recategorised[6], index.checksum()[6]);
+    }
+
+    private static List<Long> ids(List<CreatorCardView> cards) {
+        return cards.stream().map(CreatorCardView::getId).toList();
+    }
+
+    private static CreatorDiscoveryIndex.Row row(long id, String category, String plan, int followers, double rating,
+                                                 boolean active, boolean banned) {
+        return new CreatorDiscoveryIndex.Row(id, "User " + id, "user" + id, null, plan, followers, "Creator",
+            category, false, rating, 0, active, banned);
+    }
+}
@@ -0,0 +1,98 @@
+package com.shout.service;
+
+import com.shout.model.ShoutoutRequest;
+import com.shout.model.SubscriptionPlan;
+import com.shout.repository.SubscriptionPlanRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class EntitlementServiceTest {
+    @Mock
+    private SubscriptionPlanRepository subscriptionPlanRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private EntitlementService entitlementService;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        when(subscriptionPlanRepository.findAll()).thenReturn(List.of(
+            plan(SubscriptionPlan.PlanType.BASIC, false, 10),
+            plan(SubscriptionPlan.PlanType.PRO, true, 100)));
+
+        entitlementService = new EntitlementService(subscriptionPlanRepository, new DailyQuotaService(jdbcTemplate),
+            jdbcTemplate, Duration.ofMinutes(10), 1000);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSnapshotIsCachedUntilEvicted() {
+        when(jdbcTemplate.query(eq(EntitlementService.LOAD_SQL), any(RowMapper.class), eq(1L)))
+            .thenReturn(List.of(SubscriptionPlan.PlanType.PRO));
+
+        EntitlementService.Entitlements entitlements = entitlementService.get(1L);
+        entitlementService.get(1L);
+
+        assertTrue(entitlements.pro());
+        assertTrue(entitlements.canAccess(ShoutoutRequest.MediaType.REEL));
+        assertEquals(50, entitlements.dailyLimit());
+        verify(jdbcTemplate, times(1)).query(eq(EntitlementService.LOAD_SQL), any(RowMapper.class), eq(1L));
+
+        entitlementService.evict(1L);
+        entitlementService.get(1L);
+        verify(jdbcTemplate, times(2)).query(eq(EntitlementService.LOAD_SQL), any(RowMapper.class), eq(1L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testUnknownUserGetsBasic() {
+        when(jdbcTemplate.query(eq(EntitlementService.LOAD_SQL), any(RowMapper.class), eq(2L))).thenReturn(List.of());
+
+        EntitlementService.Entitlements entitlements = entitlementService.get(2L);
+
+        assertFalse(entitlements.pro());
+        assertTrue(entitlements.canAccess(ShoutoutRequest.MediaType.STORY));
+        assertFalse(entitlements.canAccess(ShoutoutRequest.MediaType.POST));
+        assertEquals(10, entitlements.dailyLimit());
+    }
+
+    @Test
+    public void testPlansLoadOnceAndChangesClearSnapshots() {
+        entitlementService.forPlan(SubscriptionPlan.PlanType.PRO);
+        entitlementService.forPlan(SubscriptionPlan.PlanType.BASIC);
+        verify(subscriptionPlanRepository, times(1)).findAll();
+
+        when(subscriptionPlanRepository.findAll()).thenReturn(List.of(
+            plan(SubscriptionPlan.PlanType.BASIC, false, 10),
+            plan(SubscriptionPlan.PlanType.PRO, true, 200)));
+        entitlementService.refreshPlans();
+
+        assertEquals(200, entitlementService.forPlan(SubscriptionPlan.PlanType.PRO).maxActiveRequests());
+    }
+
+    private static SubscriptionPlan plan(SubscriptionPlan.PlanType planType, boolean pro, int maxActiveRequests) {
+        return SubscriptionPlan.builder()
+            .planType(planType)
+            .storiesSupported(true)
+            .postsSupported(pro)
+            .reelsSupported(pro)
+            .analyticsSupported(pro)
+            .advancedAnalyticsSupported(pro)
+            .maxActiveRequests(maxActiveRequests)
+            .active(true)
+            .build();
+    }
+}
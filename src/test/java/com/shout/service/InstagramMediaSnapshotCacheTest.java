@@ -0,0 +1,130 @@
+package com.shout.service;
+
+import com.shout.model.User;
+import com.shout.util.RateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Post removal checks must only report REMOVED when the Graph API confirms it
+ */
+public class InstagramMediaSnapshotCacheTest {
+    @Mock
+    private InstagramGraphService graphService;
+
+    @Mock
+    private RateLimiter rateLimiter;
+
+    private InstagramMediaSnapshotCache snapshotCache;
+    private User user;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        when(rateLimiter.allowRequest(anyString())).thenReturn(true);
+        snapshotCache = new InstagramMediaSnapshotCache(graphService, rateLimiter, new SimpleMeterRegistry(),
+            Duration.ofMinutes(5), 1000, 25, Duration.ofDays(14));
+
+        user = new User();
+        user.setId(1L);
+        user.setInstagramId("ig-1");
+        user.setInstagramAccessToken("token");
+    }
+
+    @Test
+    public void testShortcodeIgnoresUrlForm() {
+        assertEquals("Cx1", InstagramMediaSnapshotCache.shortcode("https://www.instagram.com/p/Cx1/"));
+        assertEquals("Cx1", InstagramMediaSnapshotCache.shortcode("https://instagram.com/reel/Cx1?igsh=abc"));
+        assertEquals("Cx1", InstagramMediaSnapshotCache.shortcode("https://www.instagram.com/alice/p/Cx1"));
+        assertNull(InstagramMediaSnapshotCache.shortcode("https://www.instagram.com/alice/"));
+        assertNull(InstagramMediaSnapshotCache.shortcode(null));
+    }
+
+    @Test
+    public void testPostInSnapshotUnderAnotherUrlFormIsActive() {
+        when(graphService.fetchUserMediaAsync(anyString(), anyInt()))
+            .thenReturn(Mono.just(List.of(media("m1", "https://www.instagram.com/p/Cx1/"))));
+
+        assertEquals(InstagramMediaSnapshotCache.PostStatus.ACTIVE,
+            snapshotCache.checkPost(user, "https://instagram.com/reel/Cx1?utm_source=share"));
+        verify(graphService, times(1)).fetchUserMediaAsync(anyString(), anyInt());
+    }
+
+    @Test
+    public void testPostNewerThanSnapshotIsFoundAfterRefetch() {
+        when(graphService.fetchUserMediaAsync(anyString(), anyInt()))
+            .thenReturn(Mono.just(List.of()))
+            .thenReturn(Mono.just(List.of(media("m2", "https://www.instagram.com/p/New1/"))));
+
+        // Warm the snapshot before the post exists
+        snapshotCache.getRecentMedia(user);
+
+        assertEquals(InstagramMediaSnapshotCache.PostStatus.ACTIVE,
+            snapshotCache.checkPost(user, "https://www.instagram.com/p/New1/"));
+        verify(graphService, times(2)).fetchUserMediaAsync(anyString(), anyInt());
+    }
+
+    @Test
+    public void testUnseenPostMissingFromSnapshotIsUnknown() {
+        when(graphService.fetchUserMediaAsync(anyString(), anyInt())).thenReturn(Mono.just(List.of()));
+
+        assertEquals(InstagramMediaSnapshotCache.PostStatus.UNKNOWN,
+            snapshotCache.checkPost(user, "https://www.instagram.com/p/Old1/"));
+        verify(graphService, never()).verifyPostExistsAsync(anyString(), anyString());
+    }
+
+    @Test
+    public void testKnownPostIsRemovedOnlyWhenLookupByIdFails() {
+        when(graphService.fetchUserMediaAsync(anyString(), anyInt()))
+            .thenReturn(Mono.just(List.of(media("m3", "https://www.instagram.com/p/Gone1/"))))
+            .thenReturn(Mono.just(List.of()));
+        snapshotCache.getRecentMedia(user);
+        snapshotCache.invalidate(user);
+
+        when(graphService.verifyPostExistsAsync("m3", "token")).thenReturn(Mono.just(false));
+        assertEquals(InstagramMediaSnapshotCache.PostStatus.REMOVED,
+            snapshotCache.checkPost(user, "https://www.instagram.com/p/Gone1/"));
+
+        // Scrolled out of the recent media but still live
+        when(graphService.verifyPostExistsAsync("m3", "token")).thenReturn(Mono.just(true));
+        assertEquals(InstagramMediaSnapshotCache.PostStatus.ACTIVE,
+            snapshotCache.checkPost(user, "https://www.instagram.com/p/Gone1/"));
+    }
+
+    @Test
+    public void testApiFailureIsUnknown() {
+        when(graphService.fetchUserMediaAsync(anyString(), anyInt()))
+            .thenReturn(Mono.just(List.of(media("m4", "https://www.instagram.com/p/Err1/"))))
+            .thenReturn(Mono.just(List.of()));
+        snapshotCache.getRecentMedia(user);
+        snapshotCache.invalidate(user);
+
+        when(graphService.verifyPostExistsAsync("m4", "token"))
+            .thenReturn(Mono.error(new IllegalStateException("503 Service Unavailable")));
+        assertEquals(InstagramMediaSnapshotCache.PostStatus.UNKNOWN,
+            snapshotCache.checkPost(user, "https://www.instagram.com/p/Err1/"));
+
+        when(rateLimiter.allowRequest(anyString())).thenReturn(false);
+        snapshotCache.invalidate(user);
+        assertEquals(InstagramMediaSnapshotCache.PostStatus.UNKNOWN,
+            snapshotCache.checkPost(user, "https://www.instagram.com/p/Err1/"));
+    }
+
+    private static InstagramGraphService.InstagramMedia media(String id, String permalink) {
+        InstagramGraphService.InstagramMedia media = new InstagramGraphService.InstagramMedia();
+        media.setMediaId(id);
+        media.setPermalink(permalink);
+        return media;
+    }
+}
@@ -0,0 +1,165 @@
+package com.shout.service;
+
+import com.shout.model.ShoutoutExchange;
+import com.shout.model.User;
+import com.shout.repository.ShoutoutExchangeRepository;
+import com.shout.util.RateLimiter;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the verification pipeline against a local stub of the Graph API media endpoint
+ */
+public class InstagramVerificationServiceTest {
+    @Mock
+    private ShoutoutExchangeRepository exchangeRepository;
+
+    @Mock
+    private ShoutoutExchangeService exchangeService;
+
+    @Mock
+    private RateLimiter rateLimiter;
+
+    private HttpServer graphStub;
+    private final Map<String, AtomicInteger> mediaCallsByToken = new ConcurrentHashMap<>();
+    private InstagramVerificationService verificationService;
+
+    private User alice;
+    private User bob;
+    private User carol;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        MockitoAnnotations.openMocks(this);
+
+        graphStub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        graphStub.createContext("/v21.0/me/media", exchange -> {
+            String token = exchange.getRequestURI().getQuery().replaceAll(".*access_token=", "");
+            mediaCallsByToken.computeIfAbsent(token, t -> new AtomicInteger()).incrementAndGet();
+            byte[] body = mediaFor(token).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        graphStub.start();
+
+        InstagramGraphService graphService = new InstagramGraphService(WebClient.create());
+        ReflectionTestUtils.setField(graphService, "graphApiUrl", "http://127.0.0.1:" + graphStub.getAddress().getPort());
+        ReflectionTestUtils.setField(graphService, "apiVersion", "v21.0");
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        InstagramMediaSnapshotCache snapshotCache = new InstagramMediaSnapshotCache(graphService, rateLimiter,
+            meterRegistry, Duration.ofMinutes(5), 1000, 25, Duration.ofDays(14));
+        verificationService = new InstagramVerificationService(exchangeRepository, exchangeService, snapshotCache,
+            meterRegistry, 4, Duration.ofSeconds(10));
+
+        alice = user(1L, "alice", "token-alice");
+        bob = user(2L, "bob", "token-bob");
+        carol = user(3L, "carol", "token-carol");
+
+        when(rateLimiter.allowRequest(anyString())).thenReturn(true);
+        when(exchangeService.recordVerifiedPost(anyLong(), anyBoolean(), anyString())).thenReturn(true);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        graphStub.stop(0);
+    }
+
+    @Test
+    public void testFetchesEachUserOnceAndRecordsMatches() {
+        // alice is requester in two exchanges; only the one with bob is tagged in her media
+        when(exchangeRepository.findAwaitingVerification()).thenReturn(List.of(
+            exchange(10L, alice, bob),
+            exchange(11L, alice, carol)
+        ));
+
+        verificationService.verifyPendingPosts();
+
+        assertEquals(1, mediaCallsByToken.get("token-alice").get());
+        assertEquals(1, mediaCallsByToken.get("token-bob").get());
+        assertEquals(1, mediaCallsByToken.get("token-carol").get());
+        verify(exchangeService).recordVerifiedPost(10L, true, "https://instagram.com/p/alice1");
+        verify(exchangeService).recordVerifiedPost(10L, false, "https://instagram.com/p/bob1");
+        verify(exchangeService, never()).recordVerifiedPost(eq(11L), anyBoolean(), anyString());
+    }
+
+    @Test
+    public void testSnapshotIsReusedAcrossCycles() {
+        when(exchangeRepository.findAwaitingVerification()).thenReturn(List.of(exchange(11L, alice, carol)));
+
+        verificationService.verifyPendingPosts();
+        verificationService.verifyPendingPosts();
+
+        assertEquals(1, mediaCallsByToken.get("token-alice").get());
+        assertEquals(1, mediaCallsByToken.get("token-carol").get());
+        verify(rateLimiter, times(1)).allowRequest("ig-alice");
+    }
+
+    @Test
+    public void testRateLimitedUserIsNotFetched() {
+        when(rateLimiter.allowRequest("ig-bob")).thenReturn(false);
+        when(exchangeRepository.findAwaitingVerification()).thenReturn(List.of(exchange(10L, alice, bob)));
+
+        verificationService.verifyPendingPosts();
+
+        assertNull(mediaCallsByToken.get("token-bob"));
+        verify(exchangeService).recordVerifiedPost(10L, true, "https://instagram.com/p/alice1");
+        verify(exchangeService, never()).recordVerifiedPost(eq(10L), eq(false), anyString());
+    }
+
+    private static String mediaFor(String token) {
+        return switch (token) {
+            case "token-alice" -> "{\"data\":[{\"id\":\"a1\",\"caption\":\"Go follow @bob!\"," +
+                "\"permalink\":\"https://instagram.com/p/alice1\",\"timestamp\":\"2099-01-01T00:00:00+0000\"}]}";
+            case "token-bob" -> "{\"data\":[{\"id\":\"b1\",\"caption\":\"Shoutout @alice\"," +
+                "\"permalink\":\"https://instagram.com/p/bob1\",\"timestamp\":\"2099-01-01T00:00:00+0000\"}]}";
+            default -> "{\"data\":[]}";
+        };
+    }
+
+    private static User user(Long id, String username, String token) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        user.setInstagramUsername(username);
+        user.setInstagramId("ig-" + username);
+        user.setInstagramAccessToken(token);
+        return user;
+    }
+
+    private static ShoutoutExchange exchange(Long id, User requester, User acceptor) {
+        ShoutoutExchange exchange = new ShoutoutExchange();
+        exchange.setId(id);
+        exchange.setRequester(requester);
+        exchange.setAcceptor(acceptor);
+        exchange.setStatus(ShoutoutExchange.ExchangeStatus.PENDING);
+        exchange.setRequesterPosted(false);
+        exchange.setAcceptorPosted(false);
+        exchange.setCreatedAt(LocalDateTime.now().minusHours(1));
+        return exchange;
+    }
+}
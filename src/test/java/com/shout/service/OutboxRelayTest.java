@@ -0,0 +1,139 @@
+package com.shout.service;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.shout.model.Notification;
+import com.shout.model.OutboxEvent;
+import com.shout.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class OutboxRelayTest {
+    @RegisterExtension
+    static GreenMailExtension smtp = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private NotificationService notificationService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private JavaMailSenderImpl mailSender;
+    private OutboxRelay relay;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        when(transactionTemplate.execute(any()))
+            .thenAnswer(invocation -> ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+        when(outboxEventRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Local SMTP stub: no auth, no STARTTLS
+        mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(ServerSetupTest.SMTP.getPort());
+
+        EmailService emailService = new EmailService(mailSender, outboxService);
+        ReflectionTestUtils.setField(emailService, "fromEmail", "noreply@shoutx.co.in");
+
+        relay = new OutboxRelay(outboxEventRepository, notificationService, emailService, transactionTemplate,
+            Clock.systemUTC(), new SimpleMeterRegistry(), 10, 5, 3, Duration.ofMinutes(5), Duration.ofSeconds(30),
+            Duration.ofHours(1), Duration.ofDays(7));
+    }
+
+    @Test
+    public void testDeliversEmailAndInAppEvents() throws Exception {
+        OutboxEvent email = event(1L, OutboxEvent.Channel.EMAIL, "creator@example.com");
+        OutboxEvent inApp = event(2L, OutboxEvent.Channel.IN_APP, null);
+        when(outboxEventRepository.claimDueBatch(any(), eq(10))).thenReturn(List.of(email, inApp));
+
+        assertEquals(2, relay.drain());
+
+        MimeMessage[] received = smtp.getReceivedMessages();
+        assertEquals(1, received.length);
+        assertEquals("Shoutout Request", received[0].getSubject());
+        assertEquals("creator@example.com", received[0].getAllRecipients()[0].toString());
+
+        ArgumentCaptor<Notification> notification = ArgumentCaptor.forClass(Notification.class);
+        verify(notificationService).saveNotification(notification.capture());
+        assertEquals(7L, notification.getValue().getUserId());
+        assertEquals("/shoutouts/3", notification.getValue().getActionUrl());
+        verify(outboxEventRepository).markSent(eq(1L), any());
+        verify(outboxEventRepository).markSent(eq(2L), any());
+    }
+
+    @Test
+    public void testClaimTakesLeaseAndCountsAttempt() {
+        OutboxEvent email = event(1L, OutboxEvent.Channel.EMAIL, "creator@example.com");
+        LocalDateTime before = LocalDateTime.now(Clock.systemUTC());
+        when(outboxEventRepository.claimDueBatch(any(), eq(10))).thenReturn(List.of(email));
+
+        relay.drain();
+
+        assertEquals(1, email.getAttempts());
+        assertTrue(email.getNextAttemptAt().isAfter(before.plusMinutes(4)));
+    }
+
+    @Test
+    public void testFailedDeliveryIsRetriedThenGivenUp() {
+        mailSender.setPort(1);  // nothing listening
+        OutboxEvent first = event(1L, OutboxEvent.Channel.EMAIL, "creator@example.com");
+        OutboxEvent last = event(2L, OutboxEvent.Channel.EMAIL, "creator@example.com");
+        last.setAttempts(2);
+        when(outboxEventRepository.claimDueBatch(any(), eq(10))).thenReturn(List.of(first, last));
+
+        assertEquals(0, relay.drain());
+
+        verify(outboxEventRepository).reschedule(eq(1L), any(), anyString());
+        verify(outboxEventRepository).markFailed(eq(2L), anyString());
+        verify(outboxEventRepository, never()).markSent(anyLong(), any());
+    }
+
+    @Test
+    public void testBackoffDoublesUpToCap() {
+        assertEquals(Duration.ofSeconds(30), relay.backoff(1));
+        assertEquals(Duration.ofSeconds(120), relay.backoff(3));
+        assertEquals(Duration.ofHours(1), relay.backoff(12));
+    }
+
+    private static OutboxEvent event(long id, OutboxEvent.Channel channel, String email) {
+        return OutboxEvent.builder()
+            .id(id)
+            .channel(channel)
+            .eventType("SHOUTOUT_REQUEST")
+            .recipientUserId(7L)
+            .recipientEmail(email)
+            .subject("Shoutout Request")
+            .body("<p>Someone requested a shoutout</p>")
+            .actionUrl(channel == OutboxEvent.Channel.IN_APP ? "/shoutouts/3" : null)
+            .createdAt(LocalDateTime.now(Clock.systemUTC()))
+            .nextAttemptAt(LocalDateTime.now(Clock.systemUTC()))
+            .build();
+    }
+}
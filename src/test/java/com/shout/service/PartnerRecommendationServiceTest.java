@@ -0,0 +1,125 @@
+package com.shout.service;
+
+import com.shout.dto.PartnerCandidateDTO;
+import com.shout.model.User;
+import com.shout.repository.ShoutoutExchangeRepository;
+import com.shout.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class PartnerRecommendationServiceTest {
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ShoutoutExchangeRepository exchangeRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private CreatorDiscoveryIndex index;
+    private PartnerRecommendationService recommendations;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        when(jdbcTemplate.query(eq(CreatorDiscoveryIndex.SELECT_SQL), any(RowMapper.class))).thenReturn(List.of(
+            row(1, "fitness", "PRO", 10_000, 4.0, 0, false),
+            row(2, "fitness", "PRO", 12_000, 5.0, 0, false),
+            row(3, "food", "BASIC", 11_000, 5.0, 0, false),
+            row(4, "fitness", "PRO", 40_000, 5.0, 0, false),
+            row(5, "fitness", "PRO", 10_000, 5.0, 0, true),
+            row(6, "fitness", "BASIC", 5_000, 1.0, 2, false)));
+        when(exchangeRepository.findCompletionCounts()).thenReturn(List.of());
+        when(userRepository.getReferenceById(anyLong())).thenReturn(new User());
+
+        index = new CreatorDiscoveryIndex(jdbcTemplate,
+            event -> recommendations.onCreatorsChanged((CreatorDiscoveryIndex.CreatorsChanged) event),
+            new SimpleMeterRegistry(), true, Duration.ofSeconds(2));
+        index.reload();
+
+        recommendations = new PartnerRecommendationService(index, exchangeRepository, userRepository,
+            new ConcurrentMapCacheManager(), Clock.systemUTC(), new SimpleMeterRegistry(), 3.0, 500, 100, 2, 2000);
+    }
+
+    @Test
+    public void testRankingAndEligibility() {
+        Page<PartnerCandidateDTO> page = recommendations.getRecommendations(1L, 0, 10);
+
+        // 4 is outside the follower window, 5 is banned, 1 is the user
+        assertEquals(List.of(2L, 3L, 6L), ids(page.getContent()));
+        assertTrue(page.getContent().get(0).getScore() > page.getContent().get(1).getScore());
+        assertEquals(3, page.getTotalElements());
+    }
+
+    @Test
+    public void testPagination() {
+        assertEquals(List.of(2L, 3L), ids(recommendations.getRecommendations(1L, 0, 2).getContent()));
+        assertEquals(List.of(6L), ids(recommendations.getRecommendations(1L, 1, 2).getContent()));
+        assertTrue(recommendations.getRecommendations(1L, 5, 2).getContent().isEmpty());
+    }
+
+    @Test
+    public void testReadsServeCachedScores() {
+        recommendations.getRecommendations(1L, 0, 10);
+        index.apply(List.of(row(3, "food", "BASIC", 100_000, 5.0, 0, false)), LocalDateTime.now());
+
+        // Not re-scored until the incremental run
+        assertEquals(List.of(2L, 3L, 6L), ids(recommendations.getRecommendations(1L, 0, 10).getContent()));
+
+        recommendations.drainDirty();
+        assertEquals(List.of(2L, 6L), ids(recommendations.getRecommendations(1L, 0, 10).getContent()));
+    }
+
+    @Test
+    public void testCompletedExchangeUpdatesHistory() {
+        when(exchangeRepository.countCompletedExchangesAsRequester(any())).thenReturn(12);
+        when(exchangeRepository.countCompletedExchangesAsAcceptor(any())).thenReturn(8);
+        recommendations.getRecommendations(1L, 0, 10);
+
+        recommendations.onExchangeCompleted(6L, 2L);
+        recommendations.drainDirty();
+
+        PartnerCandidateDTO six = recommendations.getRecommendations(1L, 0, 10).getContent().stream()
+            .filter(candidate -> candidate.getUserId() == 6L)
+            .findFirst()
+            .orElseThrow();
+        assertEquals(20, six.getCompletedExchanges());
+    }
+
+    @Test
+    public void testCloserFollowerCountScoresHigher() {
+        CreatorDiscoveryIndex.Row user = row(1, "fitness", "PRO", 10_000, 4.0, 0, false);
+        double close = PartnerRecommendationService.score(user, row(2, "fitness", "PRO", 11_000, 4.0, 0, false), 0, 3.0, 2);
+        double far = PartnerRecommendationService.score(user, row(3, "fitness", "PRO", 25_000, 4.0, 0, false), 0, 3.0, 2);
+
+        assertTrue(close > far);
+    }
+
+    private static List<Long> ids(List<PartnerCandidateDTO> candidates) {
+        return candidates.stream().map(PartnerCandidateDTO::getUserId).toList();
+    }
+
+    private static CreatorDiscoveryIndex.Row row(long id, String category, String plan, int followers, double rating,
+                                                 int strikes, boolean banned) {
+        return new CreatorDiscoveryIndex.Row(id, "User " + id, "user" + id, null, plan, followers, "Creator",
+            category, false, rating, strikes, true, banned);
+    }
+}
@@ -0,0 +1,151 @@
+package com.shout.service;
+
+import com.shout.model.ShoutoutExchange;
+import com.shout.model.User;
+import com.shout.model.UserRating;
+import com.shout.repository.ShoutoutExchangeRepository;
+import com.shout.repository.UserRatingAggregateRepository;
+import com.shout.repository.UserRatingRepository;
+import com.shout.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Running rating aggregates - atomic increments on the hot path, rebuild on drift
+ */
+public class RatingAggregatesTest {
+    @Mock
+    private UserRatingRepository ratingRepository;
+
+    @Mock
+    private UserRatingAggregateRepository aggregateRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ShoutoutExchangeRepository exchangeRepository;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private RatingService ratingService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        ratingService = new RatingService(ratingRepository, aggregateRepository, userRepository, exchangeRepository,
+            outboxService, transactionTemplate);
+
+        when(ratingRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        doAnswer(invocation -> {
+            ((Consumer<Object>) invocation.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    public void testRatingIsAddedInPlaceWithoutRecomputing() {
+        User rater = user(1L, "rater");
+        User ratee = user(2L, "ratee");
+        ratee.setRatingSum(9L);
+        ratee.setTotalRatings(2);
+
+        ratingService.rateUser(rater, ratee, completedExchange(), 5, "Great", UserRating.RatingCategory.RELIABILITY);
+
+        verify(userRepository).addRating(2L, 5);
+        verify(aggregateRepository).addRating(2L, "RELIABILITY", 5);
+        verify(ratingRepository, never()).findAll();
+        verify(outboxService).enqueueInApp(eq("NEW_RATING"), eq(ratee), eq("New Rating"), anyString(), eq("/ratings/10"));
+        assertEquals(14L, ratee.getRatingSum());
+        assertEquals(3, ratee.getTotalRatings());
+        assertEquals(14.0 / 3, ratee.getRating(), 1e-9);
+    }
+
+    @Test
+    public void testRatingUpdatesAreAtomicAndBumpUpdatedAt() throws Exception {
+        String addRating = query(UserRepository.class, "addRating", Long.class, int.class);
+        assertTrue(addRating.contains("rating_sum = rating_sum + :rating"));
+        assertTrue(addRating.contains("total_ratings = total_ratings + 1"));
+        assertTrue(addRating.contains("updated_at = now()"));
+
+        String rebuild = query(UserRepository.class, "rebuildRatingAggregate", Long.class);
+        assertTrue(rebuild.contains("updated_at = now()"));
+
+        String addCategory = query(UserRatingAggregateRepository.class, "addRating", Long.class, String.class, int.class);
+        assertTrue(addCategory.contains("ON CONFLICT (user_id, category) DO UPDATE"));
+        assertTrue(addCategory.contains("rating_sum = user_rating_aggregates.rating_sum + EXCLUDED.rating_sum"));
+    }
+
+    @Test
+    public void testDriftedUsersAreRebuiltUnderLock() {
+        when(aggregateRepository.findUsersWithDrift()).thenReturn(List.of(2L, 3L));
+
+        ratingService.reconcileAggregates();
+
+        for (Long userId : List.of(2L, 3L)) {
+            InOrder inOrder = inOrder(userRepository, aggregateRepository);
+            inOrder.verify(userRepository).lockById(userId);
+            inOrder.verify(userRepository).rebuildRatingAggregate(userId);
+            inOrder.verify(aggregateRepository).deleteByUserId(userId);
+            inOrder.verify(aggregateRepository).rebuildForUser(userId);
+        }
+        verify(transactionTemplate, times(2)).executeWithoutResult(any());
+    }
+
+    @Test
+    public void testOneFailedRebuildDoesNotStopTheOthers() {
+        when(aggregateRepository.findUsersWithDrift()).thenReturn(List.of(2L, 3L));
+        when(userRepository.rebuildRatingAggregate(2L)).thenThrow(new IllegalStateException("deadlock"));
+
+        ratingService.reconcileAggregates();
+
+        verify(userRepository).rebuildRatingAggregate(3L);
+        verify(aggregateRepository).rebuildForUser(3L);
+        verify(aggregateRepository, never()).rebuildForUser(2L);
+    }
+
+    @Test
+    public void testNoDriftDoesNothing() {
+        when(aggregateRepository.findUsersWithDrift()).thenReturn(List.of());
+
+        ratingService.reconcileAggregates();
+
+        verifyNoInteractions(transactionTemplate, userRepository);
+    }
+
+    private static String query(Class<?> repository, String method, Class<?>... parameterTypes) throws Exception {
+        return repository.getMethod(method, parameterTypes).getAnnotation(Query.class).value();
+    }
+
+    private static ShoutoutExchange completedExchange() {
+        ShoutoutExchange exchange = new ShoutoutExchange();
+        exchange.setId(10L);
+        exchange.setStatus(ShoutoutExchange.ExchangeStatus.COMPLETED);
+        return exchange;
+    }
+
+    private static User user(Long id, String username) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        user.setName(username);
+        return user;
+    }
+}
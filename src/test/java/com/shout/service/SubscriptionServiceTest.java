@@ -0,0 +1,131 @@
+package com.shout.service;
+
+import com.shout.repository.SubscriptionPlanRepository;
+import com.shout.repository.SubscriptionRepository;
+import com.shout.repository.UserRepository;
+import com.shout.security.PrincipalCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Set-based subscription expiry - chunk loop, statement parameters and cache evictions
+ */
+public class SubscriptionServiceTest {
+    @Mock
+    private SubscriptionRepository subscriptionRepository;
+
+    @Mock
+    private SubscriptionPlanRepository subscriptionPlanRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PrincipalCache principalCache;
+
+    @Mock
+    private EntitlementService entitlementService;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private final Clock clock = Clock.fixed(Instant.parse("2024-01-01T00:00:00Z"), ZoneOffset.UTC);
+    private final List<Object[]> statements = new ArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        when(transactionTemplate.execute(any()))
+            .thenAnswer(invocation -> ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+    }
+
+    @Test
+    public void testExpiresChunkByChunkUntilAShortChunk() {
+        stubChunks(List.of(1L, 2L), List.of(3L, 4L), List.of(5L));
+
+        int expired = service(2, 10).processExpiredSubscriptions();
+
+        assertEquals(5, expired);
+        assertEquals(3, statements.size());
+        verify(transactionTemplate, times(3)).execute(any());
+
+        verify(principalCache).evictAll(List.of(1L, 2L));
+        verify(principalCache).evictAll(List.of(3L, 4L));
+        verify(principalCache).evictAll(List.of(5L));
+        verify(entitlementService).evictAll(List.of(1L, 2L));
+        verify(entitlementService).evictAll(List.of(3L, 4L));
+        verify(entitlementService).evictAll(List.of(5L));
+    }
+
+    @Test
+    public void testRunStopsAtMaxBatches() {
+        stubChunks(List.of(1L, 2L), List.of(3L, 4L), List.of(5L, 6L));
+
+        int expired = service(2, 2).processExpiredSubscriptions();
+
+        assertEquals(4, expired);
+        assertEquals(2, statements.size());
+        verify(entitlementService, never()).evictAll(List.of(5L, 6L));
+    }
+
+    @Test
+    public void testNothingDueRunsOneEmptyChunk() {
+        stubChunks(List.of());
+
+        assertEquals(0, service(500, 100).processExpiredSubscriptions());
+        assertEquals(1, statements.size());
+        verify(principalCache).evictAll(List.of());
+    }
+
+    @Test
+    public void testSubscriptionsAndDowngradedUsersAreStamped() {
+        stubChunks(List.of(1L));
+
+        service(500, 100).processExpiredSubscriptions();
+
+        // due cutoff, chunk size, expired.updated_at, downgraded.updated_at
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now(clock));
+        assertArrayEquals(new Object[] {now, 500, now, now}, statements.get(0));
+        assertTrue(SubscriptionService.EXPIRE_BATCH_SQL.contains("SET plan_type = 'BASIC', updated_at = ?"));
+    }
+
+    @SafeVarargs
+    private void stubChunks(List<Long>... chunks) {
+        List<List<Long>> remaining = new ArrayList<>(List.of(chunks));
+        when(jdbcTemplate.queryForList(eq(SubscriptionService.EXPIRE_BATCH_SQL), eq(Long.class), any(Object[].class)))
+            .thenAnswer(invocation -> {
+                Object[] args = invocation.getArguments();
+                statements.add(Arrays.copyOfRange(args, 2, args.length));
+                return remaining.isEmpty() ? List.of() : remaining.remove(0);
+            });
+    }
+
+    private SubscriptionService service(int batchSize, int maxBatches) {
+        return new SubscriptionService(subscriptionRepository, subscriptionPlanRepository, userRepository,
+            principalCache, entitlementService, jdbcTemplate, transactionTemplate, clock, new SimpleMeterRegistry(),
+            batchSize, maxBatches);
+    }
+}
@@ -0,0 +1,26 @@
+package com.shout.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KeysetCursorTest {
+
+    @Test
+    public void testRoundTrip() {
+        KeysetCursor cursor = new KeysetCursor(125_000L, 42L);
+
+        assertEquals(cursor, KeysetCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    public void testBlankMeansFirstPage() {
+        assertNull(KeysetCursor.decode(null));
+        assertNull(KeysetCursor.decode(" "));
+    }
+
+    @Test
+    public void testMalformedCursorIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("not-a-cursor"));
+    }
+}
@@ -0,0 +1,42 @@
+package com.shout.util;
+
+import com.shout.util.ratelimit.LocalBucketStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateLimiterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private LocalBucketStore store;
+    private RateLimiter rateLimiter;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        store = new LocalBucketStore(1000, Duration.ofHours(2), meterRegistry);
+        rateLimiter = new RateLimiter(store);
+    }
+
+    @Test
+    public void testUsersWithoutInstagramIdShareOneLimitedBucket() {
+        // Not an error path: null and blank ids are limited, not failed open
+        for (int i = 0; i < 100; i++) {
+            assertTrue(rateLimiter.allowRequest(i % 2 == 0 ? null : " "));
+        }
+        assertFalse(rateLimiter.allowRequest(null));
+        assertEquals(0L, rateLimiter.getRemainingRequests(null));
+        assertEquals(1.0, meterRegistry.get("ratelimit.store.rejections").tag("store", "local").counter().count());
+        assertTrue(store.find(RateLimiter.ANONYMOUS_KEY).isPresent());
+
+        // Linked accounts keep their own budget
+        assertTrue(rateLimiter.allowRequest("17841400000000001"));
+
+        rateLimiter.resetRateLimit(null);
+        assertEquals(100L, rateLimiter.getRemainingRequests(""));
+    }
+}
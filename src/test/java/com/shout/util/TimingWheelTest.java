@@ -0,0 +1,122 @@
+package com.shout.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimingWheelTest {
+
+    private static final Instant START = Instant.parse("2024-01-01T00:00:00Z");
+
+    private MutableClock clock;
+    private TimingWheel<String> wheel;
+
+    @BeforeEach
+    public void setup() {
+        clock = new MutableClock(START);
+        wheel = new TimingWheel<>(clock, Duration.ofMillis(100), 8);
+    }
+
+    @Test
+    public void testFiresOnlyOnceDeadlineReached() {
+        wheel.schedule("a", START.plusMillis(250));
+
+        clock.advance(Duration.ofMillis(200));
+        assertTrue(wheel.advance().isEmpty());
+
+        clock.advance(Duration.ofMillis(100));
+        assertEquals(List.of("a"), wheel.advance());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testDeadlineBeyondOneRevolution() {
+        // 8 slots x 100ms = 800ms per revolution
+        wheel.schedule("far", START.plusSeconds(5));
+
+        for (int i = 0; i < 49; i++) {
+            clock.advance(Duration.ofMillis(100));
+            assertTrue(wheel.advance().isEmpty(), "fired early at step " + i);
+        }
+
+        clock.advance(Duration.ofMillis(100));
+        assertEquals(List.of("far"), wheel.advance());
+    }
+
+    @Test
+    public void testLargeClockJumpCollectsEverythingDue() {
+        wheel.schedule("a", START.plusMillis(300));
+        wheel.schedule("b", START.plusSeconds(3));
+        wheel.schedule("c", START.plusSeconds(30));
+
+        clock.advance(Duration.ofSeconds(10));
+
+        assertEquals(Set.of("a", "b"), new HashSet<>(wheel.advance()));
+        assertTrue(wheel.contains("c"));
+    }
+
+    @Test
+    public void testCancelAndReschedule() {
+        wheel.schedule("a", START.plusMillis(200));
+        assertTrue(wheel.cancel("a"));
+        assertFalse(wheel.cancel("a"));
+
+        wheel.schedule("b", START.plusMillis(200));
+        wheel.schedule("b", START.plusMillis(600));
+        assertEquals(1, wheel.size());
+
+        clock.advance(Duration.ofMillis(300));
+        assertTrue(wheel.advance().isEmpty());
+
+        clock.advance(Duration.ofMillis(300));
+        assertEquals(List.of("b"), wheel.advance());
+    }
+
+    @Test
+    public void testPastDeadlineFiresOnNextTick() {
+        wheel.schedule("late", START.minusSeconds(60));
+
+        clock.advance(Duration.ofMillis(100));
+        assertEquals(List.of("late"), wheel.advance());
+    }
+
+    /**
+     * Test clock that only moves when told to
+     */
+    private static class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant start) {
+            this.now = start;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.shout.util.cache;
+
+import com.shout.service.InstagramIntegrationService.InstagramProfile;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.Map;
+
+/**
+ * Serialize/deserialize timings of the cache value serializers
+ * Tagged benchmark, so it is excluded from the regular suite; run with mvn test -Pbenchmark
+ */
+@Slf4j
+@Tag("benchmark")
+public class CacheSerializerBenchmarkTest {
+
+    private static final int WARMUP = 2_000;
+    private static final int ITERATIONS = 10_000;
+
+    @Test
+    public void benchmarkSerializers() {
+        for (Map.Entry<String, InstagramProfile> payload : CacheSerializerTest.payloads().entrySet()) {
+            log.info("{}: {} iterations", payload.getKey(), ITERATIONS);
+            CacheSerializerTest.serializers().forEach((name, serializer) -> measure(name, serializer, payload.getValue()));
+        }
+    }
+
+    private static void measure(String name, RedisSerializer<Object> serializer, Object value) {
+        byte[] bytes = serializer.serialize(value);
+        for (int i = 0; i < WARMUP; i++) {
+            serializer.deserialize(serializer.serialize(value));
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            serializer.serialize(value);
+        }
+        long serializeNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            serializer.deserialize(bytes);
+        }
+        long deserializeNanos = System.nanoTime() - start;
+
+        log.info("  {}: {} bytes, serialize {} ns/op, deserialize {} ns/op", name, bytes.length,
+            serializeNanos / ITERATIONS, deserializeNanos / ITERATIONS);
+    }
+}
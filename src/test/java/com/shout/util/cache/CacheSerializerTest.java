@@ -0,0 +1,98 @@
+package com.shout.util.cache;
+
+import com.shout.model.PostAnalytics;
+import com.shout.service.InstagramIntegrationService.InstagramProfile;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Payload size and round-trip correctness of the cache value serializers
+ * Timing lives in CacheSerializerBenchmarkTest, which only runs with -Pbenchmark
+ */
+public class CacheSerializerTest {
+
+    @Test
+    public void testEverySerializerRoundTrips() {
+        for (Map.Entry<String, InstagramProfile> payload : payloads().entrySet()) {
+            for (Map.Entry<String, RedisSerializer<Object>> serializer : serializers().entrySet()) {
+                byte[] bytes = serializer.getValue().serialize(payload.getValue());
+                assertEquals(payload.getValue(), serializer.getValue().deserialize(bytes),
+                    serializer.getKey() + " on " + payload.getKey());
+            }
+        }
+    }
+
+    @Test
+    public void testSmileIsSmallerThanJdkAndJson() {
+        for (Map.Entry<String, InstagramProfile> payload : payloads().entrySet()) {
+            Map<String, Integer> sizes = new LinkedHashMap<>();
+            serializers().forEach((name, serializer) -> sizes.put(name, serializer.serialize(payload.getValue()).length));
+
+            assertTrue(sizes.get("smile") < sizes.get("jdk (previous)"), payload.getKey() + ": " + sizes);
+            assertTrue(sizes.get("smile") < sizes.get("json"), payload.getKey() + ": " + sizes);
+            assertTrue(sizes.get("smile+lz4") <= sizes.get("smile") + 1, payload.getKey() + ": " + sizes);
+        }
+
+        // Compression pays off on long, repetitive text
+        InstagramProfile longBio = payloads().get("profile-long-bio");
+        assertTrue(new SmileRedisSerializer(1024, settings().getAllowedPackages()).serialize(longBio).length
+            < new SmileRedisSerializer(0, settings().getAllowedPackages()).serialize(longBio).length / 2);
+    }
+
+    @Test
+    public void testLz4OnlyAboveThreshold() {
+        SmileRedisSerializer serializer = new SmileRedisSerializer(1024, settings().getAllowedPackages());
+        InstagramProfile small = profile("short bio");
+        InstagramProfile large = profile("Shoutouts for small creators! ".repeat(80));
+
+        assertEquals(0, serializer.serialize(small)[0]);
+        assertEquals(1, serializer.serialize(large)[0]);
+        assertEquals(large, serializer.deserialize(serializer.serialize(large)));
+    }
+
+    @Test
+    public void testEntitiesAreRejected() {
+        SmileRedisSerializer serializer = new SmileRedisSerializer(1024, settings().getAllowedPackages());
+
+        assertThrows(SerializationException.class, () -> serializer.serialize(new PostAnalytics()));
+    }
+
+    static Map<String, InstagramProfile> payloads() {
+        Map<String, InstagramProfile> payloads = new LinkedHashMap<>();
+        payloads.put("profile", profile("Coffee, cameras and weekend hikes."));
+        payloads.put("profile-long-bio", profile("Shoutouts for small creators! ".repeat(80)));
+        return payloads;
+    }
+
+    static Map<String, RedisSerializer<Object>> serializers() {
+        Map<String, RedisSerializer<Object>> serializers = new LinkedHashMap<>();
+        serializers.put("jdk (previous)", RedisSerializer.java());
+        serializers.put("json", RedisSerializer.json());
+        serializers.put("smile", new SmileRedisSerializer(0, settings().getAllowedPackages()));
+        serializers.put("smile+lz4", new SmileRedisSerializer(1024, settings().getAllowedPackages()));
+        return serializers;
+    }
+
+    private static TwoLevelCacheProperties.Serialization settings() {
+        return new TwoLevelCacheProperties.Serialization();
+    }
+
+    private static InstagramProfile profile(String biography) {
+        return InstagramProfile.builder()
+            .id("17841400000000001")
+            .username("alice.creates")
+            .fullName("Alice Example")
+            .profilePicUrl("https://cdn.example.com/profile/alice.jpg")
+            .followerCount(12_345)
+            .biography(biography)
+            .websiteUrl("https://alice.example.com")
+            .accountType("Business")
+            .build();
+    }
+}
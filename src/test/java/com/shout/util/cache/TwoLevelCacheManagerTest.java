@@ -0,0 +1,115 @@
+package com.shout.util.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Two nodes sharing one in-memory L2, with the pub/sub hop done by hand
+ */
+public class TwoLevelCacheManagerTest {
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    private ConcurrentMapCacheManager sharedL2;
+    private CacheInvalidationBus busA;
+    private CacheInvalidationBus busB;
+    private TwoLevelCacheManager nodeA;
+    private TwoLevelCacheManager nodeB;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        sharedL2 = new ConcurrentMapCacheManager();
+        sharedL2.setAllowNullValues(false);
+
+        TwoLevelCacheProperties properties = new TwoLevelCacheProperties();
+        properties.getCaches().put("instagram_profiles", new TwoLevelCacheProperties.Policy(100L, null, null));
+
+        busA = new CacheInvalidationBus(redisTemplate, "cache:invalidate");
+        busB = new CacheInvalidationBus(redisTemplate, "cache:invalidate");
+        nodeA = new TwoLevelCacheManager(sharedL2, properties, busA, new SimpleMeterRegistry());
+        nodeB = new TwoLevelCacheManager(sharedL2, properties, busB, new SimpleMeterRegistry());
+    }
+
+    @Test
+    public void testReadThroughPopulatesL1() {
+        sharedL2.getCache("instagram_profiles").put("alice", "profile-v1");
+
+        assertEquals("profile-v1", nodeA.getCache("instagram_profiles").get("alice", String.class));
+
+        // L1 now answers even though L2 changed underneath
+        sharedL2.getCache("instagram_profiles").put("alice", "profile-v2");
+        assertEquals("profile-v1", nodeA.getCache("instagram_profiles").get("alice", String.class));
+    }
+
+    @Test
+    public void testPutEvictsRemoteL1() {
+        Cache onA = nodeA.getCache("instagram_profiles");
+        Cache onB = nodeB.getCache("instagram_profiles");
+        onA.put("alice", "profile-v1");
+        assertEquals("profile-v1", onB.get("alice", String.class));
+
+        onA.put("alice", "profile-v2");
+        deliver(busB);
+
+        assertEquals("profile-v2", onB.get("alice", String.class));
+    }
+
+    @Test
+    public void testOwnMessagesAreIgnored() {
+        Cache onA = nodeA.getCache("instagram_profiles");
+        onA.put("alice", "profile-v1");
+        deliver(busA);
+
+        // L2 removed behind A's back: A still serves from L1 because it ignored its own broadcast
+        sharedL2.getCache("instagram_profiles").evict("alice");
+        assertEquals("profile-v1", onA.get("alice", String.class));
+    }
+
+    @Test
+    public void testClearBroadcastsFullInvalidation() {
+        Cache onA = nodeA.getCache("instagram_profiles");
+        Cache onB = nodeB.getCache("instagram_profiles");
+        onA.put("alice", "profile-v1");
+        onB.get("alice");
+
+        onA.clear();
+        deliver(busB);
+
+        assertNull(onB.get("alice"));
+    }
+
+    @Test
+    public void testUnconfiguredCacheUsesDefaults() {
+        TwoLevelCacheProperties.Policy policy = new TwoLevelCacheProperties().policyFor("something_else");
+
+        assertEquals(10_000L, policy.getL1MaxSize());
+        assertEquals(Duration.ofHours(1), policy.getL2Ttl());
+    }
+
+    /**
+     * Deliver the last published invalidation to a node, as the Redis listener container would
+     */
+    private void deliver(CacheInvalidationBus target) {
+        ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate, atLeastOnce()).convertAndSend(eq("cache:invalidate"), message.capture());
+        byte[] body = message.getValue().getBytes(StandardCharsets.UTF_8);
+        target.onMessage(new DefaultMessage("cache:invalidate".getBytes(StandardCharsets.UTF_8), body), null);
+        clearInvocations(redisTemplate);
+    }
+}
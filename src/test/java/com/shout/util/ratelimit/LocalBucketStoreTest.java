@@ -0,0 +1,79 @@
+package com.shout.util.ratelimit;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.Refill;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LocalBucketStoreTest {
+
+    private static final BucketConfiguration THREE_PER_HOUR = BucketConfiguration.builder()
+        .addLimit(Bandwidth.classic(3, Refill.intervally(3, Duration.ofHours(1))))
+        .build();
+
+    private SimpleMeterRegistry meterRegistry;
+    private LocalBucketStore store;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        store = new LocalBucketStore(1000, Duration.ofHours(2), meterRegistry);
+    }
+
+    @Test
+    public void testLimitIsEnforcedPerKey() {
+        Bucket bucket = store.resolve("alice", () -> THREE_PER_HOUR);
+        assertTrue(bucket.tryConsume(1));
+        assertTrue(bucket.tryConsume(1));
+        assertTrue(bucket.tryConsume(1));
+        assertFalse(bucket.tryConsume(1));
+
+        // Same key resolves to the same, drained bucket; other keys are independent
+        assertFalse(store.resolve("alice", () -> THREE_PER_HOUR).tryConsume(1));
+        assertTrue(store.resolve("bob", () -> THREE_PER_HOUR).tryConsume(1));
+        assertEquals(0, store.find("alice").orElseThrow().getAvailableTokens());
+    }
+
+    @Test
+    public void testBucketRefillsAfterInterval() throws InterruptedException {
+        BucketConfiguration twoPer100ms = BucketConfiguration.builder()
+            .addLimit(Bandwidth.classic(2, Refill.intervally(2, Duration.ofMillis(100))))
+            .build();
+        Bucket bucket = store.resolve("alice", () -> twoPer100ms);
+        assertTrue(bucket.tryConsume(2));
+        assertFalse(bucket.tryConsume(1));
+
+        Thread.sleep(150);
+
+        assertEquals(2, store.resolve("alice", () -> twoPer100ms).getAvailableTokens());
+    }
+
+    @Test
+    public void testFindDoesNotCreateAndRemoveResets() {
+        assertTrue(store.find("alice").isEmpty());
+
+        store.resolve("alice", () -> THREE_PER_HOUR).tryConsume(3);
+        store.remove("alice");
+
+        assertTrue(store.find("alice").isEmpty());
+        assertEquals(3, store.resolve("alice", () -> THREE_PER_HOUR).getAvailableTokens());
+        assertEquals(1.0, meterRegistry.get("ratelimit.store.evictions").tag("store", "local").counter().count());
+    }
+
+    @Test
+    public void testIdleBucketsAreDropped() throws InterruptedException {
+        LocalBucketStore shortLived = new LocalBucketStore(1000, Duration.ofMillis(50), meterRegistry);
+        shortLived.resolve("alice", () -> THREE_PER_HOUR).tryConsume(3);
+
+        Thread.sleep(100);
+
+        assertTrue(shortLived.find("alice").isEmpty());
+    }
+}
@@ -0,0 +1,123 @@
+package com.shout.util.ratelimit;
+
+import com.shout.util.RateLimiter;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.Refill;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.utility.DockerImageName;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPoolConfig;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Redis-backed tests run against a throwaway Redis container and are skipped without Docker;
+ * the unavailable-Redis fallback needs no container
+ */
+public class RedisBucketStoreTest {
+
+    private static final BucketConfiguration THREE_PER_HOUR = BucketConfiguration.builder()
+        .addLimit(Bandwidth.classic(3, Refill.intervally(3, Duration.ofHours(1))))
+        .build();
+
+    private static GenericContainer<?> redis;
+
+    private JedisPool jedisPool;
+
+    @AfterEach
+    public void closePool() {
+        if (jedisPool != null) {
+            jedisPool.close();
+        }
+    }
+
+    @AfterAll
+    public static void stopRedis() {
+        if (redis != null) {
+            redis.stop();
+        }
+    }
+
+    @Test
+    public void testLimitIsSharedAcrossStores() {
+        jedisPool = redisPool();
+        // Two nodes, one Redis: the limit holds cluster-wide
+        RedisBucketStore nodeA = new RedisBucketStore(jedisPool, "test:shared:", Duration.ofMinutes(1), new SimpleMeterRegistry());
+        RedisBucketStore nodeB = new RedisBucketStore(jedisPool, "test:shared:", Duration.ofMinutes(1), new SimpleMeterRegistry());
+
+        assertTrue(nodeA.resolve("alice", () -> THREE_PER_HOUR).tryConsume(2));
+        assertTrue(nodeB.resolve("alice", () -> THREE_PER_HOUR).tryConsume(1));
+        assertFalse(nodeA.resolve("alice", () -> THREE_PER_HOUR).tryConsume(1));
+        assertEquals(0, nodeB.find("alice").orElseThrow().getAvailableTokens());
+        assertTrue(nodeB.resolve("bob", () -> THREE_PER_HOUR).tryConsume(1));
+    }
+
+    @Test
+    public void testBucketRefillsAfterInterval() throws InterruptedException {
+        jedisPool = redisPool();
+        RedisBucketStore store = new RedisBucketStore(jedisPool, "test:refill:", Duration.ofMinutes(1), new SimpleMeterRegistry());
+        BucketConfiguration twoPer200ms = BucketConfiguration.builder()
+            .addLimit(Bandwidth.classic(2, Refill.intervally(2, Duration.ofMillis(200))))
+            .build();
+
+        assertTrue(store.resolve("alice", () -> twoPer200ms).tryConsume(2));
+        assertFalse(store.resolve("alice", () -> twoPer200ms).tryConsume(1));
+
+        Thread.sleep(300);
+
+        assertTrue(store.resolve("alice", () -> twoPer200ms).tryConsume(2));
+    }
+
+    @Test
+    public void testFindDoesNotCreateAndRemoveResets() {
+        jedisPool = redisPool();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RedisBucketStore store = new RedisBucketStore(jedisPool, "test:reset:", Duration.ofMinutes(1), meterRegistry);
+
+        assertTrue(store.find("alice").isEmpty());
+        store.resolve("alice", () -> THREE_PER_HOUR).tryConsume(3);
+        store.remove("alice");
+
+        assertTrue(store.find("alice").isEmpty());
+        assertEquals(3, store.resolve("alice", () -> THREE_PER_HOUR).getAvailableTokens());
+        assertEquals(1.0, meterRegistry.get("ratelimit.store.evictions").tag("store", "redis").counter().count());
+    }
+
+    @Test
+    public void testUnavailableRedisFailsOpen() throws IOException {
+        jedisPool = new JedisPool(new JedisPoolConfig(), "127.0.0.1", unusedPort(), 200);
+        RedisBucketStore store = new RedisBucketStore(jedisPool, "test:down:", Duration.ofMinutes(1), new SimpleMeterRegistry());
+        RateLimiter rateLimiter = new RateLimiter(store);
+
+        // Requests are allowed and reported at the full budget rather than failing the caller
+        assertTrue(rateLimiter.allowRequest("alice"));
+        assertEquals(100L, rateLimiter.getRemainingRequests("alice"));
+        assertThrows(RuntimeException.class, () -> store.resolve("alice", () -> THREE_PER_HOUR).tryConsume(1));
+    }
+
+    private static JedisPool redisPool() {
+        assumeTrue(DockerClientFactory.instance().isDockerAvailable(), "Docker is not available");
+        if (redis == null) {
+            redis = new GenericContainer<>(DockerImageName.parse("redis:7-alpine")).withExposedPorts(6379);
+            redis.start();
+        }
+        return new JedisPool(new JedisPoolConfig(), redis.getHost(), redis.getMappedPort(6379), 2000);
+    }
+
+    private static int unusedPort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}